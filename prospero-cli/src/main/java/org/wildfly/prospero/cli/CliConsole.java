@@ -23,11 +23,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang3.StringUtils;
 import org.wildfly.prospero.api.Console;
 import org.wildfly.prospero.api.ProvisioningProgressEvent;
 import org.wildfly.prospero.api.ArtifactChange;
+import org.wildfly.prospero.updates.UpdateListener;
 
 import static org.jboss.galleon.layout.ProvisioningLayoutFactory.TRACK_CONFIGS;
 import static org.jboss.galleon.layout.ProvisioningLayoutFactory.TRACK_LAYOUT_BUILD;
@@ -152,24 +154,38 @@ public class CliConsole implements Console {
     }
 
     public void updatesFound(List<ArtifactChange> artifactUpdates) {
-        if (artifactUpdates.isEmpty()) {
-            getStdOut().println(CliMessages.MESSAGES.noUpdatesFound());
-        } else {
-            getStdOut().println(CliMessages.MESSAGES.updatesFound());
-            for (ArtifactChange artifactUpdate : artifactUpdates) {
-                final Optional<String> newVersion = artifactUpdate.getNewVersion();
-                final Optional<String> oldVersion = artifactUpdate.getOldVersion();
-                final String artifactName = artifactUpdate.getArtifactName();
-                final String channelName = artifactUpdate.getChannelName().map(name -> "[" + name + "]")
-                        .orElse("");
+        final UpdateListener printer = updatesPrinter();
+        artifactUpdates.forEach(printer::updateFound);
+        updatesSearchCompleted(artifactUpdates);
+    }
 
-                getStdOut().printf("  %s%-50s    %-20s ==>  %-20s   %-20s%n", artifactUpdate.isDowngrade()?"[*]":"", artifactName, oldVersion.orElse("[]"),
-                        newVersion.orElse("[]"), channelName);
+    /**
+     * creates a listener printing the updates as they are found. Once the search is completed,
+     * {@link #updatesSearchCompleted(List)} has to be called to print the summary.
+     */
+    public UpdateListener updatesPrinter() {
+        final AtomicBoolean first = new AtomicBoolean(true);
+        return artifactUpdate -> {
+            if (first.getAndSet(false)) {
+                getStdOut().println(CliMessages.MESSAGES.updatesFound());
             }
+            final Optional<String> newVersion = artifactUpdate.getNewVersion();
+            final Optional<String> oldVersion = artifactUpdate.getOldVersion();
+            final String artifactName = artifactUpdate.getArtifactName();
+            final String channelName = artifactUpdate.getChannelName().map(name -> "[" + name + "]")
+                    .orElse("");
+
+            getStdOut().printf("  %s%-50s    %-20s ==>  %-20s   %-20s%n", artifactUpdate.isDowngrade()?"[*]":"", artifactName, oldVersion.orElse("[]"),
+                    newVersion.orElse("[]"), channelName);
+            return true;
+        };
+    }
 
-            if (artifactUpdates.stream().anyMatch(ArtifactChange::isDowngrade)) {
-                getStdOut().printf(CliMessages.MESSAGES.possibleDowngrade());
-            }
+    public void updatesSearchCompleted(List<ArtifactChange> artifactUpdates) {
+        if (artifactUpdates.isEmpty()) {
+            getStdOut().println(CliMessages.MESSAGES.noUpdatesFound());
+        } else if (artifactUpdates.stream().anyMatch(ArtifactChange::isDowngrade)) {
+            getStdOut().printf(CliMessages.MESSAGES.possibleDowngrade());
         }
     }
 
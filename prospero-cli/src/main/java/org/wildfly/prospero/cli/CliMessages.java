@@ -414,6 +414,10 @@ public interface CliMessages {
         return new ArgumentParsingException(format(bundle.getString("prospero.general.validation.local_repo.not_directory"), repo));
     }
 
+    default ArgumentParsingException positiveNumberRequired(String option, int value) {
+        return new ArgumentParsingException(format(bundle.getString("prospero.general.validation.positive_number"), option, value));
+    }
+
     default ArgumentParsingException invalidRepositoryDefinition(String repoKey) {
         return new ArgumentParsingException(format(bundle.getString("prospero.general.validation.repo_format"), repoKey));
     }
@@ -430,6 +434,10 @@ public interface CliMessages {
         return new IllegalArgumentException(format(bundle.getString("prospero.updates.apply.validation.candidate.not_candidate"), updateDir));
     }
 
+    default IllegalArgumentException noPreviousInstallation(Path installationDir) {
+        return new IllegalArgumentException(format(bundle.getString("prospero.revert.previous.validation.not_found"), installationDir));
+    }
+
     default IllegalArgumentException nonEmptyTargetFolder(Path installationDir) {
         return new IllegalArgumentException(
                 format(bundle.getString("prospero.updates.build.validation.dir.not_empty"), installationDir));
@@ -484,6 +492,14 @@ public interface CliMessages {
         return bundle.getString("prospero.revert.comparing.changes");
     }
 
+    default String restorePreviousStart(Path installationDir) {
+        return format(bundle.getString("prospero.revert.previous.started.header"), installationDir);
+    }
+
+    default String previousInstallationRestored(Path installationDir) {
+        return format(bundle.getString("prospero.revert.previous.complete"), installationDir);
+    }
+
     default String buildRevertCandidateHeader(Path installationDir) {
         return format("Building revert candidate for %s%n", installationDir.toAbsolutePath());
     }
@@ -21,6 +21,7 @@ import org.wildfly.prospero.api.MavenOptions;
 import org.wildfly.prospero.cli.ActionFactory;
 import org.wildfly.prospero.cli.ArgumentParsingException;
 import org.wildfly.prospero.cli.CliConsole;
+import org.wildfly.prospero.cli.CliMessages;
 import org.wildfly.prospero.cli.commands.options.LocalRepoOptions;
 import picocli.CommandLine;
 
@@ -42,6 +43,15 @@ public abstract class AbstractMavenCommand extends AbstractCommand {
     @CommandLine.Option(names = CliConstants.OFFLINE)
     Optional<Boolean> offline = Optional.empty();
 
+    @CommandLine.Option(names = CliConstants.REFRESH)
+    Optional<Boolean> refresh = Optional.empty();
+
+    @CommandLine.Option(names = CliConstants.DOWNLOAD_THREADS, paramLabel = CliConstants.NUMBER)
+    Optional<Integer> downloadThreads = Optional.empty();
+
+    @CommandLine.Option(names = CliConstants.MAX_REPOSITORY_CONNECTIONS, paramLabel = CliConstants.NUMBER)
+    Optional<Integer> maxRepositoryConnections = Optional.empty();
+
     public AbstractMavenCommand(CliConsole console, ActionFactory actionFactory) {
         super(console, actionFactory);
     }
@@ -49,6 +59,19 @@ public abstract class AbstractMavenCommand extends AbstractCommand {
     protected MavenOptions parseMavenOptions() throws ArgumentParsingException {
         final MavenOptions.Builder builder = localRepoOptions.toOptions();
         offline.map(builder::setOffline);
+        refresh.map(builder::setRefresh);
+        if (downloadThreads.isPresent()) {
+            if (downloadThreads.get() < 1) {
+                throw CliMessages.MESSAGES.positiveNumberRequired(CliConstants.DOWNLOAD_THREADS, downloadThreads.get());
+            }
+            builder.setDownloadThreads(downloadThreads.get());
+        }
+        if (maxRepositoryConnections.isPresent()) {
+            if (maxRepositoryConnections.get() < 1) {
+                throw CliMessages.MESSAGES.positiveNumberRequired(CliConstants.MAX_REPOSITORY_CONNECTIONS, maxRepositoryConnections.get());
+            }
+            builder.setMaxConnectionsPerRepository(maxRepositoryConnections.get());
+        }
         return builder.build();
     }
 }
@@ -56,6 +56,7 @@ public final class CliConstants {
         public static final String PREPARE = "prepare";
         public static final String PERFORM = "perform";
         public static final String APPLY = "apply";
+        public static final String PREVIOUS = "previous";
         public static final String PRINT_LICENSES = "print-licenses";
         public static final String SUBSCRIBE = "subscribe";
         protected static final String VERSIONS = "versions";
@@ -68,6 +69,7 @@ public final class CliConstants {
     public static final String CHANNEL_REFERENCE = "<channel-reference>";
     public static final String CHANNEL_MANIFEST_REFERENCE = "<manifest-reference>";
     public static final String FEATURE_PACK_REFERENCE = "<feature-pack-reference>";
+    public static final String NUMBER = "<number>";
     public static final String PATH = "<path>";
     public static final String REPO_URL = "<repo-url>";
 
@@ -88,6 +90,9 @@ public final class CliConstants {
     public static final String NO_LOCAL_MAVEN_CACHE = "--no-resolve-local-cache";
     public static final String USE_LOCAL_MAVEN_CACHE = "--use-default-local-cache";
     public static final String OFFLINE = "--offline";
+    public static final String REFRESH = "--refresh";
+    public static final String DOWNLOAD_THREADS = "--download-threads";
+    public static final String MAX_REPOSITORY_CONNECTIONS = "--max-repository-connections";
     public static final String REVISION = "--revision";
     public static final String SELF = "--self";
     public static final String CANDIDATE_DIR = "--candidate-dir";
@@ -109,4 +114,5 @@ public final class CliConstants {
     public static final String TARGET_CONFIG = "--target-config";
     public static final String PRODUCT = "--product";
     public static final String REMOVE = "--rm";
+    public static final String STAGED = "--staged";
 }
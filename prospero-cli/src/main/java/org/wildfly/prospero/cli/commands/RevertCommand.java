@@ -171,6 +171,44 @@ public class RevertCommand extends AbstractParentCommand {
         }
     }
 
+    @CommandLine.Command(name = CliConstants.Commands.PREVIOUS, sortOptions = false)
+    public static class PreviousCommand extends AbstractCommand {
+
+        @CommandLine.Option(names = CliConstants.DIR)
+        Optional<Path> directory;
+
+        @CommandLine.Option(names = {CliConstants.Y, CliConstants.YES})
+        boolean yes;
+
+        public PreviousCommand(CliConsole console, ActionFactory actionFactory) {
+            super(console, actionFactory);
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            final long startTime = System.currentTimeMillis();
+            final Path installationDirectory = determineInstallationDirectory(directory);
+
+            console.println(CliMessages.MESSAGES.restorePreviousStart(installationDirectory));
+            console.println("");
+
+            if (!yes && !console.confirm(CliMessages.MESSAGES.continueWithRevert(),
+                    CliMessages.MESSAGES.applyingChanges(), CliMessages.MESSAGES.revertCancelled())) {
+                return SUCCESS;
+            }
+
+            if (!ApplyCandidateAction.restorePreviousInstallation(installationDirectory)) {
+                throw CliMessages.MESSAGES.noPreviousInstallation(installationDirectory);
+            }
+
+            console.println("");
+            console.println(CliMessages.MESSAGES.previousInstallationRestored(installationDirectory));
+            final float totalTime = (System.currentTimeMillis() - startTime) / 1000f;
+            console.println(CliMessages.MESSAGES.operationCompleted(totalTime));
+            return SUCCESS;
+        }
+    }
+
     @CommandLine.Command(name = CliConstants.Commands.PREPARE, sortOptions = false)
     public static class PrepareCommand extends AbstractMavenCommand {
 
@@ -211,7 +249,8 @@ public class RevertCommand extends AbstractParentCommand {
         super(console, actionFactory, CliConstants.Commands.REVERT, List.of(
                 new PrepareCommand(console, actionFactory),
                 new ApplyCommand(console, actionFactory),
-                new PerformCommand(console, actionFactory)
+                new PerformCommand(console, actionFactory),
+                new PreviousCommand(console, actionFactory)
         ));
     }
 }
@@ -84,6 +84,9 @@ public class UpdateCommand extends AbstractParentCommand {
         @CommandLine.Option(names = CliConstants.SELF)
         boolean self;
 
+        @CommandLine.Option(names = CliConstants.STAGED)
+        boolean staged;
+
         @CommandLine.Option(names = {CliConstants.Y, CliConstants.YES})
         boolean yes;
 
@@ -142,7 +145,7 @@ public class UpdateCommand extends AbstractParentCommand {
                     }
 
                     console.println(CliMessages.MESSAGES.applyingUpdates());
-                    applyCandidateAction.applyUpdate(ApplyCandidateAction.Type.UPDATE);
+                    applyUpdate(applyCandidateAction, staged);
                 } else {
                     return false;
                 }
@@ -215,6 +218,9 @@ public class UpdateCommand extends AbstractParentCommand {
         @CommandLine.Option(names = CliConstants.REMOVE)
         boolean remove;
 
+        @CommandLine.Option(names = CliConstants.STAGED)
+        boolean staged;
+
         @CommandLine.Option(names = {CliConstants.Y, CliConstants.YES})
         boolean yes;
 
@@ -252,7 +258,7 @@ public class UpdateCommand extends AbstractParentCommand {
                 return ReturnCodes.SUCCESS;
             }
 
-            applyCandidateAction.applyUpdate(ApplyCandidateAction.Type.UPDATE);
+            applyUpdate(applyCandidateAction, staged);
             console.updatesComplete();
 
             if(remove) {
@@ -282,8 +288,8 @@ public class UpdateCommand extends AbstractParentCommand {
 
             console.println(CliMessages.MESSAGES.checkUpdatesHeader(installationDir));
             try (UpdateAction updateAction = actionFactory.update(installationDir, mavenOptions, console, repositories)) {
-                final UpdateSet updateSet = updateAction.findUpdates();
-                console.updatesFound(updateSet.getArtifactUpdates());
+                final UpdateSet updateSet = updateAction.findUpdates(console.updatesPrinter());
+                console.updatesSearchCompleted(updateSet.getArtifactUpdates());
 
                 final float totalTime = (System.currentTimeMillis() - startTime) / 1000f;
                 console.println("");
@@ -418,9 +424,9 @@ public class UpdateCommand extends AbstractParentCommand {
     }
 
     private static boolean buildUpdate(UpdateAction updateAction, Path updateDirectory, boolean yes, CliConsole console, Supplier<Boolean> confirmation) throws OperationException, ProvisioningException {
-        final UpdateSet updateSet = updateAction.findUpdates();
+        final UpdateSet updateSet = updateAction.findUpdates(console.updatesPrinter());
 
-        console.updatesFound(updateSet.getArtifactUpdates());
+        console.updatesSearchCompleted(updateSet.getArtifactUpdates());
         if (updateSet.isEmpty()) {
             return false;
         }
@@ -434,6 +440,14 @@ public class UpdateCommand extends AbstractParentCommand {
         return true;
     }
 
+    private static List<FileConflict> applyUpdate(ApplyCandidateAction applyCandidateAction, boolean staged) throws OperationException, ProvisioningException {
+        if (staged) {
+            return applyCandidateAction.applyUpdateStaged(ApplyCandidateAction.Type.UPDATE);
+        } else {
+            return applyCandidateAction.applyUpdate(ApplyCandidateAction.Type.UPDATE);
+        }
+    }
+
     public static void verifyInstallationContainsOnlyProspero(Path dir) throws ArgumentParsingException {
         verifyDirectoryContainsInstallation(dir);
 
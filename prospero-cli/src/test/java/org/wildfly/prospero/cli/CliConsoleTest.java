@@ -22,11 +22,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.wildfly.prospero.api.ArtifactChange;
+import org.wildfly.prospero.updates.UpdateListener;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -72,6 +74,31 @@ public class CliConsoleTest extends AbstractConsoleTest {
                 .contains("[channel-1]");
     }
 
+    @Test
+    public void testUpdatesPrinterPrintsUpdatesAsFound() {
+        final UpdateListener printer = cliConsole.updatesPrinter();
+
+        printer.updateFound(ArtifactChange.updated(new DefaultArtifact("test.group", "test-artifact1", "jar", "1.0.0"),
+                new DefaultArtifact("test.group", "test-artifact1", "jar", "1.0.1"), "channel-1"));
+        assertThat(outputStream.toString())
+                .contains(CliMessages.MESSAGES.updatesFound())
+                .contains("test.group:test-artifact1");
+
+        printer.updateFound(ArtifactChange.updated(new DefaultArtifact("test.group", "test-artifact2", "jar", "2.0.0"),
+                new DefaultArtifact("test.group", "test-artifact2", "jar", "2.1.0"), "channel-1"));
+        assertThat(outputStream.toString())
+                .containsOnlyOnce(CliMessages.MESSAGES.updatesFound())
+                .contains("test.group:test-artifact2");
+    }
+
+    @Test
+    public void testUpdatesSearchCompletedWithoutUpdates() {
+        cliConsole.updatesSearchCompleted(Collections.emptyList());
+
+        assertThat(outputStream.toString())
+                .contains(CliMessages.MESSAGES.noUpdatesFound());
+    }
+
     @After
     public void destory() throws IOException {
         outputStream.close();
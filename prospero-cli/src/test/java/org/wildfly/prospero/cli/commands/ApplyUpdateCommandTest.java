@@ -99,6 +99,20 @@ public class ApplyUpdateCommandTest extends AbstractConsoleTest {
         verify(applyCandidateAction).applyUpdate(ApplyCandidateAction.Type.UPDATE);
     }
 
+    @Test
+    public void callStagedUpdateAction() throws Exception {
+        final Path updatePath = mockInstallation("update");
+        final Path targetPath = mockInstallation("target");
+        int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.APPLY,
+                CliConstants.CANDIDATE_DIR, updatePath.toString(),
+                CliConstants.DIR, targetPath.toString(),
+                CliConstants.STAGED);
+
+        Assert.assertEquals(getErrorOutput(), ReturnCodes.SUCCESS, exitCode);
+        verify(applyCandidateAction).applyUpdateStaged(ApplyCandidateAction.Type.UPDATE);
+        verify(applyCandidateAction, never()).applyUpdate(ApplyCandidateAction.Type.UPDATE);
+    }
+
     @Test
     public void targetFolderNotValidInstallation() throws Exception {
         final Path updatePath = mockInstallation("update");
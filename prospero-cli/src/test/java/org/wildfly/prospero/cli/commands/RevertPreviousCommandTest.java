@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.cli.commands;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.prospero.actions.ApplyCandidateAction;
+import org.wildfly.prospero.cli.AbstractConsoleTest;
+import org.wildfly.prospero.cli.CliMessages;
+import org.wildfly.prospero.cli.ReturnCodes;
+import org.wildfly.prospero.test.MetadataTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class RevertPreviousCommandTest extends AbstractConsoleTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Path installationDir;
+    private Path previousDir;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        this.installationDir = tempDir.newFolder("base").toPath();
+        MetadataTestUtils.createInstallationMetadata(installationDir).close();
+        MetadataTestUtils.createGalleonProvisionedState(installationDir);
+        Files.writeString(installationDir.resolve("test.txt"), "updated");
+
+        this.previousDir = installationDir.resolveSibling("base.previous");
+    }
+
+    @Test
+    public void restorePreviousInstallation() throws Exception {
+        Files.createDirectories(previousDir);
+        MetadataTestUtils.createInstallationMetadata(previousDir).close();
+        MetadataTestUtils.createGalleonProvisionedState(previousDir);
+        Files.writeString(previousDir.resolve("test.txt"), "previous");
+
+        int exitCode = commandLine.execute(CliConstants.Commands.REVERT, CliConstants.Commands.PREVIOUS,
+                CliConstants.DIR, installationDir.toString());
+
+        assertEquals(getErrorOutput(), ReturnCodes.SUCCESS, exitCode);
+        assertEquals(1, getAskedConfirmation());
+        assertThat(installationDir.resolve("test.txt")).hasContent("previous");
+        assertThat(previousDir.resolve("test.txt")).hasContent("updated");
+    }
+
+    @Test
+    public void failsIfNoPreviousInstallation() {
+        int exitCode = commandLine.execute(CliConstants.Commands.REVERT, CliConstants.Commands.PREVIOUS,
+                CliConstants.DIR, installationDir.toString(), CliConstants.YES);
+
+        assertEquals(ReturnCodes.INVALID_ARGUMENTS, exitCode);
+        assertThat(getErrorOutput()).contains(CliMessages.MESSAGES.noPreviousInstallation(installationDir).getMessage());
+        assertThat(installationDir.resolve("test.txt")).hasContent("updated");
+    }
+
+    @Test
+    public void failsIfServerIsRunning() throws Exception {
+        Files.createDirectories(previousDir);
+        Files.createDirectories(installationDir.resolve(ApplyCandidateAction.STANDALONE_STARTUP_MARKER).getParent());
+        Files.writeString(installationDir.resolve(ApplyCandidateAction.STANDALONE_STARTUP_MARKER), "");
+
+        int exitCode = commandLine.execute(CliConstants.Commands.REVERT, CliConstants.Commands.PREVIOUS,
+                CliConstants.DIR, installationDir.toString(), CliConstants.YES);
+
+        assertEquals(ReturnCodes.PROCESSING_ERROR, exitCode);
+        assertThat(installationDir.resolve("test.txt")).hasContent("updated");
+    }
+}
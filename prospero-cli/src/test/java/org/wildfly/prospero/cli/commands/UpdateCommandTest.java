@@ -43,6 +43,7 @@ import org.wildfly.prospero.api.MavenOptions;
 import org.wildfly.prospero.cli.ActionFactory;
 import org.wildfly.prospero.cli.CliMessages;
 import org.wildfly.prospero.cli.ReturnCodes;
+import org.wildfly.prospero.updates.UpdateListener;
 import org.wildfly.prospero.updates.UpdateSet;
 import org.wildfly.prospero.test.MetadataTestUtils;
 
@@ -113,7 +114,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
 
     @Test
     public void callUpdate() throws Exception {
-        when(updateAction.findUpdates()).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
         when(updateAction.buildUpdate(any())).thenReturn(true);
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.PERFORM,
                 CliConstants.DIR, installationDir.toString());
@@ -123,6 +124,18 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
         Mockito.verify(applyCandidateAction).applyUpdate(ApplyCandidateAction.Type.UPDATE);
     }
 
+    @Test
+    public void callStagedUpdate() throws Exception {
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+        when(updateAction.buildUpdate(any())).thenReturn(true);
+        int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.PERFORM,
+                CliConstants.DIR, installationDir.toString(), CliConstants.STAGED, CliConstants.Y);
+
+        assertEquals(ReturnCodes.SUCCESS, exitCode);
+        Mockito.verify(applyCandidateAction).applyUpdateStaged(ApplyCandidateAction.Type.UPDATE);
+        Mockito.verify(applyCandidateAction, Mockito.never()).applyUpdate(any());
+    }
+
     @Test
     public void selfUpdateRequiresModulePathProp() {
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.PERFORM, CliConstants.SELF);
@@ -134,7 +147,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
     @Test
     public void selfUpdatePassesModulePathAsDir() throws Exception {
         System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.resolve(MODULES_DIR).toString());
-        when(updateAction.findUpdates()).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
         when(updateAction.buildUpdate(any())).thenReturn(true);
 
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.PERFORM, CliConstants.SELF);
@@ -148,7 +161,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
     @Test
     public void dirParameterOverridesModulePathInSelfUpdate() throws Exception {
         System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
-        when(updateAction.findUpdates()).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
         when(updateAction.buildUpdate(any())).thenReturn(true);
 
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.PERFORM, CliConstants.SELF,
@@ -185,7 +198,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
     @Test
     public void testAskForConfirmation() throws Exception {
         System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
-        when(updateAction.findUpdates()).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
         this.setDenyConfirm(true);
 
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.PERFORM, CliConstants.SELF,
@@ -200,7 +213,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
     @Test
     public void testConfirmedConfirmation() throws Exception {
         System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
-        when(updateAction.findUpdates()).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
         when(updateAction.buildUpdate(any())).thenReturn(true);
 
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.PERFORM, CliConstants.SELF,
@@ -216,7 +229,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
     @Test
     public void testListCallsFindUpdates() throws Exception {
         System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
-        when(updateAction.findUpdates()).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
 
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.LIST,
                 CliConstants.DIR, installationDir.toAbsolutePath().toString());
@@ -224,7 +237,60 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
         assertEquals(ReturnCodes.SUCCESS, exitCode);
         Mockito.verify(actionFactory).update(eq(installationDir.toAbsolutePath()), any(), any(), any());
         Mockito.verify(updateAction, never()).performUpdate();
-        Mockito.verify(updateAction).findUpdates();
+        Mockito.verify(updateAction).findUpdates(any());
+    }
+
+    @Test
+    public void testListPrintsUpdatesReportedByListener() throws Exception {
+        System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
+        when(updateAction.findUpdates(any())).thenAnswer(inv -> {
+            inv.getArgument(0, UpdateListener.class).updateFound(change("1.0.0", "1.0.1"));
+            return new UpdateSet(List.of(change("1.0.0", "1.0.1")));
+        });
+
+        int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.LIST,
+                CliConstants.DIR, installationDir.toAbsolutePath().toString());
+
+        assertEquals(ReturnCodes.SUCCESS, exitCode);
+        assertThat(getStandardOutput())
+                .containsOnlyOnce("org.foo:bar")
+                .contains(CliMessages.MESSAGES.updatesFound());
+    }
+
+    @Test
+    public void testListWithRefreshPassesRefreshOption() throws Exception {
+        System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+
+        int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.LIST,
+                CliConstants.DIR, installationDir.toAbsolutePath().toString(), CliConstants.REFRESH);
+
+        assertEquals(ReturnCodes.SUCCESS, exitCode);
+        assertTrue(getCapturedMavenOptions().isRefresh());
+    }
+
+    @Test
+    public void testListWithTransferOptions() throws Exception {
+        System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+
+        int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.LIST,
+                CliConstants.DIR, installationDir.toAbsolutePath().toString(),
+                CliConstants.DOWNLOAD_THREADS, "8", CliConstants.MAX_REPOSITORY_CONNECTIONS, "2");
+
+        assertEquals(ReturnCodes.SUCCESS, exitCode);
+        assertEquals(Integer.valueOf(8), getCapturedMavenOptions().getDownloadThreads());
+        assertEquals(Integer.valueOf(2), getCapturedMavenOptions().getMaxConnectionsPerRepository());
+    }
+
+    @Test
+    public void testListWithInvalidDownloadThreads() throws Exception {
+        System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
+
+        int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.LIST,
+                CliConstants.DIR, installationDir.toAbsolutePath().toString(), CliConstants.DOWNLOAD_THREADS, "0");
+
+        assertEquals(ReturnCodes.INVALID_ARGUMENTS, exitCode);
     }
 
     @Test
@@ -239,7 +305,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
     @Test
     public void testBuildUpdateCallsUpdateActionWhenUpdatesAvailable() throws Exception {
         System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
-        when(updateAction.findUpdates()).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
         final Path updatePath = tempFolder.newFolder().toPath();
 
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.PREPARE, CliConstants.CANDIDATE_DIR, updatePath.toString(),
@@ -254,7 +320,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
     @Test
     public void testBuildUpdateDoesNothingWhenUpdatesNotAvailable() throws Exception {
         System.setProperty(UpdateCommand.JBOSS_MODULE_PATH, installationDir.toString());
-        when(updateAction.findUpdates()).thenReturn(new UpdateSet(Collections.emptyList()));
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(Collections.emptyList()));
         final Path updatePath = tempFolder.newFolder().toPath();
 
         int exitCode = commandLine.execute(CliConstants.Commands.UPDATE, CliConstants.Commands.PREPARE, CliConstants.CANDIDATE_DIR, updatePath.toString(),
@@ -310,7 +376,7 @@ public class UpdateCommandTest extends AbstractMavenCommandTest {
 
     @Override
     protected void doLocalMock() throws Exception {
-        when(updateAction.findUpdates()).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
+        when(updateAction.findUpdates(any())).thenReturn(new UpdateSet(List.of(change("1.0.0", "1.0.1"))));
     }
 
     @Override
@@ -369,4 +369,21 @@ public interface ProsperoLogger extends BasicLogger {
 
     @Message(id = 265, value = "Unable to create temporary file")
     ProvisioningException unableToCreateTemporaryFile(@Cause Throwable t);
+
+    @Message(id = 266, value = "Unable to replace the installation at %s with the staged update.")
+    ProvisioningException unableToSwapStagedInstallation(Path installationDir, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 267, value = "Candidate files placed in the installation: %d hardlinked, %d copied.")
+    void candidateFilesTransferred(int linked, int copied);
+
+    @Message(id = 268, value = "Unable to stage the update of the installation at %s in %s.")
+    ProvisioningException unableToStageInstallation(Path installationDir, Path stagingDir, @Cause Throwable t);
+
+    @Message(id = 269, value = "Unable to restore the previous installation of %s.")
+    ProvisioningException unableToRestorePreviousInstallation(Path installationDir, @Cause Throwable t);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 270, value = "Installation cache used for %d artifacts, %d artifacts not cached; %d artifacts installed in the local repository in %d ms.")
+    void artifactCacheUsage(long hits, long misses, long installed, long installTimeMillis);
 }
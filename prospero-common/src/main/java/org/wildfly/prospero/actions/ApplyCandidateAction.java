@@ -28,10 +28,12 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.eclipse.aether.artifact.Artifact;
@@ -68,7 +70,12 @@ import org.jboss.galleon.util.HashUtils;
 import org.jboss.galleon.util.IoUtils;
 import org.jboss.galleon.util.PathsUtils;
 import org.wildfly.prospero.galleon.ArtifactCache;
+import org.wildfly.prospero.galleon.FileLinks;
+import org.wildfly.prospero.galleon.FileTransfer;
+import org.wildfly.prospero.galleon.FsDiffs;
 import org.wildfly.prospero.galleon.GalleonEnvironment;
+import org.wildfly.prospero.galleon.RecordedHashes;
+import org.wildfly.prospero.galleon.SharedArtifactStore;
 import org.wildfly.prospero.installation.git.GitStorage;
 import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
 import org.wildfly.prospero.updates.CandidateProperties;
@@ -88,6 +95,8 @@ public class ApplyCandidateAction {
     private final Path updateDir;
     private final Path installationDir;
     private final SystemPaths systemPaths;
+    private FileTransfer fileTransfer = FileTransfer.COPY;
+    private final Map<FileLinks.Method, Integer> transferredFiles = new EnumMap<>(FileLinks.Method.class);
 
     private static final Logger log = Logger.getLogger(ApplyCandidateAction.class);
 
@@ -147,6 +156,15 @@ public class ApplyCandidateAction {
      * @throws MetadataException - if unable to read or write the installation of update metadata
      */
     public List<FileConflict> applyUpdate(Type operation) throws ProvisioningException, OperationException {
+        final List<FileConflict> conflicts = applyCandidate(operation);
+        ProsperoLogger.ROOT_LOGGER.candidateApplied(operation.text, installationDir);
+        return conflicts;
+    }
+
+    /*
+     * applies the candidate without logging the result, so that a staged update can log it for the actual installation
+     */
+    private List<FileConflict> applyCandidate(Type operation) throws ProvisioningException, OperationException {
         if (ValidationResult.OK != verifyCandidate(operation)) {
             final InvalidUpdateCandidateException ex = ProsperoLogger.ROOT_LOGGER.invalidUpdateCandidate(updateDir, installationDir);
             ProsperoLogger.ROOT_LOGGER.warn("", ex);
@@ -160,6 +178,8 @@ public class ApplyCandidateAction {
         }
 
         FsDiff diffs = findChanges();
+        fileTransfer = FileTransfer.between(updateDir, installationDir);
+        transferredFiles.clear();
         try {
             ProsperoLogger.ROOT_LOGGER.applyingCandidate(operation.text.toLowerCase(Locale.ROOT), updateDir);
             ProsperoLogger.ROOT_LOGGER.candidateChanges(
@@ -180,13 +200,84 @@ public class ApplyCandidateAction {
             }
 
             updateMetadata(operation);
-            ProsperoLogger.ROOT_LOGGER.candidateApplied(operation.text, installationDir);
+            ProsperoLogger.ROOT_LOGGER.candidateFilesTransferred(getTransferredFiles(FileLinks.Method.HARDLINK),
+                    getTransferredFiles(FileLinks.Method.COPY));
             return conflicts;
         } catch (IOException ex) {
             throw new ProvisioningException(ex);
         }
     }
 
+    /**
+     * Applies changes from prepare update at {@code updateDir} like {@link #applyUpdate(Type)}, but builds the result in
+     * a staging directory next to {@code installationDir}. The unchanged files are hardlinked into the staging directory
+     * where possible. Once the update is applied, the staging directory replaces the installation and the replaced
+     * installation is kept in a {@code .previous} directory, see {@link #restorePreviousInstallation(Path)}.
+     *
+     * If the update fails, the staging directory is removed and {@code installationDir} is left unchanged.
+     *
+     * @return list of solved {@code FileConflict}s
+     * @throws ProvisioningException - if unable to apply the changes from {@code updateDir} or to replace {@code installationDir}
+     * @throws InvalidUpdateCandidateException - if the folder at {@code updateDir} is not a valid update
+     * @throws MetadataException - if unable to read or write the installation of update metadata
+     */
+    public List<FileConflict> applyUpdateStaged(Type operation) throws ProvisioningException, OperationException {
+        if (ValidationResult.OK != verifyCandidate(operation)) {
+            final InvalidUpdateCandidateException ex = ProsperoLogger.ROOT_LOGGER.invalidUpdateCandidate(updateDir, installationDir);
+            ProsperoLogger.ROOT_LOGGER.warn("", ex);
+            throw ex;
+        }
+
+        if (targetServerIsRunning()) {
+            final ProvisioningException ex = ProsperoLogger.ROOT_LOGGER.serverRunningError();
+            ProsperoLogger.ROOT_LOGGER.warn("", ex);
+            throw ex;
+        }
+
+        final StagedInstallation staged = new StagedInstallation(installationDir);
+        boolean swapped = false;
+        try {
+            try {
+                staged.stage();
+            } catch (IOException ex) {
+                throw ProsperoLogger.ROOT_LOGGER.unableToStageInstallation(installationDir, staged.getStagingDir(), ex);
+            }
+            final List<FileConflict> conflicts = new ApplyCandidateAction(staged.getStagingDir(), updateDir).applyCandidate(operation);
+            try {
+                staged.swap();
+            } catch (IOException ex) {
+                throw ProsperoLogger.ROOT_LOGGER.unableToSwapStagedInstallation(installationDir, ex);
+            }
+            swapped = true;
+            ProsperoLogger.ROOT_LOGGER.candidateApplied(operation.text, installationDir);
+            return conflicts;
+        } finally {
+            if (!swapped) {
+                staged.discard();
+            }
+        }
+    }
+
+    /**
+     * Replaces {@code installationDir} with the installation kept by the last {@link #applyUpdateStaged(Type)}. The
+     * replaced installation is kept in its place, so that calling this method again reverts the restore.
+     *
+     * @return {@code true} if the installation was restored, {@code false} if there is no previous installation
+     * @throws ProvisioningException - if the server is running or unable to swap the installation directories
+     */
+    public static boolean restorePreviousInstallation(Path installationDir) throws ProvisioningException {
+        if (serverIsRunning(installationDir)) {
+            final ProvisioningException ex = ProsperoLogger.ROOT_LOGGER.serverRunningError();
+            ProsperoLogger.ROOT_LOGGER.warn("", ex);
+            throw ex;
+        }
+        try {
+            return StagedInstallation.restorePrevious(installationDir);
+        } catch (IOException ex) {
+            throw ProsperoLogger.ROOT_LOGGER.unableToRestorePreviousInstallation(installationDir, ex);
+        }
+    }
+
     public enum ValidationResult {
         OK, NOT_CANDIDATE, STALE, WRONG_TYPE;
     }
@@ -336,10 +427,20 @@ public class ApplyCandidateAction {
     }
 
     private boolean targetServerIsRunning() {
+        return serverIsRunning(installationDir);
+    }
+
+    private static boolean serverIsRunning(Path installationDir) {
         return Files.exists(installationDir.resolve(STANDALONE_STARTUP_MARKER)) || Files.exists(installationDir.resolve(DOMAIN_STARTUP_MARKER));
     }
 
     private FsDiff findChanges() throws ProvisioningException, OperationException {
+        final Optional<FsDiff> recordedDiff = FsDiffs.fromRecordedHashes(installationDir);
+        if (recordedDiff.isPresent()) {
+            return recordedDiff.get();
+        }
+
+        // the installation has to be re-provisioned to find the changes
         // offline is enough - we just need to read the configuration
         final MavenOptions mavenOptions = MavenOptions.builder()
                 .setOffline(true)
@@ -360,7 +461,7 @@ public class ApplyCandidateAction {
             Path installationGalleonPath = PathsUtils.getProvisionedStateDir(installationDir);
             Path updateGalleonPath = PathsUtils.getProvisionedStateDir(updateDir);
             IoUtils.recursiveDelete(installationGalleonPath);
-            IoUtils.copy(updateGalleonPath, installationGalleonPath, true);
+            transferRecursively(updateGalleonPath, installationGalleonPath, fileTransfer);
             // after the galleon data is copied, persist a copy of provisioning.xml and record it
             ProsperoMetadataUtils.recordProvisioningDefinition(installationDir);
             writeProsperoMetadata(operation);
@@ -413,9 +514,45 @@ public class ApplyCandidateAction {
         if (Files.exists(installationCacheDir)) {
             IoUtils.recursiveDelete(installationCacheDir);
         }
+        final Optional<SharedArtifactStore> sharedStore = SharedArtifactStore.configured();
         if (Files.exists(updateCacheDir)) {
-            IoUtils.copy(updateCacheDir, installationCacheDir);
+            if (sharedStore.isPresent()) {
+                // keep the cached artifacts linked to the shared store
+                transferRecursively(updateCacheDir, installationCacheDir, FileTransfer.hardlink());
+            } else {
+                transferRecursively(updateCacheDir, installationCacheDir, fileTransfer);
+            }
         }
+        if (sharedStore.isPresent()) {
+            sharedStore.get().gc();
+        }
+    }
+
+    /**
+     * number of candidate files placed in the installation using {@code method} by the last {@link #applyUpdate(Type)}
+     */
+    int getTransferredFiles(FileLinks.Method method) {
+        return transferredFiles.getOrDefault(method, 0);
+    }
+
+    private void recordTransfer(FileLinks.Method method, int count) {
+        transferredFiles.merge(method, count, Integer::sum);
+    }
+
+    private void transferRecursively(Path source, Path target, FileTransfer transfer) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                recordTransfer(transfer.transfer(file, target.resolve(source.relativize(file))), 1);
+                return FileVisitResult.CONTINUE;
+            }
+        });
     }
 
     private List<FileConflict> handleRemovedFiles(FsDiff fsDiff) throws IOException {
@@ -565,6 +702,11 @@ public class ApplyCandidateAction {
     }
 
     private List<FileConflict> doApplyUpdate(FsDiff fsDiff) throws IOException, ProvisioningException {
+        // the hashes recorded by Galleon describe the content of both servers, apart from the user changes found in fsDiff
+        // read them before the installation is modified
+        final Optional<RecordedHashes> updateHashes = RecordedHashes.read(updateDir);
+        final Optional<RecordedHashes> installationHashes = RecordedHashes.read(installationDir);
+
         List<FileConflict> conflicts = new ArrayList<>();
         // Handles user added/removed/modified files
         conflicts.addAll(handleRemovedFiles(fsDiff));
@@ -572,10 +714,10 @@ public class ApplyCandidateAction {
         conflicts.addAll(handleModifiedFiles(fsDiff));
 
         // Handles files added/removed/modified in the update.
+        // The file operations are collected first and executed in parallel once the whole update has been compared.
+        final ApplyPlan plan = new ApplyPlan(fileTransfer);
         Path skipUpdateGalleon = PathsUtils.getProvisionedStateDir(updateDir);
         Path skipUpdateInstallation = updateDir.resolve(ProsperoMetadataUtils.METADATA_DIR);
-        Path skipInstallationGalleon = PathsUtils.getProvisionedStateDir(installationDir);
-        Path skipInstallationInstallation = installationDir.resolve(ProsperoMetadataUtils.METADATA_DIR);
 
         // Copy the new/modified files that the update brings that are not in the installation and not removed/modified by the user.
         Files.walkFileTree(updateDir, new SimpleFileVisitor<Path>() {
@@ -588,13 +730,12 @@ public class ApplyCandidateAction {
                 final String pathKey = getFsDiffKey(relative, false);
                 if (fsDiff.getModifiedEntry(pathKey) == null &&
                         fsDiff.getAddedEntry(pathKey) == null && !isParentAdded(fsDiff, relative)) {
-                    byte[] updateHash = HashUtils.hashPath(file);
                     // The file could be new or updated in the installation
-                    if (!Files.exists(installationFile) || !Arrays.equals(updateHash, HashUtils.hashPath(installationFile))) {
+                    if (!Files.exists(installationFile) || !hasSameContent(pathKey, file, installationFile)) {
                         if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
                             ProsperoLogger.ROOT_LOGGER.debug("Copying updated file " + relative + " to the installation");
                         }
-                        IoUtils.copy(file, installationFile);
+                        plan.copy(file, installationFile);
                     }
                 }
                 return FileVisitResult.CONTINUE;
@@ -612,6 +753,19 @@ public class ApplyCandidateAction {
                 return false;
             }
 
+            private boolean hasSameContent(String pathKey, Path file, Path installationFile) throws IOException {
+                final String updateHash = updateHashes.map(h -> h.getHash(pathKey)).orElse(null);
+                final String installationHash = installationHashes.map(h -> h.getHash(pathKey)).orElse(null);
+                // files removed by the user might have been restored when handling the conflicts
+                if (updateHash != null && installationHash != null && fsDiff.getRemovedEntry(pathKey) == null) {
+                    return updateHash.equals(installationHash);
+                }
+                if (ProsperoLogger.ROOT_LOGGER.isTraceEnabled()) {
+                    ProsperoLogger.ROOT_LOGGER.trace("No recorded hash of " + pathKey + ", comparing file content");
+                }
+                return Arrays.equals(HashUtils.hashPath(file), HashUtils.hashPath(installationFile));
+            }
+
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
                     throws IOException {
@@ -629,6 +783,58 @@ public class ApplyCandidateAction {
         });
 
         // Delete the files in the installation that are not present in the update and not added by the user
+        if (installationHashes.isPresent()) {
+            deleteRemovedRecordedFiles(fsDiff, installationHashes.get(), plan);
+        } else {
+            deleteRemovedFiles(fsDiff, plan);
+        }
+
+        plan.execute();
+        plan.getTransferredFiles().forEach(this::recordTransfer);
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /*
+     * Only the files recorded in the installation can be removed by the update. Any other files were added by the user.
+     */
+    private void deleteRemovedRecordedFiles(FsDiff fsDiff, RecordedHashes installationHashes, ApplyPlan plan) {
+        final String galleonDir = getFsDiffKey(installationDir.relativize(PathsUtils.getProvisionedStateDir(installationDir)), true);
+        final String metadataDir = getFsDiffKey(Path.of(ProsperoMetadataUtils.METADATA_DIR), true);
+
+        for (String pathKey : installationHashes.getFiles()) {
+            if (pathKey.startsWith(galleonDir) || pathKey.startsWith(metadataDir)) {
+                continue;
+            }
+            final Path file = installationDir.resolve(pathKey);
+            if (isNotAddedOrModified(pathKey, fsDiff) && !Files.exists(updateDir.resolve(pathKey)) && Files.exists(file)) {
+                if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                    ProsperoLogger.ROOT_LOGGER.debug("Deleting the file " + pathKey + " that doesn't exist in the update");
+                }
+                plan.deleteFile(file);
+            }
+        }
+
+        // children are listed after their parents, delete the deepest directories first
+        final List<String> directories = new ArrayList<>(installationHashes.getDirectories());
+        Collections.reverse(directories);
+        for (String pathKey : directories) {
+            if (pathKey.startsWith(galleonDir) || pathKey.startsWith(metadataDir)) {
+                continue;
+            }
+            final Path dir = installationDir.resolve(pathKey);
+            if (!isAdded(pathKey, fsDiff) && !Files.exists(updateDir.resolve(pathKey)) && Files.isDirectory(dir)) {
+                if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                    ProsperoLogger.ROOT_LOGGER.debug("Deleting the directory " + pathKey + " that doesn't exist in the update if empty");
+                }
+                plan.deleteDirectoryIfEmpty(dir);
+            }
+        }
+    }
+
+    private void deleteRemovedFiles(FsDiff fsDiff, ApplyPlan plan) throws IOException {
+        Path skipInstallationGalleon = PathsUtils.getProvisionedStateDir(installationDir);
+        Path skipInstallationInstallation = installationDir.resolve(ProsperoMetadataUtils.METADATA_DIR);
+
         // We need to skip .glnew and .glold.
         Files.walkFileTree(installationDir, new SimpleFileVisitor<Path>() {
             @Override
@@ -641,7 +847,7 @@ public class ApplyCandidateAction {
                     if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
                         ProsperoLogger.ROOT_LOGGER.debug("Deleting the file " + relative + " that doesn't exist in the update");
                     }
-                    IoUtils.recursiveDelete(file);
+                    plan.deleteFile(file);
                 }
                 return FileVisitResult.CONTINUE;
             }
@@ -679,26 +885,16 @@ public class ApplyCandidateAction {
                     Path relative = installationDir.relativize(dir);
                     Path target = updateDir.resolve(relative);
                     String pathKey = getFsDiffKey(relative, true);
-                    if (!isAdded(pathKey, fsDiff) && !Files.exists(target) && isEmpty(dir)) {
+                    if (!isAdded(pathKey, fsDiff) && !Files.exists(target)) {
                         if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
-                            ProsperoLogger.ROOT_LOGGER.debug("Deleting the directory " + relative + " that doesn't exist in the update");
+                            ProsperoLogger.ROOT_LOGGER.debug("Deleting the directory " + relative + " that doesn't exist in the update if empty");
                         }
-                        IoUtils.recursiveDelete(dir);
-                        return FileVisitResult.SKIP_SUBTREE;
+                        plan.deleteDirectoryIfEmpty(dir);
                     }
                 }
                 return FileVisitResult.CONTINUE;
             }
         });
-        return Collections.unmodifiableList(conflicts);
-    }
-
-    private static boolean isEmpty(Path dir) {
-        final String[] children = dir.toFile().list();
-        if (children == null) {
-            throw new RuntimeException("Unable to list children of " + dir);
-        }
-        return children.length == 0;
     }
 
     private static boolean isAdded(String pathKey, FsDiff fsDiff) {
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.actions;
+
+import org.jboss.galleon.util.IoUtils;
+import org.jboss.logging.Logger;
+import org.wildfly.prospero.galleon.FileLinks;
+import org.wildfly.prospero.galleon.FileTransfer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Stream;
+
+/**
+ * File operations needed to apply a candidate to an installation.
+ *
+ * The operations are collected while the candidate is compared with the installation and executed afterwards.
+ * Copying and deleting files is dominated by the latency of the filesystem, so the files are processed in parallel
+ * on a work-stealing pool limited by {@code THREADS_PROPERTY}. The parent directories of copied files are created
+ * before any file is copied, and the directories are deleted after all the files, in the order they were added,
+ * if they are empty at that point.
+ *
+ * The files are placed using a {@link FileTransfer}, the number of files placed with each {@link FileLinks.Method}
+ * is available after the plan is executed.
+ */
+class ApplyPlan {
+
+    private static final Logger LOG = Logger.getLogger(ApplyPlan.class);
+
+    /**
+     * system property limiting the number of threads used to copy and delete files.
+     */
+    static final String THREADS_PROPERTY = "org.wildfly.prospero.apply.threads";
+    static final int DEFAULT_MAX_THREADS = 16;
+    // number of files handled by a single task before it stops splitting the work
+    private static final int BATCH_SIZE = 32;
+
+    private final List<Path[]> copies = new ArrayList<>();
+    private final List<Path> fileDeletions = new ArrayList<>();
+    private final List<Path> directoryDeletions = new ArrayList<>();
+    private final FileTransfer transfer;
+    private final AtomicIntegerArray transferred = new AtomicIntegerArray(FileLinks.Method.values().length);
+
+    ApplyPlan() {
+        this(FileTransfer.COPY);
+    }
+
+    ApplyPlan(FileTransfer transfer) {
+        this.transfer = transfer;
+    }
+
+    /**
+     * copies {@code source} file to {@code target}, replacing it if it exists.
+     */
+    void copy(Path source, Path target) {
+        copies.add(new Path[]{source, target});
+    }
+
+    void deleteFile(Path file) {
+        fileDeletions.add(file);
+    }
+
+    /**
+     * deletes the {@code dir} if it's empty after all the files were processed. Child directories have to be added
+     * before their parents.
+     */
+    void deleteDirectoryIfEmpty(Path dir) {
+        directoryDeletions.add(dir);
+    }
+
+    boolean isEmpty() {
+        return copies.isEmpty() && fileDeletions.isEmpty() && directoryDeletions.isEmpty();
+    }
+
+    void execute() throws IOException {
+        execute(maxThreads());
+    }
+
+    void execute(int parallelism) throws IOException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Applying %d copies, %d file deletions and %d directory deletions using %d threads",
+                    copies.size(), fileDeletions.size(), directoryDeletions.size(), parallelism);
+        }
+
+        // create the directories sequentially, parents first
+        final Set<Path> directories = new TreeSet<>();
+        for (Path[] copy : copies) {
+            directories.add(copy[1].getParent());
+        }
+        for (Path directory : directories) {
+            Files.createDirectories(directory);
+        }
+
+        final ForkJoinPool pool = parallelism > 1 && copies.size() + fileDeletions.size() > BATCH_SIZE
+                ? new ForkJoinPool(parallelism) : null;
+        try {
+            run(pool, copies, copy -> transferred.incrementAndGet(transfer.transfer(copy[0], copy[1]).ordinal()));
+            run(pool, fileDeletions, IoUtils::recursiveDelete);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        for (Path directory : directoryDeletions) {
+            if (Files.isDirectory(directory) && isEmpty(directory)) {
+                IoUtils.recursiveDelete(directory);
+            }
+        }
+    }
+
+    /**
+     * @return number of copied files by the method used to place them
+     */
+    Map<FileLinks.Method, Integer> getTransferredFiles() {
+        final Map<FileLinks.Method, Integer> res = new EnumMap<>(FileLinks.Method.class);
+        for (FileLinks.Method method : FileLinks.Method.values()) {
+            res.put(method, transferred.get(method.ordinal()));
+        }
+        return res;
+    }
+
+    private static <T> void run(ForkJoinPool pool, List<T> items, FileOperation<T> operation) throws IOException {
+        if (pool == null) {
+            for (T item : items) {
+                operation.apply(item);
+            }
+        } else {
+            pool.invoke(new FileTask<>(items, 0, items.size(), operation));
+        }
+    }
+
+    private static boolean isEmpty(Path dir) throws IOException {
+        try (Stream<Path> children = Files.list(dir)) {
+            return children.findAny().isEmpty();
+        }
+    }
+
+    static int maxThreads() {
+        final int configured = Integer.getInteger(THREADS_PROPERTY, -1);
+        if (configured > 0) {
+            return configured;
+        }
+        // the work is I/O bound, allow more threads than processors
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 2, DEFAULT_MAX_THREADS));
+    }
+
+    @FunctionalInterface
+    private interface FileOperation<T> {
+        void apply(T item) throws IOException;
+    }
+
+    private static class FileTask<T> extends RecursiveAction {
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final FileOperation<T> operation;
+
+        FileTask(List<T> items, int from, int to, FileOperation<T> operation) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.operation = operation;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                try {
+                    for (int i = from; i < to; i++) {
+                        operation.apply(items.get(i));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new FileTask<>(items, from, middle, operation), new FileTask<>(items, middle, to, operation));
+            }
+        }
+    }
+}
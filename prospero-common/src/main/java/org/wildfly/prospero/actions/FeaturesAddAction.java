@@ -117,39 +117,43 @@ public class FeaturesAddAction {
         verifyFeaturePackCoord(featurePackCoord);
         Objects.requireNonNull(defaultConfigNames);
 
-        FeaturePackLocation fpl = FeaturePackLocationParser.resolveFpl(featurePackCoord);
+        try {
+            FeaturePackLocation fpl = FeaturePackLocationParser.resolveFpl(featurePackCoord);
 
-        if (ProsperoLogger.ROOT_LOGGER.isTraceEnabled()) {
-            ProsperoLogger.ROOT_LOGGER.trace("Adding feature pack " + fpl);
-        }
+            if (ProsperoLogger.ROOT_LOGGER.isTraceEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.trace("Adding feature pack " + fpl);
+            }
 
-        final Map<String, Set<String>> allLayers = getAllLayers(fpl);
+            final Map<String, Set<String>> allLayers = getAllLayers(fpl);
 
-        if (ProsperoLogger.ROOT_LOGGER.isTraceEnabled()) {
-            ProsperoLogger.ROOT_LOGGER.trace("Found layers");
-            for (String key : allLayers.keySet()) {
-                ProsperoLogger.ROOT_LOGGER.trace(key + ": " + StringUtils.join(allLayers.get(key)));
+            if (ProsperoLogger.ROOT_LOGGER.isTraceEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.trace("Found layers");
+                for (String key : allLayers.keySet()) {
+                    ProsperoLogger.ROOT_LOGGER.trace(key + ": " + StringUtils.join(allLayers.get(key)));
+                }
             }
-        }
 
-        final Set<ConfigId> selectedConfigs = new HashSet<>();
-        for (ConfigId defaultConfigName : defaultConfigNames) {
-            final String selectedModel = getSelectedModel(defaultConfigName==null?null:defaultConfigName.getModel(), allLayers);
+            final Set<ConfigId> selectedConfigs = new HashSet<>();
+            for (ConfigId defaultConfigName : defaultConfigNames) {
+                final String selectedModel = getSelectedModel(defaultConfigName==null?null:defaultConfigName.getModel(), allLayers);
 
-            final String selectedConfig = getSelectedConfig(defaultConfigName, selectedModel);
-            if (selectedConfig != null) {
-                selectedConfigs.add(new ConfigId(selectedModel, selectedConfig));
+                final String selectedConfig = getSelectedConfig(defaultConfigName, selectedModel);
+                if (selectedConfig != null) {
+                    selectedConfigs.add(new ConfigId(selectedModel, selectedConfig));
+                }
             }
-        }
 
-        if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
-            ProsperoLogger.ROOT_LOGGER.addingFeaturePack(fpl, StringUtils.join(selectedConfigs, ","), "");
-        }
+            if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.addingFeaturePack(fpl, StringUtils.join(selectedConfigs, ","), "");
+            }
 
 
-        final ProvisioningConfig newConfig = buildProvisioningConfig(Collections.emptySet(), fpl, selectedConfigs);
+            final ProvisioningConfig newConfig = buildProvisioningConfig(Collections.emptySet(), fpl, selectedConfigs);
 
-        install(newConfig);
+            install(newConfig);
+        } finally {
+            mavenSessionManager.getResolutionScope().clear();
+        }
     }
 
     /**
@@ -175,34 +179,38 @@ public class FeaturesAddAction {
         }
         verifyFeaturePackCoord(featurePackCoord);
 
-        FeaturePackLocation fpl = FeaturePackLocationParser.resolveFpl(featurePackCoord);
+        try {
+            FeaturePackLocation fpl = FeaturePackLocationParser.resolveFpl(featurePackCoord);
 
-        if (ProsperoLogger.ROOT_LOGGER.isTraceEnabled()) {
-            ProsperoLogger.ROOT_LOGGER.trace("Adding feature pack " + fpl);
-        }
+            if (ProsperoLogger.ROOT_LOGGER.isTraceEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.trace("Adding feature pack " + fpl);
+            }
 
-        final Map<String, Set<String>> allLayers = getAllLayers(fpl);
+            final Map<String, Set<String>> allLayers = getAllLayers(fpl);
 
-        if (ProsperoLogger.ROOT_LOGGER.isTraceEnabled()) {
-            ProsperoLogger.ROOT_LOGGER.trace("Found layers");
-            for (String key : allLayers.keySet()) {
-                ProsperoLogger.ROOT_LOGGER.trace(key + ": " + StringUtils.join(allLayers.get(key)));
+            if (ProsperoLogger.ROOT_LOGGER.isTraceEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.trace("Found layers");
+                for (String key : allLayers.keySet()) {
+                    ProsperoLogger.ROOT_LOGGER.trace(key + ": " + StringUtils.join(allLayers.get(key)));
+                }
             }
-        }
 
-        final String selectedModel = getSelectedModel(configName == null?null:configName.getModel(), allLayers);
+            final String selectedModel = getSelectedModel(configName == null?null:configName.getModel(), allLayers);
 
-        verifyLayerAvailable(layers, selectedModel, allLayers);
+            verifyLayerAvailable(layers, selectedModel, allLayers);
 
-        final String selectedConfig = getSelectedConfig(configName, selectedModel);
+            final String selectedConfig = getSelectedConfig(configName, selectedModel);
 
-        if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
-            ProsperoLogger.ROOT_LOGGER.addingFeaturePack(fpl, selectedConfig + ":" + selectedModel, StringUtils.join(layers));
-        }
+            if (ProsperoLogger.ROOT_LOGGER.isDebugEnabled()) {
+                ProsperoLogger.ROOT_LOGGER.addingFeaturePack(fpl, selectedConfig + ":" + selectedModel, StringUtils.join(layers));
+            }
 
-        final ProvisioningConfig newConfig = buildProvisioningConfig(layers, fpl, selectedConfig==null?Collections.emptySet():Set.of(new ConfigId(selectedModel, selectedConfig)));
+            final ProvisioningConfig newConfig = buildProvisioningConfig(layers, fpl, selectedConfig==null?Collections.emptySet():Set.of(new ConfigId(selectedModel, selectedConfig)));
 
-        install(newConfig);
+            install(newConfig);
+        } finally {
+            mavenSessionManager.getResolutionScope().clear();
+        }
     }
 
     private static String getSelectedConfig(ConfigId defaultConfigName, String selectedModel) {
@@ -19,11 +19,11 @@ package org.wildfly.prospero.actions;
 
 import org.jboss.logging.Logger;
 import org.wildfly.channel.Channel;
-import org.wildfly.channel.ChannelManifestMapper;
 import org.wildfly.channel.MavenArtifact;
 import org.wildfly.channel.MavenCoordinate;
 import org.wildfly.prospero.metadata.ManifestVersionRecord;
 import org.wildfly.prospero.metadata.ManifestVersionResolver;
+import org.wildfly.prospero.model.ManifestCache;
 import org.wildfly.prospero.wfchannel.MavenSessionManager;
 import org.wildfly.prospero.wfchannel.ResolvedArtifactsStore;
 
@@ -84,7 +84,7 @@ class ProsperoManifestVersionResolver {
                     if (LOG.isDebugEnabled()) {
                         LOG.debugf("Manifest %s resolved in currently resolve artifacts, recording.", manifestCoord);
                     }
-                    final String description = ChannelManifestMapper.from(version.getFile().toURI().toURL()).getDescription();
+                    final String description = ManifestCache.getInstance().parse(version.getFile().toPath()).getDescription();
                     record.addManifest(new ManifestVersionRecord.MavenManifest(
                             manifestCoord.getGroupId(),
                             manifestCoord.getArtifactId(),
@@ -108,6 +108,15 @@ public class ProvisioningAction {
      */
     public void provision(ProvisioningConfig provisioningConfig, List<Channel> channels, List<Repository> overwriteRepositories)
             throws ProvisioningException, OperationException, MalformedURLException {
+        try {
+            doProvision(provisioningConfig, channels, overwriteRepositories);
+        } finally {
+            mavenSessionManager.getResolutionScope().clear();
+        }
+    }
+
+    private void doProvision(ProvisioningConfig provisioningConfig, List<Channel> channels, List<Repository> overwriteRepositories)
+            throws ProvisioningException, OperationException, MalformedURLException {
         ProsperoLogger.ROOT_LOGGER.startingProvision(installDir);
         channels = enforceChannelNames(channels);
 
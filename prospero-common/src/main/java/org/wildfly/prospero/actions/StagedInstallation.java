@@ -0,0 +1,221 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.actions;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Set;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.util.IoUtils;
+import org.jboss.logging.Logger;
+import org.wildfly.prospero.galleon.ArtifactCache;
+import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
+
+/**
+ * Copy of an installation placed in a sibling directory, that can replace the installation with two directory renames.
+ *
+ * The staged files are hardlinked to the installation files where possible. Applying the update replaces files rather
+ * than writing to them, so the linked installation files are not affected. The metadata folders are written in place
+ * (e.g. the history repository) and are copied instead, as are the configuration, data and log folders and the
+ * {@code bin/*.conf} scripts, which the server writes to at runtime. Symbolic links are recreated, not followed.
+ *
+ * After the swap, the replaced installation is kept in a {@code .previous} directory until the next staged update,
+ * so that it can be restored with {@link #restorePrevious(Path)}.
+ */
+class StagedInstallation {
+    private static final Logger log = Logger.getLogger(StagedInstallation.class);
+
+    static final String STAGING_SUFFIX = ".staging";
+    static final String PREVIOUS_SUFFIX = ".previous";
+    private static final String RESTORE_SUFFIX = ".restore";
+    private static final Set<String> RUNTIME_DIRS = Set.of("configuration", "data", "log");
+    private static final String CONF_EXTENSION = ".conf";
+
+    private final Path installationDir;
+    private final Path stagingDir;
+    private final Path previousDir;
+
+    StagedInstallation(Path installationDir) {
+        this.installationDir = installationDir.toAbsolutePath().normalize();
+        this.stagingDir = sibling(this.installationDir, STAGING_SUFFIX);
+        this.previousDir = sibling(this.installationDir, PREVIOUS_SUFFIX);
+    }
+
+    Path getStagingDir() {
+        return stagingDir;
+    }
+
+    Path getPreviousDir() {
+        return previousDir;
+    }
+
+    static Path previousDir(Path installationDir) {
+        return sibling(installationDir.toAbsolutePath().normalize(), PREVIOUS_SUFFIX);
+    }
+
+    /**
+     * creates the staging directory mirroring the installation. Any leftover staging directory is removed first.
+     *
+     * @return number of files that had to be copied rather than linked
+     * @throws IOException if the staging directory cannot be created
+     */
+    int stage() throws IOException {
+        if (Files.exists(stagingDir)) {
+            IoUtils.recursiveDelete(stagingDir);
+        }
+        final int[] copied = {0};
+        Files.walkFileTree(installationDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(stagingDir.resolve(installationDir.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                final Path relative = installationDir.relativize(file);
+                final Path target = stagingDir.resolve(relative);
+                if (!attrs.isRegularFile() || !canLink(relative) || !link(file, target)) {
+                    Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING,
+                            LinkOption.NOFOLLOW_LINKS);
+                    copied[0]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (log.isDebugEnabled()) {
+            log.debugf("Staged %s in %s, %d files copied", installationDir, stagingDir, copied[0]);
+        }
+        return copied[0];
+    }
+
+    /**
+     * replaces the installation with the staging directory. The replaced installation is moved to the
+     * {@code .previous} directory, replacing any earlier one.
+     *
+     * @throws IOException if the directories cannot be renamed. The installation is restored if it was already moved.
+     */
+    void swap() throws IOException {
+        if (Files.exists(previousDir)) {
+            IoUtils.recursiveDelete(previousDir);
+        }
+        move(installationDir, previousDir);
+        try {
+            move(stagingDir, installationDir);
+        } catch (IOException e) {
+            try {
+                move(previousDir, installationDir);
+            } catch (IOException re) {
+                e.addSuppressed(re);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * removes the staging directory, if present.
+     */
+    void discard() {
+        if (Files.exists(stagingDir)) {
+            IoUtils.recursiveDelete(stagingDir);
+        }
+    }
+
+    /**
+     * swaps the installation with the {@code .previous} directory kept by the last staged update.
+     *
+     * @param installationDir - installation to restore
+     * @return {@code true} if the previous installation was restored, {@code false} if there is none
+     * @throws IOException if the directories cannot be renamed
+     */
+    static boolean restorePrevious(Path installationDir) throws IOException {
+        final Path installation = installationDir.toAbsolutePath().normalize();
+        final Path previous = sibling(installation, PREVIOUS_SUFFIX);
+        if (!Files.isDirectory(previous)) {
+            return false;
+        }
+        final Path temp = sibling(installation, RESTORE_SUFFIX);
+        move(installation, temp);
+        try {
+            move(previous, installation);
+        } catch (IOException e) {
+            try {
+                move(temp, installation);
+            } catch (IOException re) {
+                e.addSuppressed(re);
+            }
+            throw e;
+        }
+        move(temp, previous);
+        return true;
+    }
+
+    private static boolean canLink(Path relative) {
+        final Path root = relative.getName(0);
+        if (relative.getNameCount() > 2 && RUNTIME_DIRS.contains(relative.getName(1).toString())) {
+            // e.g. standalone/configuration, written by the running server
+            return false;
+        }
+        if (relative.getNameCount() == 2 && root.toString().equals("bin")
+                && relative.getFileName().toString().contains(CONF_EXTENSION)) {
+            return false;
+        }
+        if (root.toString().equals(Constants.PROVISIONED_STATE_DIR)) {
+            return false;
+        }
+        if (root.toString().equals(ProsperoMetadataUtils.METADATA_DIR)) {
+            // cached artifacts are replaced, only the cache list is appended to
+            return relative.startsWith(ArtifactCache.CACHE_FOLDER)
+                    && !relative.getFileName().toString().equals(ArtifactCache.CACHE_FILENAME);
+        }
+        return true;
+    }
+
+    private static boolean link(Path source, Path target) {
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            if (log.isTraceEnabled()) {
+                log.tracef(e, "Unable to create a hardlink from %s to %s", target, source);
+            }
+            return false;
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+    }
+
+    private static Path sibling(Path dir, String suffix) {
+        return dir.resolveSibling(dir.getFileName() + suffix);
+    }
+}
@@ -18,16 +18,25 @@
 package org.wildfly.prospero.actions;
 
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.apache.commons.io.FileUtils;
 import org.jboss.galleon.config.ProvisioningConfig;
 import org.jboss.galleon.util.PathsUtils;
 import org.jboss.galleon.xml.ProvisioningXmlParser;
+import org.jboss.logging.Logger;
 import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestCoordinate;
+import org.wildfly.channel.MavenArtifact;
+import org.wildfly.channel.MavenCoordinate;
 import org.wildfly.channel.Repository;
 import org.wildfly.prospero.ProsperoLogger;
 import org.wildfly.prospero.api.Console;
@@ -36,15 +45,27 @@ import org.wildfly.prospero.api.MavenOptions;
 import org.wildfly.prospero.api.TemporaryRepositoriesHandler;
 import org.wildfly.prospero.api.InstallationMetadata;
 import org.wildfly.prospero.api.exceptions.OperationException;
+import org.wildfly.prospero.api.exceptions.MetadataException;
+import org.wildfly.prospero.galleon.ChannelManifestSubstitutor;
 import org.wildfly.prospero.galleon.GalleonEnvironment;
+import org.wildfly.prospero.model.ManifestCache;
 import org.wildfly.prospero.model.ProsperoConfig;
+import org.wildfly.prospero.updates.PinnedVersions;
 import org.wildfly.prospero.updates.UpdateFinder;
+import org.wildfly.prospero.updates.UpdateListener;
 import org.wildfly.prospero.updates.UpdateSet;
 import org.wildfly.prospero.wfchannel.MavenSessionManager;
 import org.jboss.galleon.ProvisioningException;
 
 public class UpdateAction implements AutoCloseable {
 
+    private static final Logger LOG = Logger.getLogger(UpdateAction.class);
+
+    /**
+     * system property disabling the use of versions pinned by the channel manifests when searching for updates.
+     */
+    public static final String INCREMENTAL_UPDATES_PROPERTY = "org.wildfly.prospero.updates.incremental";
+
     private final InstallationMetadata metadata;
     private final MavenSessionManager mavenSessionManager;
     private final Path installDir;
@@ -137,16 +158,82 @@ public class UpdateAction implements AutoCloseable {
      * @throws ProvisioningException
      */
     public UpdateSet findUpdates() throws OperationException, ProvisioningException {
+        return findUpdates(UpdateListener.NONE);
+    }
+
+    /**
+     * generate a list of updates that can be applied to server at {@code installDir}, notifying the {@code listener}
+     * about each update as soon as it is found.
+     *
+     * @param listener - notified about each update found, can stop the search early
+     * @return updates found before the search completed or was stopped
+     * @throws OperationException
+     * @throws ProvisioningException
+     */
+    public UpdateSet findUpdates(UpdateListener listener) throws OperationException, ProvisioningException {
         ProsperoLogger.ROOT_LOGGER.checkingUpdates();
         try (GalleonEnvironment galleonEnv = getGalleonEnv(installDir);
              UpdateFinder updateFinder = new UpdateFinder(galleonEnv.getChannelSession())) {
 
-            final UpdateSet updates = updateFinder.findUpdates(metadata.getArtifacts());
+            final UpdateSet updates = updateFinder.findUpdates(metadata.getArtifacts(), getPinnedVersions(galleonEnv), listener);
             ProsperoLogger.ROOT_LOGGER.updatesFound(updates.getArtifactUpdates().size());
             return updates;
         }
     }
 
+    /*
+     * Reads the manifests resolved when the channel session was created. The versions pinned in them can be compared
+     * with the installed artifacts directly, and only open-ended streams need to be looked up in the repositories.
+     * Returns null if any of the manifests is not available locally, in which case all artifacts are looked up.
+     */
+    private PinnedVersions getPinnedVersions(GalleonEnvironment galleonEnv) {
+        if (!Boolean.parseBoolean(System.getProperty(INCREMENTAL_UPDATES_PROPERTY, "true"))) {
+            return null;
+        }
+
+        final ChannelManifestSubstitutor substitutor = new ChannelManifestSubstitutor(Map.of("installation.home", installDir.toString()));
+        final List<Channel> channels = new ArrayList<>();
+        final List<ChannelManifest> manifests = new ArrayList<>();
+        try {
+            for (Channel channel : galleonEnv.getChannels()) {
+                final Channel substituted = substitutor.substitute(channel);
+                final Optional<ChannelManifest> manifest = readResolvedManifest(substituted.getManifestCoordinate());
+                if (manifest.isEmpty() || !manifest.get().getManifestRequirements().isEmpty()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debugf("Manifest of channel %s not available locally, looking up all artifacts", channel.getName());
+                    }
+                    return null;
+                }
+                channels.add(substituted);
+                manifests.add(manifest.get());
+            }
+        } catch (IOException | MetadataException | URISyntaxException | IllegalArgumentException e) {
+            LOG.debug("Unable to read the channel manifests, looking up all artifacts", e);
+            return null;
+        }
+        return new PinnedVersions(channels, manifests);
+    }
+
+    private Optional<ChannelManifest> readResolvedManifest(ChannelManifestCoordinate coordinate) throws IOException, URISyntaxException {
+        if (coordinate == null) {
+            return Optional.empty();
+        }
+        if (coordinate.getMaven() != null) {
+            final MavenCoordinate maven = coordinate.getMaven();
+            final MavenArtifact resolved = mavenSessionManager.getResolvedArtifactVersions()
+                    .getManifestVersion(maven.getGroupId(), maven.getArtifactId());
+            if (resolved == null || resolved.getFile() == null
+                    || (maven.getVersion() != null && !maven.getVersion().equals(resolved.getVersion()))) {
+                return Optional.empty();
+            }
+            return Optional.of(ManifestCache.getInstance().parse(resolved.getFile().toPath()));
+        }
+        if (coordinate.getUrl() != null && "file".equals(coordinate.getUrl().getProtocol())) {
+            return Optional.of(ManifestCache.getInstance().parse(Path.of(coordinate.getUrl().toURI())));
+        }
+        return Optional.empty();
+    }
+
     private GalleonEnvironment getGalleonEnv(Path target) throws ProvisioningException, OperationException {
         return GalleonEnvironment
                 .builder(target, prosperoConfig.getChannels(), mavenSessionManager)
@@ -158,6 +245,7 @@ public class UpdateAction implements AutoCloseable {
     @Override
     public void close() {
         metadata.close();
+        mavenSessionManager.getResolutionScope().clear();
     }
 
     private ProsperoConfig addTemporaryRepositories(List<Repository> repositories) {
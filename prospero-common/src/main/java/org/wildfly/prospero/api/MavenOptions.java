@@ -18,6 +18,8 @@
 package org.wildfly.prospero.api;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -42,6 +44,9 @@ public class MavenOptions {
     private final Optional<Path> localCache;
     private final Optional<Boolean> offline;
     private final Optional<Boolean> noLocalCache;
+    private final Optional<Boolean> refresh;
+    private final Optional<Integer> downloadThreads;
+    private final Optional<Integer> maxConnectionsPerRepository;
 
     public static final MavenOptions DEFAULT_OPTIONS = builder().build();
     public static final MavenOptions OFFLINE_NO_CACHE = builder()
@@ -60,16 +65,26 @@ public class MavenOptions {
     @JsonCreator
     private MavenOptions(@JsonProperty("localCache") Path localCache,
                          @JsonProperty("offline") boolean offline,
-                         @JsonProperty("noLocalCache") boolean noLocalCache) {
+                         @JsonProperty("noLocalCache") boolean noLocalCache,
+                         @JsonProperty("downloadThreads") Integer downloadThreads,
+                         @JsonProperty("maxConnectionsPerRepository") Integer maxConnectionsPerRepository) {
         this.localCache = Optional.ofNullable(localCache).map(Path::toAbsolutePath);
         this.noLocalCache = Optional.of(noLocalCache);
         this.offline = Optional.of(offline);
+        this.refresh = Optional.empty();
+        this.downloadThreads = Optional.ofNullable(downloadThreads);
+        this.maxConnectionsPerRepository = Optional.ofNullable(maxConnectionsPerRepository);
     }
 
-    private MavenOptions(Optional<Path> localCache, Optional<Boolean> offline, Optional<Boolean> noLocalCache) {
+    private MavenOptions(Optional<Path> localCache, Optional<Boolean> offline, Optional<Boolean> noLocalCache,
+                         Optional<Boolean> refresh, Optional<Integer> downloadThreads,
+                         Optional<Integer> maxConnectionsPerRepository) {
         this.localCache = localCache;
         this.noLocalCache = noLocalCache;
         this.offline = offline;
+        this.refresh = refresh;
+        this.downloadThreads = downloadThreads;
+        this.maxConnectionsPerRepository = maxConnectionsPerRepository;
     }
 
     public Path getLocalCache() {
@@ -84,6 +99,34 @@ public class MavenOptions {
         return noLocalCache.orElseGet(localCache::isEmpty);
     }
 
+    /**
+     * whether versions of artifacts cached from earlier operations should be ignored and looked up in the repositories again.
+     * The setting only applies to the current operation and is not persisted.
+     */
+    @JsonIgnore
+    public boolean isRefresh() {
+        return refresh.orElse(false);
+    }
+
+    /**
+     * number of artifacts downloaded concurrently from a repository.
+     *
+     * @return configured number of transfers or {@code null} if the Maven resolver default should be used
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getDownloadThreads() {
+        return downloadThreads.orElse(null);
+    }
+
+    /**
+     * maximum number of HTTP connections opened to a single repository host.
+     *
+     * @return configured number of connections or {@code null} if the Maven resolver default should be used
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getMaxConnectionsPerRepository() {
+        return maxConnectionsPerRepository.orElse(null);
+    }
 
     public boolean overridesLocalCache() {
         return localCache.isPresent();
@@ -95,6 +138,9 @@ public class MavenOptions {
                 "localCache=" + localCache +
                 ", offline=" + offline +
                 ", noLocalCache=" + noLocalCache +
+                ", refresh=" + refresh +
+                ", downloadThreads=" + downloadThreads +
+                ", maxConnectionsPerRepository=" + maxConnectionsPerRepository +
                 '}';
     }
 
@@ -117,6 +163,24 @@ public class MavenOptions {
         } else if (this.localCache.isPresent()) {
             builder.setLocalCachePath(this.getLocalCache());
         }
+
+        if (override.refresh.isPresent()) {
+            builder.setRefresh(override.isRefresh());
+        } else if (this.refresh.isPresent()) {
+            builder.setRefresh(this.isRefresh());
+        }
+
+        if (override.downloadThreads.isPresent()) {
+            builder.setDownloadThreads(override.getDownloadThreads());
+        } else if (this.downloadThreads.isPresent()) {
+            builder.setDownloadThreads(this.getDownloadThreads());
+        }
+
+        if (override.maxConnectionsPerRepository.isPresent()) {
+            builder.setMaxConnectionsPerRepository(override.getMaxConnectionsPerRepository());
+        } else if (this.maxConnectionsPerRepository.isPresent()) {
+            builder.setMaxConnectionsPerRepository(this.getMaxConnectionsPerRepository());
+        }
         return builder.build();
     }
 
@@ -135,12 +199,14 @@ public class MavenOptions {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         MavenOptions that = (MavenOptions) o;
-        return Objects.equals(localCache, that.localCache) && Objects.equals(offline, that.offline) && Objects.equals(noLocalCache, that.noLocalCache);
+        return Objects.equals(localCache, that.localCache) && Objects.equals(offline, that.offline) && Objects.equals(noLocalCache, that.noLocalCache)
+                && Objects.equals(refresh, that.refresh) && Objects.equals(downloadThreads, that.downloadThreads)
+                && Objects.equals(maxConnectionsPerRepository, that.maxConnectionsPerRepository);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(localCache, offline, noLocalCache);
+        return Objects.hash(localCache, offline, noLocalCache, refresh, downloadThreads, maxConnectionsPerRepository);
     }
 
     public static class Builder {
@@ -148,13 +214,16 @@ public class MavenOptions {
         private Optional<Boolean> offline = Optional.empty();
         private Optional<Boolean> noLocalCache = Optional.empty();
         private Optional<Path> localCachePath = Optional.empty();
+        private Optional<Boolean> refresh = Optional.empty();
+        private Optional<Integer> downloadThreads = Optional.empty();
+        private Optional<Integer> maxConnectionsPerRepository = Optional.empty();
 
         private Builder() {
 
         }
 
         public MavenOptions build() {
-            return new MavenOptions(localCachePath, offline, noLocalCache);
+            return new MavenOptions(localCachePath, offline, noLocalCache, refresh, downloadThreads, maxConnectionsPerRepository);
         }
 
         public Builder setOffline(boolean offline) {
@@ -171,5 +240,26 @@ public class MavenOptions {
             this.localCachePath = Optional.of(localCachePath);
             return this;
         }
+
+        public Builder setRefresh(boolean refresh) {
+            this.refresh = Optional.of(refresh);
+            return this;
+        }
+
+        public Builder setDownloadThreads(int downloadThreads) {
+            if (downloadThreads < 1) {
+                throw new IllegalArgumentException("Number of download threads has to be positive, was " + downloadThreads);
+            }
+            this.downloadThreads = Optional.of(downloadThreads);
+            return this;
+        }
+
+        public Builder setMaxConnectionsPerRepository(int maxConnectionsPerRepository) {
+            if (maxConnectionsPerRepository < 1) {
+                throw new IllegalArgumentException("Number of connections per repository has to be positive, was " + maxConnectionsPerRepository);
+            }
+            this.maxConnectionsPerRepository = Optional.of(maxConnectionsPerRepository);
+            return this;
+        }
     }
 }
@@ -18,7 +18,6 @@
 package org.wildfly.prospero.galleon;
 
 import org.jboss.galleon.universe.maven.MavenUniverseException;
-import org.jboss.galleon.util.HashUtils;
 import org.jboss.galleon.util.IoUtils;
 import org.jboss.logging.Logger;
 import org.wildfly.channel.ChannelManifest;
@@ -28,46 +27,98 @@ import org.wildfly.prospero.metadata.ManifestVersionRecord;
 import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
 import org.wildfly.prospero.wfchannel.ResolvedArtifactsStore;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 
 /**
  * Manages artifact cache located in {@code installationDir}/{@code CACHE_FOLDER}.
  *
  * Cached artifacts are listed in {@code CACHE_FOLDER}/{@code CACHE_FILENAME}. Each artifact is identified by its {@code GAV}
  * and specifies an SHA-1 hash of the file and a relative path were the artifact can be found within {@code installationDir}.
+ * Optionally the record can also contain a fingerprint of the file (size, last modified time and file key). If the
+ * fingerprint of the file on disk matches the recorded one, the file is assumed to be unchanged and is not hashed again.
+ * Setting the {@code STRICT_VALIDATION_PROPERTY} system property to {@code true} disables this and always verifies
+ * the file hash.
  *
  * If the artifact cannot be found within Galleon-provisioned {@code installationDir}, the artifact can be added to the
  * {@code CACHE_FOLDER}.
  *
+ * The cache descriptor is an append-only journal - recording an artifact that is already present appends a new record
+ * that supersedes the previous one. Once the number of superseded records passes {@code COMPACTION_THRESHOLD}, the
+ * descriptor is rewritten with only the current records.
+ *
+ * Unless disabled with {@code BINARY_INDEX_PROPERTY}, the current records are also stored in a binary
+ * {@link ArtifactCacheIndex} that is memory-mapped when the cache is opened, so the cache descriptor doesn't need to
+ * be parsed. Only the records appended after the index has been written are parsed from the descriptor. The index
+ * is written when the descriptor is compacted or when {@link #updateIndex()} is called at the end of an operation,
+ * recording artifacts and opening the cache don't rewrite it. The index is not recorded in the Galleon hashes of the
+ * installation.
+ *
+ * The in-memory index of the cache is an immutable snapshot replaced on every change. Reading the cache never blocks,
+ * even when another thread is recording new artifacts. The artifact files are never hashed while holding a lock.
+ *
+ * If a {@link SharedArtifactStore} is configured, the artifacts added to the {@code CACHE_FOLDER} are linked from the
+ * shared store instead of being copied. Artifacts not available in the installation can be looked up in the shared store
+ * with {@link #findInSharedStore(String, String, String, String, String)}.
+ *
  * The cache is rebuild during update and only current artifacts are stored.
  */
 public class ArtifactCache {
     private static final Logger LOG = Logger.getLogger(ArtifactCache.class);
 
     static final String CACHE_LINE_SEPARATOR = "::";
-    static final String CACHE_FILENAME = "artifacts.txt";
+    public static final String CACHE_FILENAME = "artifacts.txt";
+    /**
+     * system property enabling strict validation - cached files are always hashed before being returned.
+     */
+    public static final String STRICT_VALIDATION_PROPERTY = "org.wildfly.prospero.cache.strict-validation";
+    /**
+     * system property enabling the binary index of the cache descriptor. Enabled by default, except on Windows where
+     * memory-mapped files cannot be removed.
+     */
+    public static final String BINARY_INDEX_PROPERTY = "org.wildfly.prospero.cache.binary-index";
     public static final Path CACHE_FOLDER = Path.of(ProsperoMetadataUtils.METADATA_DIR, ".cache");
+    /**
+     * number of superseded records in the cache descriptor that triggers its compaction
+     */
+    static final int COMPACTION_THRESHOLD = 100;
 
     private final Path cacheDir;
     private final Path installationDir;
 
-    private final Map<String, Path> paths = new HashMap<>();
-    private final Map<String, String> hashes = new HashMap<>();
-    private ReadWriteLock lock = new ReentrantReadWriteLock();
+    // immutable snapshot of current records not included in the index, replaced on each change
+    private volatile Map<String, CacheRecord> records = Collections.emptyMap();
+    // binary index of the records, may be null
+    private volatile ArtifactCacheIndex index;
+    private final boolean strictValidation;
+    private final boolean useIndex;
+    private final SharedArtifactStore sharedStore;
+    // guards changes to the cache descriptor and the records snapshot
+    private final Object writeLock = new Object();
+    // number of superseded records in the cache descriptor
+    private int superseded;
+    private boolean journalEndsWithNewLine = true;
+    // number of lines in the cache descriptor, including superseded records
+    private int journalLines;
 
     private static final HashMap<Path, ArtifactCache> instances = new HashMap<>();
 
@@ -96,6 +147,9 @@ public class ArtifactCache {
     private ArtifactCache(Path installationDir) throws IOException {
         this.installationDir = installationDir;
         this.cacheDir = installationDir.resolve(CACHE_FOLDER);
+        this.strictValidation = Boolean.getBoolean(STRICT_VALIDATION_PROPERTY);
+        this.useIndex = Boolean.parseBoolean(System.getProperty(BINARY_INDEX_PROPERTY, String.valueOf(!isWindows())));
+        this.sharedStore = SharedArtifactStore.configured().orElse(null);
 
         init();
     }
@@ -113,26 +167,106 @@ public class ArtifactCache {
      */
     public Optional<File> getArtifact(String groupId, String artifactId, String extension, String classifier, String version) {
         final String key = asKey(groupId, artifactId, extension, classifier, version);
-        try {
-            lock.readLock().lock();
-            if (paths.containsKey(key)) {
-                final Path path = paths.get(key);
-                try {
-                    final String hash = HashUtils.hashFile(path);
-                    if (!hash.equals(hashes.get(key))) {
-                        LOG.debug("Hashes don't match for " + key);
-                        return Optional.empty();
+        final CacheRecord record = findRecord(key);
+        if (record != null) {
+            final Path path = record.path;
+            try {
+                if (!strictValidation && fingerprintMatches(record)) {
+                    if (LOG.isTraceEnabled()) {
+                        LOG.trace("File fingerprint matches for " + key + ", skipping hash verification");
                     }
                     return Optional.of(path.toFile());
-                } catch (IOException e) {
-                    LOG.debug("Unable to calculate cached artifact hash " + key, e);
+                }
+                final String hash = FileHashes.hashFile(path);
+                if (!hash.equals(record.hash)) {
+                    LOG.debug("Hashes don't match for " + key);
                     return Optional.empty();
                 }
+                return Optional.of(path.toFile());
+            } catch (IOException e) {
+                LOG.debug("Unable to calculate cached artifact hash " + key, e);
+                return Optional.empty();
             }
+        }
+        return Optional.empty();
+    }
+
+    private CacheRecord findRecord(String key) {
+        // records have to be read before the index, the index is replaced before the records are cleared
+        final CacheRecord record = records.get(key);
+        if (record != null) {
+            return record;
+        }
+        final ArtifactCacheIndex currentIndex = index;
+        return currentIndex == null ? null : currentIndex.find(key);
+    }
+
+    /**
+     * finds the artifact in the {@link SharedArtifactStore}. The found object is not recorded in this cache, it is
+     * added to the cache of an installation when the installation caches the artifact with {@link #cacheAll(Collection)}.
+     *
+     * @param groupId
+     * @param artifactId
+     * @param extension
+     * @param classifier
+     * @param version
+     * @return empty {@code Optional} if the shared store is not configured or doesn't contain the artifact, otherwise
+     * the stored {@code File}. The file must not be modified.
+     */
+    public Optional<File> findInSharedStore(String groupId, String artifactId, String extension, String classifier, String version) {
+        if (sharedStore == null) {
             return Optional.empty();
-        } finally {
-            lock.readLock().unlock();
         }
+        final String key = asKey(groupId, artifactId, extension, classifier, version);
+        try {
+            final Optional<Path> object = sharedStore.lookup(groupId, artifactId, extension, classifier, version);
+            if (object.isPresent() && LOG.isDebugEnabled()) {
+                LOG.debugf("Found %s in the shared artifact store", key);
+            }
+            return object.map(Path::toFile);
+        } catch (IOException e) {
+            LOG.debug("Unable to use shared artifact store for " + key, e);
+            return Optional.empty();
+        }
+    }
+
+    private static boolean fingerprintMatches(CacheRecord record) throws IOException {
+        if (record.fingerprint == null || !Files.exists(record.path)) {
+            return false;
+        }
+        return record.fingerprint.equals(FileFingerprint.of(record.path));
+    }
+
+    /**
+     * finds recorded hashes of the {@code files}. A recorded hash is only returned if the file fingerprint matches
+     * the recorded one, i.e. the file has not been changed since it was recorded. No hashes are returned if strict
+     * validation is enabled.
+     *
+     * @param files - files to find the hashes for
+     * @return hashes of the {@code files} that are recorded and have not been changed
+     */
+    public Map<Path, String> getKnownHashes(Collection<Path> files) {
+        if (strictValidation || files.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<Path, CacheRecord> recordsByPath = new HashMap<>();
+        for (CacheRecord record : currentRecords().values()) {
+            if (record.fingerprint != null) {
+                recordsByPath.put(record.path.toAbsolutePath().normalize(), record);
+            }
+        }
+        final Map<Path, String> hashes = new HashMap<>();
+        for (Path file : files) {
+            final CacheRecord record = recordsByPath.get(file.toAbsolutePath().normalize());
+            try {
+                if (record != null && fingerprintMatches(record)) {
+                    hashes.put(file, record.hash);
+                }
+            } catch (IOException e) {
+                LOG.debug("Unable to read fingerprint of " + file, e);
+            }
+        }
+        return hashes;
     }
 
     /**
@@ -142,41 +276,208 @@ public class ArtifactCache {
      * @throws IOException
      */
     public void record(MavenArtifact artifact, Path pathToArtifact) throws IOException {
-        try {
-            lock.writeLock().lock();
+        recordAll(Map.of(artifact, pathToArtifact));
+    }
 
-            final String cacheFileKey = getCacheFileKey(artifact);
+    /**
+     * records multiple files in the cache descriptor. All the records are appended to the descriptor in one write.
+     *
+     * @param artifacts - artifacts to be recorded mapped to their location in the installation
+     * @throws IOException
+     */
+    public void recordAll(Map<MavenArtifact, Path> artifacts) throws IOException {
+        final List<CacheRecord> newRecords = new ArrayList<>(artifacts.size());
+        for (Map.Entry<MavenArtifact, Path> entry : artifacts.entrySet()) {
+            final Path artifactFile = entry.getKey().getFile().toPath();
+            final Path pathToArtifact = entry.getValue();
+            final String hash = FileHashes.hashFile(artifactFile);
+            // only fingerprint the target file if it is known to have the same content as the recorded artifact
+            final boolean sameContent = Files.exists(pathToArtifact)
+                    && (Files.isSameFile(artifactFile, pathToArtifact) || hash.equals(FileHashes.hashFile(pathToArtifact)));
+            newRecords.add(newRecord(entry.getKey(), pathToArtifact, hash, sameContent));
+        }
+        append(newRecords);
+    }
 
-            final Path cacheList = cacheDir.resolve(CACHE_FILENAME);
+    /**
+     * caches the artifact in {@code CACHE_FOLDER}. The cached artifact is then recorded in the cache list.
+     *
+     * @param artifact
+     * @throws IOException
+     */
+    public void cache(MavenArtifact artifact) throws IOException {
+        cacheAll(List.of(artifact));
+    }
+
+    /**
+     * caches the artifacts in {@code CACHE_FOLDER}. The cached artifacts are then recorded in the cache list in one write.
+     * If a {@link SharedArtifactStore} is configured, the artifacts are added to it and linked into {@code CACHE_FOLDER}.
+     *
+     * @param artifacts
+     * @throws IOException
+     */
+    public void cacheAll(Collection<MavenArtifact> artifacts) throws IOException {
+        final List<CacheRecord> newRecords = new ArrayList<>(artifacts.size());
+        for (MavenArtifact artifact : artifacts) {
+            final Path cachedFile = cacheDir.resolve(cachedFileName(artifact));
+            final String hash = FileHashes.hashFile(artifact.getFile().toPath());
+            if (sharedStore != null) {
+                sharedStore.store(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(),
+                        artifact.getClassifier(), artifact.getVersion(), hash, artifact.getFile().toPath(), cachedFile);
+            } else {
+                IoUtils.copy(artifact.getFile().toPath(), cachedFile, false);
+            }
+
+            newRecords.add(newRecord(artifact, cachedFile, hash, true));
+        }
+        append(newRecords);
+    }
+
+    private String cachedFileName(MavenArtifact artifact) {
+        if (sharedStore == null || !sharedStore.contains(artifact.getFile().toPath())) {
+            return artifact.getFile().getName();
+        }
+        // objects found in the shared store are named by their hash
+        final StringBuilder fileName = new StringBuilder(artifact.getArtifactId()).append('-').append(artifact.getVersion());
+        if (artifact.getClassifier() != null && !artifact.getClassifier().isEmpty()) {
+            fileName.append('-').append(artifact.getClassifier());
+        }
+        return fileName.append('.').append(artifact.getExtension()).toString();
+    }
 
-            if (paths.containsKey(asKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(), artifact.getClassifier(), artifact.getVersion()))) {
-                removeArtifactFromCacheList(cacheFileKey, cacheList);
+    private CacheRecord newRecord(MavenArtifact artifact, Path pathToArtifact, String hash, boolean sameContent) throws IOException {
+        final String key = asKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(), artifact.getClassifier(), artifact.getVersion());
+        final Path relativePath = installationDir.relativize(pathToArtifact);
+        final String recordedPath = relativePath.toString().replace(File.separatorChar, '/');
+        final FileFingerprint fingerprint = sameContent ? FileFingerprint.of(pathToArtifact) : null;
+        return new CacheRecord(key, getCacheFileKey(artifact), hash, recordedPath, installationDir.resolve(recordedPath), fingerprint);
+    }
+
+    private void append(List<CacheRecord> newRecords) throws IOException {
+        if (newRecords.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            final StringBuilder lines = new StringBuilder();
+            if (!journalEndsWithNewLine) {
+                lines.append('\n');
             }
+            for (CacheRecord record : newRecords) {
+                lines.append(record.toLine()).append('\n');
+            }
+            Files.writeString(cacheDir.resolve(CACHE_FILENAME), lines.toString(), StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+            journalEndsWithNewLine = true;
+            journalLines += newRecords.size();
 
-            final String hash = HashUtils.hashFile(artifact.getFile().toPath());
-            final Path relativePath = installationDir.relativize(pathToArtifact);
-            final String recordedPath = relativePath.toString().replace(File.separatorChar, '/');
-            Files.writeString(cacheList,
-                    cacheFileKey + CACHE_LINE_SEPARATOR + hash + CACHE_LINE_SEPARATOR +
-                            recordedPath + "\n", StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+            final Map<String, CacheRecord> updated = new LinkedHashMap<>(records);
+            for (CacheRecord record : newRecords) {
+                // re-insert the key to keep the records in the order they were added
+                if (updated.remove(record.key) != null || (index != null && index.contains(record.key))) {
+                    superseded++;
+                }
+                updated.put(record.key, record);
+            }
+            records = Collections.unmodifiableMap(updated);
 
-            invalidate();
-            init();
-        } finally {
-            lock.writeLock().unlock();
+            if (superseded >= COMPACTION_THRESHOLD) {
+                compact();
+            }
         }
     }
 
     /**
-     * caches the artifact in {@code CACHE_FOLDER}. The cached artifact is then recorded in the cache list.
+     * rewrites the cache descriptor removing all superseded records.
      *
-     * @param artifact
      * @throws IOException
      */
-    public void cache(MavenArtifact artifact) throws IOException {
-        IoUtils.copy(artifact.getFile().toPath(), cacheDir.resolve(artifact.getFile().getName()), false);
+    void compact() throws IOException {
+        synchronized (writeLock) {
+            final Map<String, CacheRecord> current = currentRecords();
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Compacting artifact cache descriptor, removing %d superseded records", superseded);
+            }
+            final StringBuilder content = new StringBuilder();
+            for (CacheRecord record : current.values()) {
+                content.append(record.toLine()).append('\n');
+            }
+            final byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+            final Path cacheList = cacheDir.resolve(CACHE_FILENAME);
+            final Path tempList = cacheDir.resolve(CACHE_FILENAME + ".tmp");
+            Files.write(tempList, bytes);
+            try {
+                Files.move(tempList, cacheList, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempList, cacheList, StandardCopyOption.REPLACE_EXISTING);
+            }
+            superseded = 0;
+            journalEndsWithNewLine = true;
+            journalLines = current.size();
+            if (useIndex) {
+                writeIndex(current.values(), bytes, current.size());
+            }
+        }
+    }
 
-        record(artifact, cacheDir.resolve(artifact.getFile().getName()));
+    /**
+     * writes the binary index covering all the records in the cache descriptor, unless all the records are already
+     * indexed. Recording artifacts only appends to the cache descriptor, the index should be updated once the
+     * artifacts of an operation are recorded. Failing to write the index is not fatal, the records not covered by
+     * the index are read from the cache descriptor when the cache is opened.
+     */
+    public void updateIndex() {
+        if (!useIndex) {
+            return;
+        }
+        synchronized (writeLock) {
+            final Path cacheList = cacheDir.resolve(CACHE_FILENAME);
+            if (records.isEmpty() || !Files.exists(cacheList)) {
+                return;
+            }
+            try {
+                writeIndex(currentRecords().values(), Files.readAllBytes(cacheList), journalLines);
+            } catch (IOException e) {
+                LOG.debug("Unable to read artifact cache descriptor", e);
+            }
+        }
+    }
+
+    /*
+     * merges the indexed records with the records added since the index was written
+     */
+    private Map<String, CacheRecord> currentRecords() {
+        // records have to be read before the index, the index is replaced before the records are cleared
+        final Map<String, CacheRecord> added = records;
+        final ArtifactCacheIndex currentIndex = index;
+        final Map<String, CacheRecord> current = new LinkedHashMap<>();
+        if (currentIndex != null) {
+            for (CacheRecord record : currentIndex.records()) {
+                current.put(record.key, record);
+            }
+        }
+        for (CacheRecord record : added.values()) {
+            current.remove(record.key);
+            current.put(record.key, record);
+        }
+        return current;
+    }
+
+    /*
+     * writes the binary index covering whole {@code descriptor} and replaces the in-memory records with it.
+     * Failing to write the index is not fatal, the records are kept in memory instead.
+     */
+    private void writeIndex(Collection<CacheRecord> current, byte[] descriptor, int lines) {
+        final Path indexFile = cacheDir.resolve(ArtifactCacheIndex.INDEX_FILENAME);
+        try {
+            ArtifactCacheIndex.write(indexFile, current, descriptor, descriptor.length, lines);
+            final ArtifactCacheIndex written = ArtifactCacheIndex.open(indexFile, descriptor, installationDir);
+            if (written != null) {
+                // replace the index before clearing the records, so that readers always find the record
+                index = written;
+                records = Collections.emptyMap();
+            }
+        } catch (IOException e) {
+            LOG.debug("Unable to write artifact cache index", e);
+        }
     }
 
     /**
@@ -192,6 +493,7 @@ public class ArtifactCache {
         Objects.requireNonNull(manifestRecord);
         Objects.requireNonNull(resolvedArtifacts);
 
+        final List<MavenArtifact> manifests = new ArrayList<>();
         for (ManifestVersionRecord.MavenManifest manifest : manifestRecord.getMavenManifests()) {
             final MavenArtifact record = resolvedArtifacts.getManifestVersion(manifest.getGroupId(), manifest.getArtifactId());
             if (record != null && record.getVersion().equals(manifest.getVersion())) {
@@ -201,7 +503,7 @@ public class ArtifactCache {
                 final File cachedManifest = record.getFile();
 
                 if (cachedManifest.exists()) {
-                    cache(new MavenArtifact(
+                    manifests.add(new MavenArtifact(
                             manifest.getGroupId(),
                             manifest.getArtifactId(),
                             ChannelManifest.EXTENSION,
@@ -212,6 +514,7 @@ public class ArtifactCache {
                 }
             }
         }
+        cacheAll(manifests);
     }
 
     private static String getCacheFileKey(MavenArtifact artifact) {
@@ -224,48 +527,53 @@ public class ArtifactCache {
         return galleonArtifact.getCoordsAsString();
     }
 
-    private static void removeArtifactFromCacheList(String cacheKey, Path cacheList) throws IOException {
-        final List<String> cacheLines = Files.readAllLines(cacheList);
-        Files.delete(cacheList);
-
-        try (BufferedWriter writer = Files.newBufferedWriter(cacheList, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW)) {
-            for (String cacheLine : cacheLines) {
-                if (!cacheLine.split(CACHE_LINE_SEPARATOR)[0].equals(cacheKey)) {
-                    writer.write(cacheLine + System.lineSeparator());
-                }
-            }
-        }
-    }
-
     private void init() throws IOException {
         Path artifactLog = cacheDir.resolve(ArtifactCache.CACHE_FILENAME);
 
         if (Files.exists(artifactLog)) {
+            final byte[] content = Files.readAllBytes(artifactLog);
+            final ArtifactCacheIndex existingIndex = useIndex
+                    ? ArtifactCacheIndex.open(cacheDir.resolve(ArtifactCacheIndex.INDEX_FILENAME), content, installationDir)
+                    : null;
+            // only the records not covered by the index need to be parsed
+            final int offset = existingIndex == null ? 0 : existingIndex.getCoveredLength();
+            final int firstRow = existingIndex == null ? 0 : existingIndex.getCoveredLines();
+            final List<String> lines = new String(content, offset, content.length - offset, StandardCharsets.UTF_8)
+                    .lines().collect(Collectors.toList());
+            final Map<String, CacheRecord> parsed = new LinkedHashMap<>();
+            int parsedSuperseded = existingIndex == null ? 0 : existingIndex.getCoveredLines() - existingIndex.size();
             int row = 0;
-            final List<String> lines = Files.readAllLines(artifactLog);
             try {
                 for ( ; row < lines.size(); row++) {
                     final String[] splitLine = lines.get(row).split(ArtifactCache.CACHE_LINE_SEPARATOR);
                     if (splitLine.length < 3) {
-                        throw new IOException("Not enough segments, expected format is <GAV>::<hash>::<path>");
+                        throw new IOException("Not enough segments, expected format is <GAV>::<hash>::<path>[::<size>::<mtime>::<fileKey>]");
                     }
                     String gav = splitLine[0];
                     String hash = splitLine[1];
-                    Path path = Paths.get(splitLine[2]);
+                    String recordedPath = splitLine[2];
+                    final FileFingerprint fingerprint = splitLine.length > 3 ? FileFingerprint.parse(splitLine, 3) : null;
                     final org.jboss.galleon.universe.maven.MavenArtifact mavenArtifact = org.jboss.galleon.universe.maven.MavenArtifact.fromString(gav);
                     final String key = asKey(mavenArtifact.getGroupId(), mavenArtifact.getArtifactId(), mavenArtifact.getExtension(), mavenArtifact.getClassifier(), mavenArtifact.getVersion());
-                    paths.put(key, installationDir.resolve(path));
-                    hashes.put(key, hash);
+                    // later records supersede earlier ones
+                    if (parsed.remove(key) != null || (existingIndex != null && existingIndex.contains(key))) {
+                        parsedSuperseded++;
+                    }
+                    parsed.put(key, new CacheRecord(key, gav, hash, recordedPath, installationDir.resolve(Paths.get(recordedPath)), fingerprint));
                 }
             } catch (MavenUniverseException | IOException e) {
-                throw ProsperoLogger.ROOT_LOGGER.unableToReadArtifactCache(row + 1, lines.get(row), e);
+                throw ProsperoLogger.ROOT_LOGGER.unableToReadArtifactCache(firstRow + row + 1, lines.get(row), e);
             }
+            this.index = existingIndex;
+            this.records = Collections.unmodifiableMap(parsed);
+            this.superseded = parsedSuperseded;
+            this.journalLines = firstRow + lines.size();
+            journalEndsWithNewLine = content.length == 0 || content[content.length - 1] == '\n';
         }
     }
 
-    private void invalidate() {
-        paths.clear();
-        hashes.clear();
+    private static boolean isWindows() {
+        return System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
     }
 
     private static String asKey(String groupId, String artifactId, String extension, String classifier, String version) {
@@ -282,4 +590,97 @@ public class ArtifactCache {
         }
         return buf.append(':').append(version).toString();
     }
+
+    static final class CacheRecord {
+        final String key;
+        final String gav;
+        final String hash;
+        final String recordedPath;
+        final Path path;
+        final FileFingerprint fingerprint;
+
+        CacheRecord(String key, String gav, String hash, String recordedPath, Path path, FileFingerprint fingerprint) {
+            this.key = key;
+            this.gav = gav;
+            this.hash = hash;
+            this.recordedPath = recordedPath;
+            this.path = path;
+            this.fingerprint = fingerprint;
+        }
+
+        private String toLine() {
+            final StringBuilder line = new StringBuilder()
+                    .append(gav).append(CACHE_LINE_SEPARATOR)
+                    .append(hash).append(CACHE_LINE_SEPARATOR)
+                    .append(recordedPath);
+            if (fingerprint != null) {
+                line.append(CACHE_LINE_SEPARATOR).append(fingerprint.asString());
+            }
+            return line.toString();
+        }
+    }
+
+    /**
+     * Cheap to obtain description of the file state used to detect changes to the cached files without hashing them.
+     */
+    static final class FileFingerprint {
+        private static final String NO_FILE_KEY = "-";
+        private final long size;
+        private final long lastModified;
+        private final String fileKey;
+
+        FileFingerprint(long size, long lastModified, String fileKey) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.fileKey = fileKey;
+        }
+
+        static FileFingerprint of(Path path) throws IOException {
+            final BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            // on POSIX file systems the file key identifies the device and inode of the file
+            final Object fileKey = attrs.fileKey();
+            return new FileFingerprint(attrs.size(), attrs.lastModifiedTime().toMillis(),
+                    fileKey == null ? NO_FILE_KEY : fileKey.toString());
+        }
+
+        static FileFingerprint parse(String[] segments, int offset) throws IOException {
+            if (segments.length < offset + 3) {
+                throw new IOException("Incomplete file fingerprint, expected format is <size>::<mtime>::<fileKey>");
+            }
+            try {
+                return new FileFingerprint(Long.parseLong(segments[offset]), Long.parseLong(segments[offset + 1]), segments[offset + 2]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid file fingerprint", e);
+            }
+        }
+
+        long size() {
+            return size;
+        }
+
+        long lastModified() {
+            return lastModified;
+        }
+
+        String fileKey() {
+            return fileKey;
+        }
+
+        String asString() {
+            return size + CACHE_LINE_SEPARATOR + lastModified + CACHE_LINE_SEPARATOR + fileKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            FileFingerprint that = (FileFingerprint) o;
+            return size == that.size && lastModified == that.lastModified && fileKey.equals(that.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified, fileKey);
+        }
+    }
 }
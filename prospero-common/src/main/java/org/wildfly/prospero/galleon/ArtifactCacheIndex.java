@@ -0,0 +1,300 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary index of the artifact cache descriptor. The index is memory-mapped and looked up without parsing the descriptor.
+ *
+ * The index covers a prefix of the cache descriptor identified by its length and CRC32 checksum. If the descriptor has
+ * been appended to since the index was written, only the records after the covered prefix have to be parsed. If the
+ * covered prefix doesn't match, the index is stale and has to be regenerated from the descriptor.
+ *
+ * Layout of the index:
+ * <pre>
+ *     header:  magic (int), version (int), covered length (long), covered CRC32 (long), covered lines (int),
+ *              record count (int), string table size (int)
+ *     records: fixed-width records sorted by the key, each consisting of the key, GAV, hash, path and file key
+ *              references (offset and length in the string table) followed by the file size and last modified time.
+ *              File key length of -1 means the record has no fingerprint.
+ *     strings: UTF-8 encoded strings, each distinct string is stored only once
+ * </pre>
+ */
+class ArtifactCacheIndex {
+    private static final Logger LOG = Logger.getLogger(ArtifactCacheIndex.class);
+
+    static final String INDEX_FILENAME = "artifacts.idx";
+    private static final int MAGIC = 0x50524349;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+    private static final int STRING_REF_SIZE = 8;
+    private static final int RECORD_SIZE = 5 * STRING_REF_SIZE + 8 + 8;
+    private static final int NO_FINGERPRINT = -1;
+
+    private final ByteBuffer buffer;
+    private final Path installationDir;
+    private final long coveredLength;
+    private final int coveredLines;
+    private final int recordCount;
+    private final int stringsOffset;
+
+    private ArtifactCacheIndex(ByteBuffer buffer, Path installationDir) {
+        this.buffer = buffer;
+        this.installationDir = installationDir;
+        this.coveredLength = buffer.getLong(8);
+        this.coveredLines = buffer.getInt(24);
+        this.recordCount = buffer.getInt(28);
+        this.stringsOffset = HEADER_SIZE + recordCount * RECORD_SIZE;
+    }
+
+    /**
+     * maps the index file, if it exists and matches the {@code descriptor}
+     *
+     * @param indexFile - binary index
+     * @param descriptor - current content of the cache descriptor
+     * @param installationDir - installation the cached paths are relative to
+     * @return the index or {@code null} if the index is missing, corrupted or stale
+     */
+    static ArtifactCacheIndex open(Path indexFile, byte[] descriptor, Path installationDir) {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                return null;
+            }
+            final long coveredLength = buffer.getLong(8);
+            if (coveredLength > descriptor.length || buffer.getLong(16) != checksum(descriptor, (int) coveredLength)) {
+                LOG.debug("Artifact cache index is stale");
+                return null;
+            }
+            final long expectedSize = HEADER_SIZE + (long) buffer.getInt(28) * RECORD_SIZE + buffer.getInt(32);
+            if (expectedSize != channel.size()) {
+                return null;
+            }
+            return new ArtifactCacheIndex(buffer, installationDir);
+        } catch (IOException e) {
+            LOG.debug("Unable to read artifact cache index " + indexFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * writes the index of {@code records} covering the first {@code coveredLength} bytes of the {@code descriptor}.
+     */
+    static void write(Path indexFile, Collection<ArtifactCache.CacheRecord> records, byte[] descriptor,
+                      int coveredLength, int coveredLines) throws IOException {
+        final List<ArtifactCache.CacheRecord> sorted = new ArrayList<>(records);
+        final Map<String, byte[]> keys = new HashMap<>();
+        for (ArtifactCache.CacheRecord record : sorted) {
+            keys.put(record.key, record.key.getBytes(StandardCharsets.UTF_8));
+        }
+        sorted.sort(Comparator.comparing(r -> keys.get(r.key), Arrays::compareUnsigned));
+
+        final StringTable strings = new StringTable();
+        final ByteBuffer recordBuffer = ByteBuffer.allocate(sorted.size() * RECORD_SIZE);
+        for (ArtifactCache.CacheRecord record : sorted) {
+            strings.put(recordBuffer, record.key);
+            strings.put(recordBuffer, record.gav);
+            strings.put(recordBuffer, record.hash);
+            strings.put(recordBuffer, record.recordedPath);
+            final ArtifactCache.FileFingerprint fingerprint = record.fingerprint;
+            if (fingerprint == null) {
+                recordBuffer.putInt(0).putInt(NO_FINGERPRINT).putLong(0).putLong(0);
+            } else {
+                strings.put(recordBuffer, fingerprint.fileKey());
+                recordBuffer.putLong(fingerprint.size()).putLong(fingerprint.lastModified());
+            }
+        }
+        final byte[] stringBytes = strings.bytes.toByteArray();
+
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(coveredLength)
+                .putLong(checksum(descriptor, coveredLength))
+                .putInt(coveredLines)
+                .putInt(sorted.size())
+                .putInt(stringBytes.length);
+
+        final Path temp = indexFile.resolveSibling(INDEX_FILENAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            header.flip();
+            recordBuffer.flip();
+            final ByteBuffer stringBuffer = ByteBuffer.wrap(stringBytes);
+            while (header.hasRemaining() || recordBuffer.hasRemaining() || stringBuffer.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, recordBuffer, stringBuffer});
+            }
+        }
+        try {
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return number of bytes of the cache descriptor covered by this index
+     */
+    int getCoveredLength() {
+        return (int) coveredLength;
+    }
+
+    /**
+     * @return number of lines of the cache descriptor covered by this index, including superseded records
+     */
+    int getCoveredLines() {
+        return coveredLines;
+    }
+
+    int size() {
+        return recordCount;
+    }
+
+    boolean contains(String key) {
+        return search(key.getBytes(StandardCharsets.UTF_8)) >= 0;
+    }
+
+    /**
+     * finds the record of the {@code key} using binary search of the sorted records.
+     *
+     * @return the record or {@code null} if the key is not indexed
+     */
+    ArtifactCache.CacheRecord find(String key) {
+        final int index = search(key.getBytes(StandardCharsets.UTF_8));
+        return index < 0 ? null : read(index);
+    }
+
+    /**
+     * @return all the indexed records, sorted by the key
+     */
+    List<ArtifactCache.CacheRecord> records() {
+        final List<ArtifactCache.CacheRecord> records = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            records.add(read(i));
+        }
+        return records;
+    }
+
+    private int search(byte[] key) {
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = compareKey(HEADER_SIZE + mid * RECORD_SIZE, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareKey(int refPosition, byte[] key) {
+        final int offset = stringsOffset + buffer.getInt(refPosition);
+        final int length = buffer.getInt(refPosition + 4);
+        final int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            final int cmp = Byte.compareUnsigned(buffer.get(offset + i), key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private ArtifactCache.CacheRecord read(int index) {
+        final int position = HEADER_SIZE + index * RECORD_SIZE;
+        final String key = string(position);
+        final String gav = string(position + STRING_REF_SIZE);
+        final String hash = string(position + 2 * STRING_REF_SIZE);
+        final String recordedPath = string(position + 3 * STRING_REF_SIZE);
+        final int fingerprintPosition = position + 4 * STRING_REF_SIZE;
+        final ArtifactCache.FileFingerprint fingerprint;
+        if (buffer.getInt(fingerprintPosition + 4) == NO_FINGERPRINT) {
+            fingerprint = null;
+        } else {
+            fingerprint = new ArtifactCache.FileFingerprint(buffer.getLong(fingerprintPosition + STRING_REF_SIZE),
+                    buffer.getLong(fingerprintPosition + STRING_REF_SIZE + 8), string(fingerprintPosition));
+        }
+        return new ArtifactCache.CacheRecord(key, gav, hash, recordedPath, installationDir.resolve(recordedPath), fingerprint);
+    }
+
+    private String string(int refPosition) {
+        final int offset = stringsOffset + buffer.getInt(refPosition);
+        final int length = buffer.getInt(refPosition + 4);
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long checksum(byte[] content, int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(content, 0, length);
+        return crc.getValue();
+    }
+
+    /*
+     * stores each distinct string only once
+     */
+    private static final class StringTable {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, int[]> offsets = new HashMap<>();
+
+        private void put(ByteBuffer records, String value) {
+            final int[] ref = offsets.computeIfAbsent(value, v -> {
+                final byte[] encoded = v.getBytes(StandardCharsets.UTF_8);
+                final int offset = bytes.size();
+                bytes.write(encoded, 0, encoded.length);
+                return new int[]{offset, encoded.length};
+            });
+            records.putInt(ref[0]).putInt(ref[1]);
+        }
+    }
+}
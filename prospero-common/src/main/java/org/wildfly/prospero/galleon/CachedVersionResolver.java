@@ -22,9 +22,14 @@ import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.RepositoryListener;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.installation.InstallRequest;
 import org.eclipse.aether.installation.InstallationException;
+import org.eclipse.aether.repository.LocalArtifactRegistration;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
 import org.jboss.logging.Logger;
 import org.wildfly.channel.ArtifactCoordinate;
 import org.wildfly.channel.ArtifactTransferException;
@@ -33,25 +38,53 @@ import org.wildfly.channel.UnresolvedMavenArtifactException;
 import org.wildfly.channel.spi.MavenVersionsResolver;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
- * Attempts to resolve artifact from local installation cache first. If that's not possible
- * falls back onto {@code fallback} {@code MavenVersionsResolver}.
+ * Attempts to resolve artifact from local installation cache first, then from the {@link SharedArtifactStore} if
+ * configured. If that's not possible falls back onto {@code fallback} {@code MavenVersionsResolver}.
  *
- * Installs locally resolved artifacts in LRM to allow galleon to start thin servers.
+ * Installs locally resolved artifacts in LRM to allow galleon to start thin servers. If the LRM is temporary and
+ * {@code LOCAL_INSTALL_MODE_PROPERTY} is not set to {@code copy}, the artifacts are hardlinked, or symlinked when
+ * hardlinks are not possible, into the LRM instead of being copied. The artifacts are still registered with the LRM,
+ * so that it contains the same metadata as if they were installed. Artifacts are always copied into a persistent
+ * LRM (e.g. {@code ~/.m2}), as a linked file would be changed by any later write to the installation cache.
+ * Artifacts that are not linked are installed in bulk.
+ *
+ * Every cache lookup is reported to the session's {@code RepositoryListener} as an artifact resolution from a
+ * {@code LocalRepository} with {@code CACHE_REPOSITORY_TYPE} content type. Cache misses are reported as failed
+ * resolutions.
  */
 public class CachedVersionResolver implements MavenVersionsResolver {
     private static final Logger LOG = Logger.getLogger(CachedVersionResolver.class.getName());
 
+    /**
+     * system property selecting how the cached artifacts are installed in a temporary LRM - {@code link} (default) or {@code copy}.
+     */
+    public static final String LOCAL_INSTALL_MODE_PROPERTY = "org.wildfly.prospero.cache.local-install";
+    private static final String COPY_INSTALL_MODE = "copy";
+    /**
+     * content type of the repository reported in events of artifacts resolved from the installation cache
+     */
+    public static final String CACHE_REPOSITORY_TYPE = "prospero-installation-cache";
+    static final LocalRepository CACHE_REPOSITORY = new LocalRepository(ArtifactCache.CACHE_FOLDER.toFile(), CACHE_REPOSITORY_TYPE);
+    private static final int INSTALL_CHUNK_SIZE = 200;
+
     private static final RepositoryListener NOOP_REPOSITORY_LISTENER = new AbstractRepositoryListener(){};
     private final MavenVersionsResolver fallbackResolver;
     private final RepositorySystem system;
@@ -61,6 +94,7 @@ public class CachedVersionResolver implements MavenVersionsResolver {
     private final Logger log = Logger.getLogger(CachedVersionResolver.class);
     private final RepositoryListener listener;
     private final Function<ArtifactCoordinate, String> manifestVersionProvider;
+    private final boolean linkLocalInstall;
 
     @Deprecated
     public CachedVersionResolver(MavenVersionsResolver fallbackResolver, ArtifactCache cache, RepositorySystem system, RepositorySystemSession session) {
@@ -70,6 +104,18 @@ public class CachedVersionResolver implements MavenVersionsResolver {
     public CachedVersionResolver(MavenVersionsResolver fallbackResolver, ArtifactCache cache, RepositorySystem system,
                                  RepositorySystemSession session,
                                  Function<ArtifactCoordinate, String> manifestVersionProvider) {
+        this(fallbackResolver, cache, system, session, manifestVersionProvider, false);
+    }
+
+    /**
+     * @param temporaryLocalRepository - {@code true} if the LRM of the {@code session} is removed after the provisioning,
+     *                                 allowing cached artifacts to be linked into it
+     */
+    public CachedVersionResolver(MavenVersionsResolver fallbackResolver, ArtifactCache cache, RepositorySystem system,
+                                 RepositorySystemSession session,
+                                 Function<ArtifactCoordinate, String> manifestVersionProvider,
+                                 boolean temporaryLocalRepository) {
+        this.linkLocalInstall = temporaryLocalRepository && !COPY_INSTALL_MODE.equals(System.getProperty(LOCAL_INSTALL_MODE_PROPERTY));
         this.fallbackResolver = fallbackResolver;
         this.system = system;
         this.session = session;
@@ -85,49 +131,116 @@ public class CachedVersionResolver implements MavenVersionsResolver {
 
     @Override
     public File resolveArtifact(String groupId, String artifactId, String extension, String classifier, String version) throws UnresolvedMavenArtifactException {
-        Optional<File> path = artifactCache.getArtifact(groupId, artifactId, extension, classifier, version);
-        if (path.isEmpty()) {
+        final ArtifactCoordinate coordinate = new ArtifactCoordinate(groupId, artifactId, extension, classifier, version);
+        final File resolved = resolveFromCache(List.of(coordinate)).get(0);
+        if (resolved == null) {
             return fallbackResolver.resolveArtifact(groupId, artifactId, extension, classifier, version);
-        } else {
-            // we need to install the artifact locally so that galleon can start embedded server to generate configurations
-            if (installArtifactLocally(groupId, artifactId, extension, classifier, version, path.get())) {
-                return path.get();
-            } else {
-                return fallbackResolver.resolveArtifact(groupId, artifactId, extension, classifier, version);
-            }
         }
+        return resolved;
     }
 
     @Override
     public List<File> resolveArtifacts(List<ArtifactCoordinate> coordinates) throws UnresolvedMavenArtifactException {
+        final List<File> cached = resolveFromCache(coordinates);
+
         final List<Function<List<File>, File>> res = new ArrayList<>(coordinates.size());
         final List<ArtifactCoordinate> missingArtifacts = new ArrayList<>();
         int index = 0;
-        for (ArtifactCoordinate coordinate : coordinates) {
-            Optional<File> path = artifactCache.getArtifact(coordinate.getGroupId(), coordinate.getArtifactId(),
-                    coordinate.getExtension(), coordinate.getClassifier(), coordinate.getVersion());
-            if (path.isEmpty()) {
+        for (int c = 0; c < coordinates.size(); c++) {
+            final File file = cached.get(c);
+            if (file == null) {
                 int i = index++;
                 res.add((list)->list.get(i));
-                missingArtifacts.add(coordinate);
+                missingArtifacts.add(coordinates.get(c));
             } else {
-                // we need to install the artifact locally so that galleon can start embedded server to generate configurations
-                if (installArtifactLocally(coordinate.getGroupId(), coordinate.getArtifactId(),
-                        coordinate.getExtension(), coordinate.getClassifier(), coordinate.getVersion(), path.get())) {
-                    res.add((list) -> path.get());
-                } else {
-                    int i = index++;
-                    res.add((list)->list.get(i));
-                    missingArtifacts.add(coordinate);
-                }
+                res.add((list) -> file);
             }
         }
 
+        if (missingArtifacts.isEmpty()) {
+            return cached;
+        }
+
         final List<File> resolvedFromMaven = fallbackResolver.resolveArtifacts(missingArtifacts);
 
         return res.stream().map(f->f.apply(resolvedFromMaven)).collect(Collectors.toList());
     }
 
+    /*
+     * finds the coordinates in the cache and installs the found artifacts in the LRM. The cache lookups are done in
+     * parallel, the found artifacts are installed together. Returns a list of the cached files, with null elements
+     * for artifacts that were not found or could not be installed.
+     */
+    private List<File> resolveFromCache(List<ArtifactCoordinate> coordinates) {
+        final long start = System.nanoTime();
+        final List<Optional<File>> found = findCachedArtifacts(coordinates);
+        final long lookupTime = System.nanoTime() - start;
+
+        final List<Artifact> hits = new ArrayList<>();
+        for (int i = 0; i < coordinates.size(); i++) {
+            if (found.get(i).isPresent()) {
+                final ArtifactCoordinate c = coordinates.get(i);
+                hits.add(new DefaultArtifact(c.getGroupId(), c.getArtifactId(), c.getClassifier(), c.getExtension(),
+                        c.getVersion(), null, found.get(i).get()));
+            }
+        }
+
+        // we need to install the artifacts locally so that galleon can start embedded server to generate configurations
+        final Set<Artifact> failed = installArtifactsLocally(hits);
+
+        final List<File> files = new ArrayList<>(coordinates.size());
+        int hit = 0;
+        int missed = 0;
+        for (int i = 0; i < coordinates.size(); i++) {
+            final ArtifactCoordinate c = coordinates.get(i);
+            final DefaultArtifact artifact = new DefaultArtifact(c.getGroupId(), c.getArtifactId(), c.getClassifier(), c.getExtension(), c.getVersion());
+            final File file = found.get(i).orElse(null);
+            listener.artifactResolving(cacheEvent(RepositoryEvent.EventType.ARTIFACT_RESOLVING, artifact).build());
+            if (file != null && !failed.contains(hits.get(hit++))) {
+                listener.artifactResolved(cacheEvent(RepositoryEvent.EventType.ARTIFACT_RESOLVED, artifact.setFile(file)).build());
+                files.add(file);
+            } else {
+                listener.artifactResolved(cacheEvent(RepositoryEvent.EventType.ARTIFACT_RESOLVED, artifact)
+                        .setException(new ArtifactNotFoundException(artifact, null, "Artifact not found in the installation cache")).build());
+                files.add(null);
+                missed++;
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Found %d of %d artifacts in the installation cache in %d ms, installing them in LRM took %d ms",
+                    coordinates.size() - missed, coordinates.size(), TimeUnit.NANOSECONDS.toMillis(lookupTime),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start - lookupTime));
+        }
+        return files;
+    }
+
+    private RepositoryEvent.Builder cacheEvent(RepositoryEvent.EventType type, Artifact artifact) {
+        return new RepositoryEvent.Builder(session, type)
+                .setArtifact(artifact)
+                .setRepository(CACHE_REPOSITORY);
+    }
+
+    private List<Optional<File>> findCachedArtifacts(List<ArtifactCoordinate> coordinates) {
+        final int threads = Math.min(coordinates.size(), FileHashes.maxThreads());
+        if (threads <= 1) {
+            return coordinates.stream().map(this::findCachedArtifact).collect(Collectors.toList());
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<CompletableFuture<Optional<File>>> futures = coordinates.stream()
+                    .map(c -> CompletableFuture.supplyAsync(() -> findCachedArtifact(c), executor))
+                    .collect(Collectors.toList());
+            return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Optional<File> findCachedArtifact(ArtifactCoordinate c) {
+        return findCachedArtifact(c.getGroupId(), c.getArtifactId(), c.getExtension(), c.getClassifier(), c.getVersion());
+    }
+
     @Override
     public List<URL> resolveChannelMetadata(List<? extends ChannelMetadataCoordinate> manifestCoords) throws UnresolvedMavenArtifactException {
         try {
@@ -149,7 +262,7 @@ public class CachedVersionResolver implements MavenVersionsResolver {
                     throw e;
                 }
 
-                final Optional<File> artifact = artifactCache.getArtifact(
+                final Optional<File> artifact = findCachedArtifact(
                         a.getGroupId(),
                         a.getArtifactId(),
                         a.getExtension(),
@@ -214,10 +327,59 @@ public class CachedVersionResolver implements MavenVersionsResolver {
         return fallbackResolver.getMetadataLatestVersion(groupId, artifactId);
     }
 
-    private boolean installArtifactLocally(String groupId, String artifactId, String extension, String classifier, String version, File path) {
+    /*
+     * looks up the artifact in the installation cache and if not found, in the shared artifact store
+     */
+    private Optional<File> findCachedArtifact(String groupId, String artifactId, String extension, String classifier, String version) {
+        final Optional<File> artifact = artifactCache.getArtifact(groupId, artifactId, extension, classifier, version);
+        if (artifact.isPresent()) {
+            return artifact;
+        }
+        return artifactCache.findInSharedStore(groupId, artifactId, extension, classifier, version);
+    }
+
+    /*
+     * installs the artifacts in the LRM, linking them if possible. Artifacts that can't be linked are installed using
+     * as few install requests as possible. Returns the artifacts that could not be installed.
+     */
+    private Set<Artifact> installArtifactsLocally(List<Artifact> artifacts) {
+        final List<Artifact> toInstall = new ArrayList<>();
+        if (linkLocalInstall && session.getLocalRepositoryManager() != null) {
+            for (Artifact artifact : artifacts) {
+                try {
+                    linkArtifactLocally(artifact);
+                } catch (IOException e) {
+                    log.debug("Unable to link cached artifact into LRM, installing it instead.", e);
+                    toInstall.add(artifact);
+                }
+            }
+        } else {
+            toInstall.addAll(artifacts);
+        }
+
+        final Set<Artifact> failed = new HashSet<>();
+        for (int i = 0; i < toInstall.size(); i += INSTALL_CHUNK_SIZE) {
+            final List<Artifact> chunk = toInstall.subList(i, Math.min(i + INSTALL_CHUNK_SIZE, toInstall.size()));
+            if (!install(chunk)) {
+                if (chunk.size() == 1) {
+                    failed.addAll(chunk);
+                } else {
+                    // find out which artifacts can't be installed
+                    for (Artifact artifact : chunk) {
+                        if (!install(List.of(artifact))) {
+                            failed.add(artifact);
+                        }
+                    }
+                }
+            }
+        }
+        return failed;
+    }
+
+    private boolean install(List<Artifact> artifacts) {
         try {
             final InstallRequest request = new InstallRequest();
-            request.setArtifacts(List.of(new DefaultArtifact(groupId, artifactId, classifier, extension, version, null, path)));
+            request.setArtifacts(artifacts);
             system.install(session, request);
             return true;
         } catch (InstallationException e) {
@@ -225,4 +387,25 @@ public class CachedVersionResolver implements MavenVersionsResolver {
             return false;
         }
     }
+
+    private void linkArtifactLocally(Artifact artifact) throws IOException {
+        final LocalRepositoryManager lrm = session.getLocalRepositoryManager();
+        final Path target = lrm.getRepository().getBasedir().toPath().resolve(lrm.getPathForLocalArtifact(artifact));
+        listener.artifactInstalling(installEvent(RepositoryEvent.EventType.ARTIFACT_INSTALLING, artifact, target));
+        final FileLinks.Method method = FileLinks.linkOrCopy(artifact.getFile().toPath(), target, true);
+        if (LOG.isTraceEnabled()) {
+            LOG.tracef("Installed cached artifact %s in LRM using %s", artifact, method);
+        }
+        // register the artifact the same way the installer does, recording it in _remote.repositories
+        lrm.add(session, new LocalArtifactRegistration(artifact.setFile(target.toFile())));
+        listener.artifactInstalled(installEvent(RepositoryEvent.EventType.ARTIFACT_INSTALLED, artifact, target));
+    }
+
+    private RepositoryEvent installEvent(RepositoryEvent.EventType type, Artifact artifact, Path target) {
+        return new RepositoryEvent.Builder(session, type)
+                .setArtifact(artifact)
+                .setRepository(session.getLocalRepository())
+                .setFile(target.toFile())
+                .build();
+    }
 }
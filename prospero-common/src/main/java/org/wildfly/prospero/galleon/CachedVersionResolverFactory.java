@@ -39,19 +39,54 @@ public class CachedVersionResolverFactory implements MavenVersionsResolver.Facto
     private final DefaultRepositorySystemSession session;
     private final ArtifactCache artifactCache;
     private final Path installDir;
+    private final boolean temporaryLocalRepository;
+    private final VersionCache versionCache;
+    private final NegativeResolutionCache negativeCache;
 
     public CachedVersionResolverFactory(VersionResolverFactory factory, Path installDir, RepositorySystem system, DefaultRepositorySystemSession session) throws IOException {
+        this(factory, installDir, system, session, false);
+    }
+
+    /**
+     * @param temporaryLocalRepository - {@code true} if the local repository of the {@code session} is removed after
+     *                                 the provisioning, allowing cached artifacts to be linked into it
+     */
+    public CachedVersionResolverFactory(VersionResolverFactory factory, Path installDir, RepositorySystem system,
+                                        DefaultRepositorySystemSession session, boolean temporaryLocalRepository) throws IOException {
+        this(factory, installDir, system, session, temporaryLocalRepository, null, null);
+    }
+
+    /**
+     * @param temporaryLocalRepository - {@code true} if the local repository of the {@code session} is removed after
+     *                                 the provisioning, allowing cached artifacts to be linked into it
+     * @param versionCache - cache of artifact versions available in remote repositories, {@code null} if versions
+     *                     should always be looked up in the repositories
+     * @param negativeCache - cache of recently failed resolutions, {@code null} if failed resolutions should always
+     *                      be retried
+     */
+    public CachedVersionResolverFactory(VersionResolverFactory factory, Path installDir, RepositorySystem system,
+                                        DefaultRepositorySystemSession session, boolean temporaryLocalRepository,
+                                        VersionCache versionCache, NegativeResolutionCache negativeCache) throws IOException {
         this.factory = factory;
         this.system = system;
         this.session = session;
         this.artifactCache = ArtifactCache.getInstance(installDir);
         this.installDir = installDir;
+        this.temporaryLocalRepository = temporaryLocalRepository;
+        this.versionCache = versionCache;
+        this.negativeCache = negativeCache;
     }
 
     @Override
     public MavenVersionsResolver create(Collection<Repository> repositories) {
-        return new CachedVersionResolver(factory.create(repositories), artifactCache, system, session,
-                (a)->getCurrentManifestVersion(a, installDir.resolve(ProsperoMetadataUtils.METADATA_DIR).resolve(ProsperoMetadataUtils.CURRENT_VERSION_FILE)));
+        MavenVersionsResolver remoteResolver = versionCache == null ? factory.create(repositories)
+                : new VersionCachingResolver(factory, repositories, versionCache, session.isOffline());
+        if (negativeCache != null) {
+            remoteResolver = new NegativeCachingResolver(remoteResolver, repositories, negativeCache, session.isOffline());
+        }
+        return new CachedVersionResolver(remoteResolver, artifactCache, system, session,
+                (a)->getCurrentManifestVersion(a, installDir.resolve(ProsperoMetadataUtils.METADATA_DIR).resolve(ProsperoMetadataUtils.CURRENT_VERSION_FILE)),
+                temporaryLocalRepository);
     }
 
     private static String getCurrentManifestVersion(ArtifactCoordinate a, Path manifestVersionRecord) {
@@ -41,27 +41,51 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
-public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager, ChannelResolvable {
+public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager, ChannelResolvable, AutoCloseable {
     private static final Logger LOG = Logger.getLogger(ChannelMavenArtifactRepositoryManager.class);
     private static final String REQUIRE_CHANNEL_FOR_ALL_ARTIFACT = "org.wildfly.plugins.galleon.all.artifact.requires.channel.resolution";
+    private static final int DEFAULT_LOOKUP_THREADS = 5;
     private final ChannelSession channelSession;
     private final ChannelManifest manifest;
+    private final int lookupThreads;
+    // created on first use and reused by the following lookups
+    private ExecutorService executor;
+    // feature packs are inspected only once per session, opening their zips is expensive
+    private final Map<String, Boolean> fpRequireChannelCache = new ConcurrentHashMap<>();
 
     public ChannelMavenArtifactRepositoryManager(ChannelSession channelSession) {
-        this.channelSession = channelSession;
-        this.manifest = null;
+        this(channelSession, null, DEFAULT_LOOKUP_THREADS);
     }
 
     public ChannelMavenArtifactRepositoryManager(ChannelSession channelSession, ChannelManifest manifest) {
+        this(channelSession, manifest, DEFAULT_LOOKUP_THREADS);
+    }
+
+    /**
+     * @param channelSession - session used to resolve the artifacts
+     * @param manifest - manifest used instead of the channels to resolve the artifacts, {@code null} to use the channels
+     * @param lookupThreads - maximum number of channel streams looked up concurrently, usually matching the number
+     *                      of download threads
+     */
+    public ChannelMavenArtifactRepositoryManager(ChannelSession channelSession, ChannelManifest manifest, int lookupThreads) {
         this.channelSession = channelSession;
         this.manifest = manifest;
+        this.lookupThreads = Math.max(1, lookupThreads);
     }
 
     @Override
@@ -101,6 +125,18 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
     }
 
     private boolean fpRequireChannel(MavenArtifact artifact) throws Exception {
+        final String key = artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getExtension() + ":"
+                + artifact.getClassifier() + ":" + artifact.getVersion();
+        final Boolean cached = fpRequireChannelCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final boolean requireChannel = readFpRequireChannel(artifact);
+        fpRequireChannelCache.put(key, requireChannel);
+        return requireChannel;
+    }
+
+    private boolean readFpRequireChannel(MavenArtifact artifact) throws Exception {
         boolean requireChannel = false;
         if (artifact.getVersion() != null && artifact.getExtension() != null && artifact.getExtension().equalsIgnoreCase("zip")) {
             if (artifact.getVersion().equals(artifact.getExtension())) {
@@ -174,12 +210,15 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
 
         if (manifest == null) {
             // split the artifacts into requiring channels and not requiring channels
-            final List<MavenArtifact> artifactsRequiringChannels = artifacts.stream()
-                    .filter(a -> requiresChannel(a))
-                    .collect(Collectors.toList());
-            final List<MavenArtifact> artifactsNotRequiringChannels = artifacts.stream()
-                    .filter(a -> !requiresChannel(a))
-                    .collect(Collectors.toList());
+            final List<MavenArtifact> artifactsRequiringChannels = new ArrayList<>();
+            final List<MavenArtifact> artifactsNotRequiringChannels = new ArrayList<>();
+            for (MavenArtifact artifact : artifacts) {
+                if (requiresChannel(artifact)) {
+                    artifactsRequiringChannels.add(artifact);
+                } else {
+                    artifactsNotRequiringChannels.add(artifact);
+                }
+            }
             // bulk resolve artifacts requiring channels - if any fail, throw exception
             MavenArtifactMapper mapper = new MavenArtifactMapper(artifactsRequiringChannels);
             List<org.wildfly.channel.MavenArtifact> channelArtifacts = channelSession.resolveMavenArtifacts(mapper.toChannelArtifacts());
@@ -213,47 +252,153 @@ public class ChannelMavenArtifactRepositoryManager implements MavenRepoManager,
     }
 
     private void resolveArtifactsWithFallbackVersions(MavenArtifactMapper mapperNotRequiringChannels, List<ArtifactCoordinate> coordinates) throws MavenUniverseException {
-        List<org.wildfly.channel.MavenArtifact> channelArtifacts;
+        final NoStreamFoundException missingStream;
         try {
-            channelArtifacts = channelSession.resolveMavenArtifacts(coordinates);
-            if (LOG.isDebugEnabled()) {
-                channelArtifacts.forEach(a->LOG.debugf("Installing artifact [%s:%s:%s] from channel [%s]", a.getGroupId(), a.getArtifactId(), a.getVersion(), a.getChannelName().orElse("Unknown")));
-            }
-            mapperNotRequiringChannels.applyResolution(channelArtifacts);
+            applyChannelResolution(mapperNotRequiringChannels, channelSession.resolveMavenArtifacts(coordinates));
+            return;
         } catch (ArtifactTransferException e) {
             throw new MavenUniverseException(e.getLocalizedMessage(), e);
         } catch (NoStreamFoundException e) {
-            handleMissingStreams(mapperNotRequiringChannels, coordinates, e);
+            missingStream = e;
         } catch (UnresolvedMavenArtifactException e) {
             throw new MavenUniverseException(e.getLocalizedMessage(), e);
         }
+
+        // the channel resolution stops at the first missing stream, find all the missing streams in one pass
+        final Set<String> missingStreams = findMissingStreams(coordinates);
+        if (missingStreams.isEmpty()) {
+            throw new MavenUniverseException(missingStream.getLocalizedMessage(), missingStream);
+        }
+        final List<ArtifactCoordinate> channelCoordinates = new ArrayList<>();
+        final List<ArtifactCoordinate> directCoordinates = new ArrayList<>();
+        for (ArtifactCoordinate a : coordinates) {
+            if (missingStreams.contains(streamKey(a))) {
+                directCoordinates.add(a);
+            } else {
+                channelCoordinates.add(a);
+            }
+        }
+
+        if (!channelCoordinates.isEmpty()) {
+            try {
+                applyChannelResolution(mapperNotRequiringChannels, channelSession.resolveMavenArtifacts(channelCoordinates));
+            } catch (UnresolvedMavenArtifactException e) {
+                throw new MavenUniverseException(e.getLocalizedMessage(), e);
+            }
+        }
+        resolveMissingStreams(mapperNotRequiringChannels, directCoordinates, missingStream);
     }
 
-    private void handleMissingStreams(MavenArtifactMapper mapperNotRequiringChannels, List<ArtifactCoordinate> coordinates, UnresolvedMavenArtifactException e) throws MavenUniverseException {
-        final Set<ArtifactCoordinate> unresolvedArtifacts = e.getUnresolvedArtifacts();
-        // resolve unresolvedArtifacts directly
-        for (ArtifactCoordinate a : unresolvedArtifacts) {
-            final List<MavenArtifact> missingArtifacts = mapperNotRequiringChannels.get(
-                    new ArtifactCoordinate(a.getGroupId(), a.getArtifactId(),
-                            a.getExtension(), a.getClassifier(), a.getVersion()));
-            for (MavenArtifact missingArtifact : missingArtifacts) {
-                if (missingArtifact.getVersion() == null) {
-                    throw new MavenUniverseException(e.getLocalizedMessage(), e);
+    private void applyChannelResolution(MavenArtifactMapper mapper, List<org.wildfly.channel.MavenArtifact> channelArtifacts) {
+        if (LOG.isDebugEnabled()) {
+            channelArtifacts.forEach(a->LOG.debugf("Installing artifact [%s:%s:%s] from channel [%s]", a.getGroupId(), a.getArtifactId(), a.getVersion(), a.getChannelName().orElse("Unknown")));
+        }
+        mapper.applyResolution(channelArtifacts);
+    }
+
+    /*
+     * checks in parallel which of the coordinates are not provided by any channel
+     */
+    private Set<String> findMissingStreams(List<ArtifactCoordinate> coordinates) throws MavenUniverseException {
+        final Set<String> missing = new HashSet<>();
+        if (coordinates.size() <= 1 || lookupThreads == 1) {
+            for (ArtifactCoordinate a : coordinates) {
+                if (isMissingStream(a)) {
+                    missing.add(streamKey(a));
                 }
-                final org.wildfly.channel.MavenArtifact mavenArtifact = channelSession.resolveDirectMavenArtifact(missingArtifact.getGroupId(), missingArtifact.getArtifactId(),
-                        missingArtifact.getExtension(), missingArtifact.getClassifier(), missingArtifact.getVersion());
-                missingArtifact.setPath(mavenArtifact.getFile().toPath());
             }
+            return missing;
         }
-        // remove unresolvedArtifacts from the list of artifact to resolve
+        final ExecutorService executor = getExecutor();
+        final List<Future<Boolean>> lookups = new ArrayList<>(coordinates.size());
+        try {
+            for (ArtifactCoordinate a : coordinates) {
+                lookups.add(executor.submit(() -> isMissingStream(a)));
+            }
+            for (int i = 0; i < coordinates.size(); i++) {
+                if (lookups.get(i).get()) {
+                    missing.add(streamKey(coordinates.get(i)));
+                }
+            }
+            return missing;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MavenUniverseException(e.getLocalizedMessage(), e);
+        } catch (ExecutionException e) {
+            throw new MavenUniverseException(e.getCause().getLocalizedMessage(), e.getCause());
+        } finally {
+            lookups.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(lookupThreads, lookupThreads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        final Thread thread = new Thread(r, "channel-stream-lookup");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            // don't keep idle threads if the manager is not closed
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private boolean isMissingStream(ArtifactCoordinate a) {
+        try {
+            final String baseVersion = a.getVersion() == null || a.getVersion().isEmpty() ? null : a.getVersion();
+            channelSession.findLatestMavenArtifactVersion(a.getGroupId(), a.getArtifactId(), a.getExtension(), a.getClassifier(), baseVersion);
+            return false;
+        } catch (NoStreamFoundException e) {
+            return true;
+        }
+    }
+
+    /*
+     * resolves artifacts not provided by any channel directly, using the versions defined in the feature packs
+     */
+    private void resolveMissingStreams(MavenArtifactMapper mapperNotRequiringChannels, List<ArtifactCoordinate> coordinates,
+                                       NoStreamFoundException e) throws MavenUniverseException {
+        final List<MavenArtifact> missingArtifacts = new ArrayList<>();
         final List<ArtifactCoordinate> requests = new ArrayList<>();
+        final Set<String> processed = new HashSet<>();
         for (ArtifactCoordinate a : coordinates) {
-            if (!unresolvedArtifacts.contains(new ArtifactCoordinate(a.getGroupId(), a.getArtifactId(), a.getExtension(), a.getClassifier(), ""))) {
-                requests.add(a);
+            if (!processed.add(streamKey(a))) {
+                continue;
             }
+            for (MavenArtifact missingArtifact : mapperNotRequiringChannels.get(a)) {
+                if (missingArtifact.getVersion() == null) {
+                    throw new MavenUniverseException(e.getLocalizedMessage(), e);
+                }
+                missingArtifacts.add(missingArtifact);
+                requests.add(new ArtifactCoordinate(missingArtifact.getGroupId(), missingArtifact.getArtifactId(),
+                        missingArtifact.getExtension(), missingArtifact.getClassifier(), missingArtifact.getVersion()));
+            }
+        }
+
+        final List<org.wildfly.channel.MavenArtifact> resolved;
+        try {
+            resolved = channelSession.resolveDirectMavenArtifacts(requests);
+        } catch (ArtifactTransferException ex) {
+            throw new MavenUniverseException(ex.getLocalizedMessage(), ex);
         }
-        // try resolving the new list, handle missing artifacts (e.g. wrong versions)
-        resolveArtifactsWithFallbackVersions(mapperNotRequiringChannels, requests);
+        for (int i = 0; i < missingArtifacts.size(); i++) {
+            missingArtifacts.get(i).setPath(resolved.get(i).getFile().toPath());
+        }
+    }
+
+    private static String streamKey(ArtifactCoordinate a) {
+        return a.getGroupId() + ":" + a.getArtifactId() + ":" + a.getExtension() + ":" + a.getClassifier();
     }
 
     private List<ArtifactCoordinate> toResolvableCoordinates(List<ArtifactCoordinate> artifactCoordinates) throws MavenUniverseException {
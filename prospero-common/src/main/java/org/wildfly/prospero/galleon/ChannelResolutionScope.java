@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+import java.net.URL;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Results of channel metadata and version lookups shared by all the {@code ChannelSession}s created during a single
+ * operation.
+ *
+ * An operation, like an update, creates several {@code GalleonEnvironment}s - to find the updates, to build the update
+ * candidate, to analyze the feature packs. Each of them creates a new {@code ChannelSession} that resolves the channel
+ * manifests, blocklists and available artifact versions again. Wrapping their resolver factories using
+ * {@link #wrap(MavenVersionsResolver.Factory)} lets the later sessions reuse the results of the earlier ones.
+ *
+ * Lookups in file system repositories are not shared, as those repositories are cheap to query and can change during
+ * the operation.
+ *
+ * The results are only valid for the duration of the operation. The owner of the scope has to {@link #clear()} it when
+ * the operation finishes, so that the next operation sees the current content of the channels.
+ */
+public class ChannelResolutionScope {
+
+    private static final String FILE_PROTOCOL = "file:";
+
+    private final Map<String, URL> channelMetadata = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> versions = new ConcurrentHashMap<>();
+    private final Map<String, Optional<String>> metadataVersions = new ConcurrentHashMap<>();
+
+    /**
+     * wraps the {@code factory}, so that resolvers created by it share the results of the lookups within this scope
+     */
+    public MavenVersionsResolver.Factory wrap(MavenVersionsResolver.Factory factory) {
+        return repositories -> {
+            final MavenVersionsResolver resolver = factory.create(repositories);
+            if (isShareable(repositories)) {
+                return new ScopedVersionResolver(resolver, repositoryKey(repositories), this);
+            } else {
+                return resolver;
+            }
+        };
+    }
+
+    /**
+     * discards the results of all the lookups made within this scope
+     */
+    public void clear() {
+        channelMetadata.clear();
+        versions.clear();
+        metadataVersions.clear();
+    }
+
+    URL getChannelMetadata(String key) {
+        return channelMetadata.get(key);
+    }
+
+    void putChannelMetadata(String key, URL url) {
+        channelMetadata.put(key, url);
+    }
+
+    Map<String, Set<String>> getVersions() {
+        return versions;
+    }
+
+    Map<String, Optional<String>> getMetadataVersions() {
+        return metadataVersions;
+    }
+
+    private static boolean isShareable(Collection<Repository> repositories) {
+        if (repositories.isEmpty()) {
+            return false;
+        }
+        for (Repository repository : repositories) {
+            if (repository.getUrl() == null || repository.getUrl().startsWith(FILE_PROTOCOL)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String repositoryKey(Collection<Repository> repositories) {
+        return repositories.stream()
+                .map(Repository::getUrl)
+                .collect(Collectors.joining(","));
+    }
+
+    static String key(String repositoryKey, List<String> parts) {
+        return repositoryKey + "|" + parts.stream()
+                .map(p -> p == null ? "" : p)
+                .collect(Collectors.joining(":"));
+    }
+}
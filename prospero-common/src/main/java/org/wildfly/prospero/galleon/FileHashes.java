@@ -0,0 +1,159 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.galleon.util.HashUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Computes SHA-1 hashes of files compatible with Galleon {@link HashUtils}.
+ *
+ * {@code HashUtils} shares a single digest and can only hash one file at a time. This class uses a digest per thread,
+ * allowing files to be hashed in parallel. The number of threads used is limited by {@code THREADS_PROPERTY}.
+ */
+public final class FileHashes {
+
+    /**
+     * system property limiting the number of threads used to hash files in parallel.
+     */
+    public static final String THREADS_PROPERTY = "org.wildfly.prospero.hash.threads";
+    private static final int DEFAULT_MAX_THREADS = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private FileHashes() {
+    }
+
+    /**
+     * hashes the {@code path}. The result is the same as {@link HashUtils#hashFile(Path)}. Directories are hashed
+     * using {@code HashUtils}.
+     *
+     * @param path
+     * @return hex encoded SHA-1 hash of the file
+     * @throws IOException
+     */
+    public static String hashFile(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            return HashUtils.bytesToHexString(HashUtils.hashPath(path));
+        }
+        final MessageDigest digest = DIGEST.get();
+        digest.reset();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream is = Files.newInputStream(path)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HashUtils.bytesToHexString(digest.digest());
+    }
+
+    /**
+     * hashes the {@code paths} in parallel. Paths found in {@code knownHashes} are not hashed again.
+     *
+     * @param paths - files to hash
+     * @param knownHashes - already known hashes of some of the files
+     * @return hashes of the files, in the same order as {@code paths}
+     * @throws IOException if any of the files cannot be hashed
+     */
+    public static Map<Path, String> hashAll(Collection<Path> paths, Map<Path, String> knownHashes) throws IOException {
+        final Map<Path, String> hashes = new LinkedHashMap<>();
+        final List<Path> toHash = new ArrayList<>();
+        for (Path path : paths) {
+            final String known = knownHashes.get(path);
+            hashes.put(path, known);
+            if (known == null) {
+                toHash.add(path);
+            }
+        }
+
+        final int threads = Math.min(toHash.size(), maxThreads());
+        if (threads <= 1) {
+            for (Path path : toHash) {
+                hashes.put(path, hashFile(path));
+            }
+            return hashes;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<String>> futures = new ArrayList<>(toHash.size());
+            for (Path path : toHash) {
+                futures.add(executor.submit(() -> hashFile(path)));
+            }
+            for (int i = 0; i < toHash.size(); i++) {
+                hashes.put(toHash.get(i), futures.get(i).get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while hashing files", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return hashes;
+    }
+
+    /**
+     * hashes the {@code paths} in parallel.
+     *
+     * @see #hashAll(Collection, Map)
+     */
+    public static Map<Path, String> hashAll(Collection<Path> paths) throws IOException {
+        return hashAll(paths, Collections.emptyMap());
+    }
+
+    static int maxThreads() {
+        final int configured = Integer.getInteger(THREADS_PROPERTY, -1);
+        if (configured > 0) {
+            return configured;
+        }
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_THREADS));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Places files at new locations without copying their content where the file system allows it.
+ */
+public final class FileLinks {
+    private static final Logger LOG = Logger.getLogger(FileLinks.class);
+
+    /**
+     * the way a file was placed at the target location
+     */
+    public enum Method {
+        HARDLINK,
+        SYMLINK,
+        COPY
+    }
+
+    private FileLinks() {
+    }
+
+    /**
+     * places the {@code source} file at {@code target}, replacing any existing file. A hardlink is attempted first,
+     * then a symbolic link if {@code allowSymlink} is set, and the file is copied if neither is possible.
+     *
+     * Symbolic links follow any later change to the {@code source} path, so they should only be used if the
+     * {@code target} doesn't outlive the {@code source}.
+     *
+     * @param source - existing file
+     * @param target - location to place the file at
+     * @param allowSymlink - whether symbolic links can be used
+     * @return the method used to place the file
+     * @throws IOException if the file cannot be copied
+     */
+    public static Method linkOrCopy(Path source, Path target, boolean allowSymlink) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            return Method.HARDLINK;
+        }
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+            return Method.HARDLINK;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            if (LOG.isTraceEnabled()) {
+                LOG.tracef(e, "Unable to create a hardlink from %s to %s", target, source);
+            }
+        }
+        if (allowSymlink) {
+            try {
+                Files.createSymbolicLink(target, source.toAbsolutePath());
+                return Method.SYMLINK;
+            } catch (UnsupportedOperationException | IOException e) {
+                if (LOG.isTraceEnabled()) {
+                    LOG.tracef(e, "Unable to create a symbolic link from %s to %s", target, source);
+                }
+            }
+        }
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        return Method.COPY;
+    }
+}
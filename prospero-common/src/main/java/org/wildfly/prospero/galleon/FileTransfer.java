@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.galleon;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Strategy placing files from one directory tree in another.
+ *
+ * Copying file content is only necessary if the source and target are on different file systems. Otherwise, the
+ * file can be hardlinked, which only creates a new directory entry. Use {@link #between(Path, Path)} to select the
+ * strategy for a pair of directories.
+ *
+ * The placed files may share content with the source, so the target files have to be replaced rather than modified
+ * in place.
+ */
+@FunctionalInterface
+public interface FileTransfer {
+
+    /**
+     * system property selecting the strategy - {@code auto} (default) links files if possible, {@code copy} always
+     * copies the files.
+     */
+    String TRANSFER_PROPERTY = "org.wildfly.prospero.apply.transfer";
+
+    /**
+     * copies the file content.
+     */
+    FileTransfer COPY = (source, target) -> {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        return FileLinks.Method.COPY;
+    };
+
+    /**
+     * places the {@code source} at {@code target}, replacing any existing file.
+     *
+     * @return the method used to place the file
+     * @throws IOException if the file cannot be placed
+     */
+    FileLinks.Method transfer(Path source, Path target) throws IOException;
+
+    /**
+     * hardlinks the files, copying them if a link cannot be created. Once a link fails, the remaining files are
+     * copied without trying to link them.
+     */
+    static FileTransfer hardlink() {
+        return new FileTransfer() {
+            private volatile boolean linksSupported = true;
+
+            @Override
+            public FileLinks.Method transfer(Path source, Path target) throws IOException {
+                if (!linksSupported) {
+                    return COPY.transfer(source, target);
+                }
+                final FileLinks.Method method = FileLinks.linkOrCopy(source, target, false);
+                if (method != FileLinks.Method.HARDLINK) {
+                    linksSupported = false;
+                }
+                return method;
+            }
+        };
+    }
+
+    /**
+     * selects the strategy for placing files from {@code sourceDir} in {@code targetDir}. The files are linked if
+     * both directories are on the same file store, unless {@code TRANSFER_PROPERTY} is set to {@code copy}.
+     *
+     * @param sourceDir - existing directory the files are taken from
+     * @param targetDir - directory the files are placed in. If it doesn't exist, its closest existing parent is used.
+     * @return the selected strategy
+     */
+    static FileTransfer between(Path sourceDir, Path targetDir) {
+        if ("copy".equalsIgnoreCase(System.getProperty(TRANSFER_PROPERTY, "auto"))) {
+            return COPY;
+        }
+        Path existingTarget = targetDir.toAbsolutePath();
+        while (existingTarget != null && !Files.exists(existingTarget)) {
+            existingTarget = existingTarget.getParent();
+        }
+        try {
+            if (existingTarget != null
+                    && Files.getFileStore(sourceDir).equals(Files.getFileStore(existingTarget))) {
+                return hardlink();
+            }
+        } catch (IOException e) {
+            Logger.getLogger(FileTransfer.class).debugf(e, "Unable to compare file stores of %s and %s",
+                    sourceDir, targetDir);
+        }
+        return COPY;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.galleon;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.ProvisioningException;
+import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.diff.FsEntry;
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.galleon.util.LayoutUtils;
+import org.jboss.logging.Logger;
+
+/**
+ * Computes the {@link FsDiff} of user changes in a provisioned server from the hashes recorded in
+ * {@code .galleon/hashes}.
+ *
+ * The result is the same as {@code ProvisioningManager#getFsDiff()} for a server with recorded hashes, without the
+ * need to create the provisioning manager. The server is scanned in parallel, one task per directory, and the files
+ * recorded by Galleon are hashed by the task that found them. Servers without recorded hashes need to be
+ * re-provisioned to find the changes, which requires the full {@link GalleonEnvironment}.
+ */
+public final class FsDiffs {
+
+    private static final Logger LOG = Logger.getLogger(FsDiffs.class);
+
+    private FsDiffs() {
+    }
+
+    /**
+     * compares the files of the server at {@code serverRoot} with the hashes recorded when it was provisioned.
+     *
+     * @param serverRoot - root of a provisioned server
+     * @return the changes in the server, or empty if the server has no recorded hashes
+     * @throws ProvisioningException if the server files cannot be read
+     */
+    public static Optional<FsDiff> fromRecordedHashes(Path serverRoot) throws ProvisioningException {
+        final Optional<RecordedHashes> recordedHashes = RecordedHashes.read(serverRoot);
+        if (recordedHashes.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final long start = System.currentTimeMillis();
+        final FsEntry original = recordedTree(LayoutUtils.getHashesDir(serverRoot), recordedHashes.get());
+        final FsEntry actual = new HashedEntry(null, serverRoot);
+        final ForkJoinPool pool = new ForkJoinPool(FileHashes.maxThreads());
+        try {
+            pool.invoke(new ScanTask(actual, "", recordedHashes.get()));
+        } catch (UncheckedIOException e) {
+            throw new ProvisioningException("Failed to read the files of " + serverRoot, e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        final FsDiff diff = FsDiff.diff(original, actual);
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Found changes in %s in %d ms", serverRoot, System.currentTimeMillis() - start);
+        }
+        return Optional.of(diff);
+    }
+
+    private static FsEntry recordedTree(Path hashesDir, RecordedHashes hashes) {
+        // same structure as the tree read by Galleon - directories point to the hashes folder
+        final FsEntry root = new FsEntry(null, hashesDir);
+        final Map<String, FsEntry> directories = new HashMap<>();
+        directories.put("", root);
+        for (String dir : hashes.getDirectories()) {
+            final String parent = parentOf(dir.substring(0, dir.length() - 1));
+            directories.put(dir, new FsEntry(directories.get(parent), hashesDir.resolve(dir)));
+        }
+        for (String file : hashes.getFiles()) {
+            final String parent = parentOf(file);
+            new FsEntry(directories.get(parent), file.substring(parent.length()),
+                    HashUtils.hexStringToByteArray(hashes.getHash(file)));
+        }
+        return root;
+    }
+
+    private static String parentOf(String path) {
+        final int index = path.lastIndexOf('/');
+        return index < 0 ? "" : path.substring(0, index + 1);
+    }
+
+    /*
+     * Lists children of a single directory, hashes the recorded files and forks a task per child directory.
+     * Each task only adds children to its own entry.
+     */
+    private static class ScanTask extends RecursiveAction {
+        private final FsEntry dir;
+        private final String relativePath;
+        private final RecordedHashes hashes;
+
+        ScanTask(FsEntry dir, String relativePath, RecordedHashes hashes) {
+            this.dir = dir;
+            this.relativePath = relativePath;
+            this.hashes = hashes;
+        }
+
+        @Override
+        protected void compute() {
+            final List<ScanTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(dir.getPath())) {
+                for (Path child : children) {
+                    final String name = child.getFileName().toString();
+                    if (isFiltered(name)) {
+                        continue;
+                    }
+                    final HashedEntry entry = new HashedEntry(dir, child);
+                    if (entry.isDir()) {
+                        subtasks.add(new ScanTask(entry, relativePath + name + "/", hashes));
+                    } else if (hashes.getHash(relativePath + name) != null) {
+                        // only files present in both trees are compared by FsDiff
+                        entry.hash = HashUtils.hexStringToByteArray(FileHashes.hashFile(child));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subtasks);
+        }
+
+        private boolean isFiltered(String name) {
+            // matches the filters used by Galleon when detecting user changes
+            return (relativePath.isEmpty() && name.equals(Constants.PROVISIONED_STATE_DIR))
+                    || name.endsWith(Constants.DOT_GLNEW);
+        }
+    }
+
+    /*
+     * FsEntry using a hash computed in parallel. Galleon computes the hashes one by one using a shared digest.
+     */
+    private static class HashedEntry extends FsEntry {
+        private byte[] hash;
+
+        HashedEntry(FsEntry parent, Path p) {
+            super(parent, p);
+        }
+
+        @Override
+        public byte[] getHash() throws ProvisioningException {
+            return hash != null ? hash : super.getHash();
+        }
+    }
+}
@@ -45,6 +45,7 @@ import org.wildfly.prospero.api.exceptions.MetadataException;
 import org.wildfly.prospero.api.exceptions.UnresolvedChannelMetadataException;
 import org.wildfly.prospero.api.exceptions.OperationException;
 import org.wildfly.prospero.metadata.ManifestVersionRecord;
+import org.wildfly.prospero.wfchannel.ArtifactCacheStatistics;
 import org.wildfly.prospero.wfchannel.MavenSessionManager;
 
 import java.io.FileNotFoundException;
@@ -76,12 +77,14 @@ public class GalleonEnvironment implements AutoCloseable {
     private final MavenRepoManager repositoryManager;
     private final ChannelSession channelSession;
     private final List<Channel> channels;
+    private final MavenSessionManager mavenSessionManager;
     private Path restoreManifestPath = null;
 
     private boolean resetGalleonLineEndings = true;
 
     private GalleonEnvironment(Builder builder) throws ProvisioningException, MetadataException, ChannelDefinitionException, UnresolvedChannelMetadataException {
         Optional<Console> console = Optional.ofNullable(builder.console);
+        mavenSessionManager = builder.mavenSessionManager;
         Optional<ChannelManifest> restoreManifest = Optional.ofNullable(builder.manifest);
         if (restoreManifest.isPresent()) {
             if (LOG.isDebugEnabled()) {
@@ -103,11 +106,16 @@ public class GalleonEnvironment implements AutoCloseable {
         final Path sourceServerPath = builder.sourceServerPath == null? builder.installDir:builder.sourceServerPath;
         MavenVersionsResolver.Factory factory;
         try {
-            factory = new CachedVersionResolverFactory(new VersionResolverFactory(system, session, MavenProxyHandler::addProxySettings), sourceServerPath, system, session);
+            factory = new CachedVersionResolverFactory(new VersionResolverFactory(system, session, MavenProxyHandler::addProxySettings), sourceServerPath, system, session,
+                    builder.mavenSessionManager.isTemporaryProvisioningRepo(),
+                    VersionCache.configured(builder.mavenSessionManager.isRefresh()).orElse(null),
+                    NegativeResolutionCache.configured(builder.mavenSessionManager.isRefresh()).orElse(null));
         } catch (IOException e) {
             ProsperoLogger.ROOT_LOGGER.debug("Unable to read artifact cache, falling back to Maven resolver.", e);
             factory = new VersionResolverFactory(system, session, MavenProxyHandler::addProxySettings);
         }
+        // reuse channel metadata and versions resolved by earlier phases of the operation
+        factory = builder.mavenSessionManager.getResolutionScope().wrap(factory);
 
         channelSession = initChannelSession(session, factory);
 
@@ -123,9 +131,11 @@ public class GalleonEnvironment implements AutoCloseable {
             repositoryManager = new MavenArtifactDirectResolverRepositoryManager(channelSession);
         } else {
             if (restoreManifest.isEmpty()) {
-                repositoryManager = new ChannelMavenArtifactRepositoryManager(channelSession);
+                repositoryManager = new ChannelMavenArtifactRepositoryManager(channelSession, null,
+                        builder.mavenSessionManager.getDownloadThreads());
             } else {
-                repositoryManager = new ChannelMavenArtifactRepositoryManager(channelSession, restoreManifest.get());
+                repositoryManager = new ChannelMavenArtifactRepositoryManager(channelSession, restoreManifest.get(),
+                        builder.mavenSessionManager.getDownloadThreads());
             }
         }
 
@@ -228,6 +238,14 @@ public class GalleonEnvironment implements AutoCloseable {
             FileUtils.deleteQuietly(restoreManifestPath.toFile());
         }
         provisioningManager.close();
+        if (repositoryManager instanceof ChannelMavenArtifactRepositoryManager) {
+            ((ChannelMavenArtifactRepositoryManager) repositoryManager).close();
+        }
+        final ArtifactCacheStatistics statistics = mavenSessionManager.getCacheStatistics();
+        if (statistics.getHits() + statistics.getMisses() + statistics.getInstalled() > 0) {
+            ProsperoLogger.ROOT_LOGGER.artifactCacheUsage(statistics.getHits(), statistics.getMisses(),
+                    statistics.getInstalled(), statistics.getInstallTimeMillis());
+        }
     }
 
     /*
@@ -26,7 +26,6 @@ import org.jboss.galleon.layout.FeaturePackLayout;
 import org.jboss.galleon.layout.ProvisioningLayout;
 import org.jboss.galleon.layout.ProvisioningLayoutFactory;
 import org.jboss.galleon.spec.FeaturePackPlugin;
-import org.jboss.galleon.util.HashUtils;
 import org.jboss.logging.Logger;
 import org.wildfly.channel.Channel;
 import org.wildfly.channel.MavenArtifact;
@@ -36,10 +35,14 @@ import org.wildfly.prospero.wfchannel.MavenSessionManager;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class GalleonFeaturePackAnalyzer {
@@ -89,31 +92,35 @@ public class GalleonFeaturePackAnalyzer {
             }
 
             final ArtifactCache artifactCache = ArtifactCache.getInstance(installedDir);
+            final List<MavenArtifact> artifacts = new ArrayList<>();
             for (String pluginGav : pluginGavs) {
                 final String[] pluginLoc = pluginGav.split(":");
                 final MavenArtifact jar = galleonEnv.getChannelSession().resolveMavenArtifact(pluginLoc[0], pluginLoc[1], "jar", null, null);
-                artifactCache.cache(jar);
+                artifacts.add(jar);
             }
 
             for (String fp : fps) {
                 // resolve the artifact
                 final String[] fpLoc = fp.split(":");
                 final MavenArtifact mavenArtifact = galleonEnv.getChannelSession().resolveMavenArtifact(fpLoc[0], fpLoc[1], "zip", null, null);
-                // cache it in the
-                artifactCache.cache(mavenArtifact);
+                artifacts.add(mavenArtifact);
             }
 
             try {
                 // cache wildfly-config-gen as it's not added in galleon-plugin - TODO: remove when fixed in galleon-plugins
                 final MavenArtifact mavenArtifact = galleonEnv.getChannelSession().resolveMavenArtifact("org.wildfly.galleon-plugins", "wildfly-config-gen", "jar", null, null);
-                artifactCache.cache(mavenArtifact);
+                artifacts.add(mavenArtifact);
             } catch (UnresolvedMavenArtifactException e) {
                 // ignore - wildfly-config-gen has not been defined
                 LOG.isDebugEnabled();
                 LOG.debug("Unable to find wildfly-config-get artifact", e);
             }
 
-            updateHashes(installedDir);
+            // record all the artifacts in one batch
+            artifactCache.cacheAll(artifacts);
+            artifactCache.updateIndex();
+
+            updateHashes(installedDir, artifactCache);
         } finally {
             if (layout != null) {
                 layout.close();
@@ -128,17 +135,42 @@ public class GalleonFeaturePackAnalyzer {
         }
     }
 
-    private void updateHashes(Path installedDir) throws IOException {
+    /**
+     * records the hashes of the files in the {@code CACHE_FOLDER} of {@code installedDir} in the Galleon hashes of
+     * the installation. The binary index of the cache is not recorded.
+     *
+     * @param installedDir - installation containing the cache
+     * @param artifactCache - the cache of the installation
+     * @throws IOException if the files cannot be hashed or the hashes cannot be written
+     */
+    public static void updateHashes(Path installedDir, ArtifactCache artifactCache) throws IOException {
         final Path hashesFile = installedDir.resolve(Constants.PROVISIONED_STATE_DIR).resolve(Constants.HASHES)
                 .resolve(ArtifactCache.CACHE_FOLDER).resolve(Constants.HASHES);
         final Path cachesDir = installedDir.resolve(ArtifactCache.CACHE_FOLDER);
 
-        StringBuilder sb = new StringBuilder();
+        final List<Path> files = new ArrayList<>();
         for (File file : cachesDir.toFile().listFiles()) {
-            sb.append(file.getName()).append(System.lineSeparator());
-            sb.append(HashUtils.bytesToHexString(HashUtils.hashPath(file.toPath()))).append(System.lineSeparator());
+            // the binary index is derived from the cache descriptor and rewritten when the cache changes
+            if (!file.getName().startsWith(ArtifactCacheIndex.INDEX_FILENAME)) {
+                files.add(file.toPath());
+            }
+        }
+        // the cached artifacts have been hashed when they were recorded, only new or changed files need to be hashed
+        final Map<Path, String> hashes = FileHashes.hashAll(files, artifactCache.getKnownHashes(files));
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Path, String> hash : hashes.entrySet()) {
+            sb.append(hash.getKey().getFileName()).append(System.lineSeparator());
+            sb.append(hash.getValue()).append(System.lineSeparator());
+        }
+
+        final Path tempFile = hashesFile.resolveSibling(hashesFile.getFileName() + ".tmp");
+        Files.writeString(tempFile, sb.toString());
+        try {
+            Files.move(tempFile, hashesFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, hashesFile, StandardCopyOption.REPLACE_EXISTING);
         }
-        Files.writeString(hashesFile, sb.toString());
     }
 
     /**
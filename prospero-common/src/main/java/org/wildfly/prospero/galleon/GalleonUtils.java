@@ -33,6 +33,7 @@ import org.jboss.galleon.xml.XmlParsers;
 import org.jboss.logging.Logger;
 import org.wildfly.channel.UnresolvedMavenArtifactException;
 import org.wildfly.prospero.ProsperoLogger;
+import org.wildfly.prospero.wfchannel.MavenSessionManager;
 
 import java.io.File;
 import java.io.IOException;
@@ -56,6 +57,7 @@ public class GalleonUtils {
 
     public static final String MAVEN_REPO_LOCAL = "maven.repo.local";
     protected static final String JBOSS_MODULES_SETTINGS_XML_URL = "jboss.modules.settings.xml.url";
+    protected static final String JBOSS_MODULES_REMOTE_REPOSITORIES = "remote.maven.repo";
     public static final String JBOSS_FORK_EMBEDDED_PROPERTY = "jboss-fork-embedded";
     public static final String JBOSS_FORK_EMBEDDED_VALUE = "true";
     public static final String JBOSS_BULK_RESOLVE_PROPERTY = "jboss-bulk-resolve-artifacts";
@@ -130,6 +132,19 @@ public class GalleonUtils {
         substitutedProperties.put(MAVEN_REPO_LOCAL, System.getProperty(MAVEN_REPO_LOCAL));
         System.setProperty(MAVEN_REPO_LOCAL, localRepository.toString());
 
+        // artifacts resolved from read-only local repositories are not copied into the local repository,
+        // let jboss-modules of the embedded server find them in the read-only repositories
+        final List<Path> readOnlyRepositories = MavenSessionManager.readOnlyRepositories(localRepository);
+        if (!readOnlyRepositories.isEmpty()) {
+            final String remoteRepositories = System.getProperty(JBOSS_MODULES_REMOTE_REPOSITORIES);
+            substitutedProperties.put(JBOSS_MODULES_REMOTE_REPOSITORIES, remoteRepositories);
+            final String readOnlyUrls = readOnlyRepositories.stream()
+                    .map(p -> p.toUri().toString())
+                    .collect(Collectors.joining(","));
+            System.setProperty(JBOSS_MODULES_REMOTE_REPOSITORIES,
+                    remoteRepositories == null || remoteRepositories.isBlank() ? readOnlyUrls : remoteRepositories + "," + readOnlyUrls);
+        }
+
         if (System.getProperty(MODULE_PATH_PROPERTY) != null) {
             substitutedProperties.put(MODULE_PATH_PROPERTY, System.getProperty(MODULE_PATH_PROPERTY));
             System.clearProperty(MODULE_PATH_PROPERTY);
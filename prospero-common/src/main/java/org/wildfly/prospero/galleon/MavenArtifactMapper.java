@@ -23,6 +23,7 @@ import org.wildfly.prospero.ProsperoLogger;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
@@ -30,6 +31,10 @@ import java.util.stream.Collectors;
 
 public class MavenArtifactMapper {
 
+    private static final String ZIP_EXTENSION = "zip";
+    private static final Comparator<org.jboss.galleon.universe.maven.MavenArtifact> ARCHIVES_FIRST =
+            Comparator.comparing(a -> !ZIP_EXTENSION.equals(a.getExtension()));
+
     private final Collection<org.jboss.galleon.universe.maven.MavenArtifact> galleonArtifacts;
     private final HashMap<String, List<org.jboss.galleon.universe.maven.MavenArtifact>> artifactMap = new HashMap<>();
 
@@ -54,8 +59,15 @@ public class MavenArtifactMapper {
         return value ==null?"": value;
     }
 
+    /**
+     * maps the artifacts to channel coordinates. Feature pack archives are listed first, so that their downloads
+     * are scheduled before the downloads of the other artifacts.
+     *
+     * @return
+     */
     public List<ArtifactCoordinate> toChannelArtifacts() {
         return galleonArtifacts.stream()
+                .sorted(ARCHIVES_FIRST)
                 .map(a -> new ArtifactCoordinate(a.getGroupId(), a.getArtifactId(), a.getExtension(), a.getClassifier(), a.getVersion()==null?"":a.getVersion()))
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.jboss.logging.Logger;
+import org.wildfly.channel.ArtifactCoordinate;
+import org.wildfly.channel.ArtifactTransferException;
+import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fails resolution of artifacts that recently failed to resolve from all the repositories without querying
+ * the repositories again. Failed resolutions are recorded in the {@code NegativeResolutionCache} for each
+ * repository that has been attempted.
+ *
+ * Only failures where every attempted repository reported the artifact as not found are recorded. Failures to reach
+ * the repositories (e.g. timeouts, server or authentication errors) are not recorded, as the artifact may exist.
+ * Nothing is recorded in offline mode, where the repositories are not queried at all.
+ */
+class NegativeCachingResolver implements MavenVersionsResolver {
+    private static final Logger LOG = Logger.getLogger(NegativeCachingResolver.class);
+
+    private final MavenVersionsResolver delegate;
+    private final List<Repository> repositories;
+    private final NegativeResolutionCache cache;
+    private final boolean offline;
+
+    NegativeCachingResolver(MavenVersionsResolver delegate, Collection<Repository> repositories, NegativeResolutionCache cache,
+                            boolean offline) {
+        this.delegate = delegate;
+        this.repositories = new ArrayList<>(repositories);
+        this.cache = cache;
+        this.offline = offline;
+    }
+
+    @Override
+    public Set<String> getAllVersions(String groupId, String artifactId, String extension, String classifier) {
+        return delegate.getAllVersions(groupId, artifactId, extension, classifier);
+    }
+
+    @Override
+    public File resolveArtifact(String groupId, String artifactId, String extension, String classifier, String version) throws ArtifactTransferException {
+        final ArtifactCoordinate coordinate = new ArtifactCoordinate(groupId, artifactId, extension, classifier, version);
+        failIfUnresolvable(List.of(coordinate));
+        try {
+            return delegate.resolveArtifact(groupId, artifactId, extension, classifier, version);
+        } catch (ArtifactTransferException e) {
+            record(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<File> resolveArtifacts(List<ArtifactCoordinate> coordinates) throws ArtifactTransferException {
+        failIfUnresolvable(coordinates);
+        try {
+            return delegate.resolveArtifacts(coordinates);
+        } catch (ArtifactTransferException e) {
+            record(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<URL> resolveChannelMetadata(List<? extends ChannelMetadataCoordinate> coordinates) throws ArtifactTransferException {
+        final List<ArtifactCoordinate> mavenCoordinates = new ArrayList<>();
+        for (ChannelMetadataCoordinate coordinate : coordinates) {
+            if (coordinate.getUrl() == null) {
+                // manifests without a version resolve the latest available version
+                final String version = coordinate.getVersion() == null ? "" : coordinate.getVersion();
+                mavenCoordinates.add(new ArtifactCoordinate(coordinate.getGroupId(), coordinate.getArtifactId(),
+                        coordinate.getExtension(), coordinate.getClassifier(), version));
+            }
+        }
+        failIfUnresolvable(mavenCoordinates);
+        try {
+            return delegate.resolveChannelMetadata(coordinates);
+        } catch (ArtifactTransferException e) {
+            record(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public String getMetadataReleaseVersion(String groupId, String artifactId) {
+        return delegate.getMetadataReleaseVersion(groupId, artifactId);
+    }
+
+    @Override
+    public String getMetadataLatestVersion(String groupId, String artifactId) {
+        return delegate.getMetadataLatestVersion(groupId, artifactId);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void failIfUnresolvable(List<ArtifactCoordinate> coordinates) {
+        if (repositories.isEmpty()) {
+            return;
+        }
+        final Set<ArtifactCoordinate> unresolvable = new LinkedHashSet<>();
+        for (ArtifactCoordinate coordinate : coordinates) {
+            if (isUnresolvable(coordinate)) {
+                unresolvable.add(coordinate);
+            }
+        }
+        if (!unresolvable.isEmpty()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Skipping resolution of %s, it recently failed in all repositories", unresolvable);
+            }
+            throw new ArtifactTransferException("Unable to resolve artifacts " + unresolvable
+                    + ", the resolution recently failed in all the repositories",
+                    unresolvable, new HashSet<>(repositories));
+        }
+    }
+
+    private boolean isUnresolvable(ArtifactCoordinate coordinate) {
+        for (Repository repository : repositories) {
+            if (!cache.isUnresolvable(repository.getUrl(), coordinate.getGroupId(), coordinate.getArtifactId(),
+                    coordinate.getExtension(), coordinate.getClassifier(), coordinate.getVersion())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void record(ArtifactTransferException e) {
+        if (offline || !isNotFound(e)) {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Not recording failed resolution, the artifacts were not reported as missing", e);
+            }
+            return;
+        }
+        final Collection<Repository> attempted = e.getAttemptedRepositories() == null || e.getAttemptedRepositories().isEmpty()
+                ? repositories : e.getAttemptedRepositories();
+        if (e.getUnresolvedArtifacts() == null) {
+            return;
+        }
+        for (ArtifactCoordinate coordinate : e.getUnresolvedArtifacts()) {
+            for (Repository repository : attempted) {
+                cache.recordUnresolvable(repository.getUrl(), coordinate.getGroupId(), coordinate.getArtifactId(),
+                        coordinate.getExtension(), coordinate.getClassifier(), coordinate.getVersion());
+            }
+        }
+    }
+
+    /*
+     * checks that the resolution failed because all the repositories reported the unresolved artifacts as missing
+     */
+    static boolean isNotFound(ArtifactTransferException e) {
+        Throwable cause = e.getCause();
+        while (cause != null && !(cause instanceof ArtifactResolutionException)) {
+            cause = cause.getCause();
+        }
+        if (cause == null) {
+            return false;
+        }
+        boolean missing = false;
+        for (ArtifactResult result : ((ArtifactResolutionException) cause).getResults()) {
+            if (result.isResolved()) {
+                continue;
+            }
+            if (result.getExceptions().isEmpty()) {
+                return false;
+            }
+            for (Exception exception : result.getExceptions()) {
+                if (!(exception instanceof ArtifactNotFoundException)) {
+                    return false;
+                }
+            }
+            missing = true;
+        }
+        return missing;
+    }
+}
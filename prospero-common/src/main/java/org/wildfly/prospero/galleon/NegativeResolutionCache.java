@@ -0,0 +1,177 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers artifacts that could not be resolved from a repository, so that they are not requested from the same
+ * repository again until the TTL expires.
+ *
+ * The cache is kept in memory for a single maven session. If {@code PERSISTENT_PROPERTY} is set, the failures are also
+ * recorded in a journal in the {@link VersionCache} directory and shared with later operations. Failures of file system
+ * repositories are never persisted.
+ */
+public class NegativeResolutionCache {
+    private static final Logger LOG = Logger.getLogger(NegativeResolutionCache.class);
+
+    /**
+     * system property specifying for how many seconds a failed resolution is remembered. Setting it to 0 disables the cache.
+     */
+    public static final String TTL_PROPERTY = "org.wildfly.prospero.negative-cache.ttl";
+    /**
+     * system property enabling persisting the failed resolutions between operations.
+     */
+    public static final String PERSISTENT_PROPERTY = "org.wildfly.prospero.negative-cache.persistent";
+    static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    static final String JOURNAL_FILENAME = "unresolved.journal";
+    private static final String SEPARATOR = " ";
+    private static final String FILE_PROTOCOL = "file:";
+
+    private final Duration ttl;
+    private final boolean refresh;
+    private final Path journal;
+    private final Clock clock;
+    private final Map<String, Long> failures = new ConcurrentHashMap<>();
+
+    /**
+     * creates a cache configured by the system properties
+     *
+     * @param refresh - if {@code true}, failures recorded by earlier operations are ignored
+     * @return empty {@code Optional} if the cache is disabled
+     */
+    public static Optional<NegativeResolutionCache> configured(boolean refresh) {
+        final Duration ttl = Duration.ofSeconds(Long.getLong(TTL_PROPERTY, DEFAULT_TTL.getSeconds()));
+        if (ttl.isZero() || ttl.isNegative()) {
+            return Optional.empty();
+        }
+        final Path journal = Boolean.getBoolean(PERSISTENT_PROPERTY) ? VersionCache.location().resolve(JOURNAL_FILENAME) : null;
+        return Optional.of(new NegativeResolutionCache(ttl, refresh, journal));
+    }
+
+    /**
+     * @param journal - file to persist the failures in or {@code null} if the failures should only be kept in memory
+     */
+    public NegativeResolutionCache(Duration ttl, boolean refresh, Path journal) {
+        this(ttl, refresh, journal, Clock.systemUTC());
+    }
+
+    NegativeResolutionCache(Duration ttl, boolean refresh, Path journal, Clock clock) {
+        this.ttl = ttl;
+        this.refresh = refresh;
+        this.journal = journal;
+        this.clock = clock;
+        if (journal != null && !refresh) {
+            load();
+        }
+    }
+
+    /**
+     * @return {@code true} if the artifact recently failed to resolve from the repository
+     */
+    public boolean isUnresolvable(String repositoryUrl, String groupId, String artifactId, String extension,
+                                  String classifier, String version) {
+        final Long timestamp = failures.get(key(repositoryUrl, groupId, artifactId, extension, classifier, version));
+        return timestamp != null && !isExpired(timestamp);
+    }
+
+    /**
+     * records that the artifact failed to resolve from the repository
+     */
+    public void recordUnresolvable(String repositoryUrl, String groupId, String artifactId, String extension,
+                                   String classifier, String version) {
+        final String key = key(repositoryUrl, groupId, artifactId, extension, classifier, version);
+        final long timestamp = clock.millis();
+        failures.put(key, timestamp);
+        if (journal != null && !repositoryUrl.startsWith(FILE_PROTOCOL)) {
+            append(timestamp + SEPARATOR + key);
+        }
+    }
+
+    private boolean isExpired(long timestamp) {
+        final long now = clock.millis();
+        return now - timestamp > ttl.toMillis() || timestamp > now;
+    }
+
+    private synchronized void append(String line) {
+        try {
+            Files.createDirectories(journal.getParent());
+            Files.writeString(journal, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOG.debug("Unable to write unresolved artifacts journal " + journal, e);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.debug("Unable to read unresolved artifacts journal " + journal, e);
+            return;
+        }
+        for (String line : lines) {
+            final int separator = line.indexOf(SEPARATOR);
+            if (separator < 0) {
+                continue;
+            }
+            try {
+                final long timestamp = Long.parseLong(line.substring(0, separator));
+                if (!isExpired(timestamp)) {
+                    failures.put(line.substring(separator + 1), timestamp);
+                }
+            } catch (NumberFormatException e) {
+                LOG.debugf("Ignoring malformed unresolved artifact entry %s", line);
+            }
+        }
+        if (failures.isEmpty() && !lines.isEmpty()) {
+            // all the entries expired, start a new journal
+            try {
+                Files.delete(journal);
+            } catch (IOException e) {
+                LOG.debug("Unable to remove expired unresolved artifacts journal " + journal, e);
+            }
+        }
+    }
+
+    private static String key(String repositoryUrl, String groupId, String artifactId, String extension,
+                              String classifier, String version) {
+        return String.join(":", groupId, artifactId, nullToEmpty(extension), nullToEmpty(classifier),
+                nullToEmpty(version)) + SEPARATOR + repositoryUrl;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.util.LayoutUtils;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Hashes of the files recorded by Galleon in {@code .galleon/hashes} when the server was provisioned.
+ *
+ * The records describe the state of the server after provisioning, any later changes to the files are not
+ * reflected. The paths are relative to the server root and always use {@code '/'} as separator, same as {@code FsDiff}.
+ */
+public class RecordedHashes {
+
+    private static final Logger LOG = Logger.getLogger(RecordedHashes.class);
+
+    private final Map<String, String> files;
+    private final List<String> directories;
+
+    RecordedHashes(Map<String, String> files, List<String> directories) {
+        this.files = files;
+        this.directories = directories;
+    }
+
+    /**
+     * reads the hashes recorded in the server at {@code serverRoot}.
+     *
+     * @param serverRoot - root of a provisioned server
+     * @return the recorded hashes or empty if the server doesn't contain the records, or they cannot be read
+     */
+    public static Optional<RecordedHashes> read(Path serverRoot) {
+        final Path hashesDir = LayoutUtils.getHashesDir(serverRoot);
+        if (!Files.isDirectory(hashesDir)) {
+            return Optional.empty();
+        }
+
+        final Map<String, String> files = new HashMap<>();
+        final List<String> directories = new ArrayList<>();
+        try {
+            readDir(hashesDir, "", files, directories);
+        } catch (IOException e) {
+            LOG.debugf(e, "Unable to read recorded hashes in %s", serverRoot);
+            return Optional.empty();
+        }
+        return Optional.of(new RecordedHashes(files, directories));
+    }
+
+    private static void readDir(Path dir, String prefix, Map<String, String> files, List<String> directories) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                final String name = child.getFileName().toString();
+                if (Files.isDirectory(child)) {
+                    final String relativePath = prefix + name + "/";
+                    directories.add(relativePath);
+                    readDir(child, relativePath, files, directories);
+                } else if (Constants.HASHES.equals(name)) {
+                    try (BufferedReader reader = Files.newBufferedReader(child)) {
+                        String fileName = reader.readLine();
+                        while (fileName != null) {
+                            final String hash = reader.readLine();
+                            if (hash == null) {
+                                throw new IOException("Missing hash of " + prefix + fileName + " in " + child);
+                            }
+                            files.put(prefix + fileName, hash);
+                            fileName = reader.readLine();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param relativePath - path of a file relative to the server root using {@code '/'} as separator
+     * @return recorded hex encoded hash of the file or {@code null} if the file is not recorded
+     */
+    public String getHash(String relativePath) {
+        return files.get(relativePath);
+    }
+
+    /**
+     * @return relative paths of all recorded files
+     */
+    public Set<String> getFiles() {
+        return Collections.unmodifiableSet(files.keySet());
+    }
+
+    /**
+     * @return relative paths of all recorded directories, ending with {@code '/'}. Parent directories
+     * are listed before their children.
+     */
+    public List<String> getDirectories() {
+        return Collections.unmodifiableList(directories);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.wildfly.channel.ArtifactCoordinate;
+import org.wildfly.channel.ArtifactTransferException;
+import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Reuses channel metadata and version lookups recorded in {@code ChannelResolutionScope} by resolvers
+ * for the same repositories.
+ */
+class ScopedVersionResolver implements MavenVersionsResolver {
+
+    private static final String RELEASE = "release";
+    private static final String LATEST = "latest";
+
+    private final MavenVersionsResolver delegate;
+    private final String repositoryKey;
+    private final ChannelResolutionScope scope;
+
+    ScopedVersionResolver(MavenVersionsResolver delegate, String repositoryKey, ChannelResolutionScope scope) {
+        this.delegate = delegate;
+        this.repositoryKey = repositoryKey;
+        this.scope = scope;
+    }
+
+    @Override
+    public Set<String> getAllVersions(String groupId, String artifactId, String extension, String classifier) {
+        final String key = ChannelResolutionScope.key(repositoryKey, Arrays.asList(groupId, artifactId, extension, classifier));
+        return lookup(scope.getVersions(), key,
+                () -> Collections.unmodifiableSet(new HashSet<>(delegate.getAllVersions(groupId, artifactId, extension, classifier))));
+    }
+
+    @Override
+    public File resolveArtifact(String groupId, String artifactId, String extension, String classifier, String version) throws ArtifactTransferException {
+        return delegate.resolveArtifact(groupId, artifactId, extension, classifier, version);
+    }
+
+    @Override
+    public List<File> resolveArtifacts(List<ArtifactCoordinate> coordinates) throws ArtifactTransferException {
+        return delegate.resolveArtifacts(coordinates);
+    }
+
+    @Override
+    public List<URL> resolveChannelMetadata(List<? extends ChannelMetadataCoordinate> coordinates) throws ArtifactTransferException {
+        final List<URL> cached = new ArrayList<>(coordinates.size());
+        for (ChannelMetadataCoordinate coordinate : coordinates) {
+            final URL url = coordinate.getUrl() == null ? scope.getChannelMetadata(key(coordinate)) : coordinate.getUrl();
+            if (url == null) {
+                break;
+            }
+            cached.add(url);
+        }
+        if (cached.size() == coordinates.size()) {
+            return cached;
+        }
+
+        final List<URL> urls = delegate.resolveChannelMetadata(coordinates);
+        // the resolved URLs can only be matched to the coordinates if each coordinate resolved to a single URL
+        if (urls.size() == coordinates.size()) {
+            for (int i = 0; i < coordinates.size(); i++) {
+                if (coordinates.get(i).getUrl() == null) {
+                    scope.putChannelMetadata(key(coordinates.get(i)), urls.get(i));
+                }
+            }
+        }
+        return urls;
+    }
+
+    @Override
+    public String getMetadataReleaseVersion(String groupId, String artifactId) {
+        final String key = ChannelResolutionScope.key(repositoryKey, Arrays.asList(RELEASE, groupId, artifactId));
+        return lookup(scope.getMetadataVersions(), key,
+                () -> Optional.ofNullable(delegate.getMetadataReleaseVersion(groupId, artifactId))).orElse(null);
+    }
+
+    @Override
+    public String getMetadataLatestVersion(String groupId, String artifactId) {
+        final String key = ChannelResolutionScope.key(repositoryKey, Arrays.asList(LATEST, groupId, artifactId));
+        return lookup(scope.getMetadataVersions(), key,
+                () -> Optional.ofNullable(delegate.getMetadataLatestVersion(groupId, artifactId))).orElse(null);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /*
+     * the lookup is not done inside computeIfAbsent, as that would block other threads accessing the same bin of the map
+     * for the duration of the remote call. Concurrent lookups of the same key may both query the repository, the first
+     * stored result is used by both.
+     */
+    private static <T> T lookup(Map<String, T> results, String key, Supplier<T> resolver) {
+        final T cached = results.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final T resolved = resolver.get();
+        final T previous = results.putIfAbsent(key, resolved);
+        return previous == null ? resolved : previous;
+    }
+
+    private String key(ChannelMetadataCoordinate coordinate) {
+        return ChannelResolutionScope.key(repositoryKey, Arrays.asList(coordinate.getGroupId(), coordinate.getArtifactId(),
+                coordinate.getExtension(), coordinate.getClassifier(), coordinate.getVersion()));
+    }
+}
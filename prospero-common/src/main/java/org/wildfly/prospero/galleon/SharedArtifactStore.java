@@ -0,0 +1,373 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressable store of artifact files shared by multiple installations on the same host.
+ *
+ * The files are stored in {@code OBJECTS_DIR} under their SHA-1 hash and are hardlinked into the installation caches.
+ * The {@code INDEX_DIR} maps maven coordinates of the artifacts to their hashes using a maven repository layout.
+ * Each index entry also records the fingerprint (size, last modified time and file key) of the stored object. Objects
+ * are only hashed when they are stored, or when their fingerprint doesn't match the recorded one.
+ *
+ * Index files and objects are replaced atomically, so looking up an artifact doesn't need to lock the store. Storing
+ * objects and removing them are guarded by a file lock shared by all processes on the host.
+ *
+ * Each installation referencing an object holds a hardlink to it, so the number of links of the object file is used
+ * as its reference count. {@link #gc()} removes objects that are not linked from any installation anymore.
+ *
+ * The store is enabled by setting {@code STORE_PATH_PROPERTY} system property to the location of the store.
+ */
+public class SharedArtifactStore {
+    private static final Logger LOG = Logger.getLogger(SharedArtifactStore.class);
+
+    /**
+     * system property specifying the location of the shared store. If not set, the shared store is not used.
+     */
+    public static final String STORE_PATH_PROPERTY = "org.wildfly.prospero.cache.shared-store";
+    static final String OBJECTS_DIR = "objects";
+    static final String INDEX_DIR = "index";
+    static final String HASH_SUFFIX = ".sha1";
+    private static final String LOCK_FILE = ".lock";
+    private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+
+    // guards the store file lock within this JVM, file locks can't be acquired twice by the same process
+    private static final Map<Path, Object> monitors = new HashMap<>();
+
+    private final Path root;
+    private final Object monitor;
+
+    /**
+     * returns the shared store configured using {@code STORE_PATH_PROPERTY}
+     *
+     * @return empty {@code Optional} if the shared store is not configured
+     */
+    public static Optional<SharedArtifactStore> configured() {
+        final String location = System.getProperty(STORE_PATH_PROPERTY);
+        if (location == null || location.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(new SharedArtifactStore(Path.of(location)));
+    }
+
+    public SharedArtifactStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        synchronized (monitors) {
+            this.monitor = monitors.computeIfAbsent(this.root, p -> new Object());
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * adds the {@code source} file to the store, unless an object with the same {@code hash} is already stored,
+     * and links the stored object to the {@code target}. If the object cannot be linked (e.g. the store is
+     * located on a different file system), the object is copied to the {@code target} instead.
+     *
+     * @param groupId
+     * @param artifactId
+     * @param extension
+     * @param classifier
+     * @param version
+     * @param hash - SHA-1 hash of the {@code source}
+     * @param source - file to be stored
+     * @param target - location the stored object should be linked to
+     * @throws IOException
+     */
+    public void store(String groupId, String artifactId, String extension, String classifier, String version,
+                      String hash, Path source, Path target) throws IOException {
+        withLock(() -> {
+            final Path object = objectPath(hash);
+            final Path index = indexPath(groupId, artifactId, extension, classifier, version);
+            if (!Files.exists(object) || !isVerified(object, index, hash)) {
+                Files.createDirectories(object.getParent());
+                final Path temp = Files.createTempFile(object.getParent(), hash, ".tmp");
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                moveAtomically(temp, object);
+            }
+            writeIndex(index, new IndexEntry(hash, ArtifactCache.FileFingerprint.of(object)));
+            FileLinks.linkOrCopy(object, target, false);
+            return null;
+        });
+    }
+
+    /**
+     * finds an object stored for the maven coordinates and links it to the {@code target}. The content of the stored
+     * object is verified before it is linked and corrupted objects are removed from the store.
+     *
+     * @param groupId
+     * @param artifactId
+     * @param extension
+     * @param classifier
+     * @param version
+     * @param target - location the stored object should be linked to
+     * @return SHA-1 hash of the linked object or empty {@code Optional} if the artifact is not available in the store
+     * @throws IOException
+     */
+    public Optional<String> find(String groupId, String artifactId, String extension, String classifier, String version,
+                                 Path target) throws IOException {
+        return withLock(() -> {
+            final Optional<Path> object = findObject(groupId, artifactId, extension, classifier, version);
+            if (object.isEmpty()) {
+                return Optional.empty();
+            }
+            FileLinks.linkOrCopy(object.get(), target, false);
+            return Optional.of(object.get().getFileName().toString());
+        });
+    }
+
+    /**
+     * finds an object stored for the maven coordinates without linking it anywhere. The object is returned if its
+     * fingerprint matches the one recorded when it was stored, otherwise its content is verified and corrupted objects
+     * are removed from the store. The returned object must not be modified.
+     *
+     * @param groupId
+     * @param artifactId
+     * @param extension
+     * @param classifier
+     * @param version
+     * @return the stored object or empty {@code Optional} if the artifact is not available in the store
+     * @throws IOException
+     */
+    public Optional<Path> lookup(String groupId, String artifactId, String extension, String classifier, String version) throws IOException {
+        final Path index = indexPath(groupId, artifactId, extension, classifier, version);
+        final Optional<IndexEntry> entry = readIndex(index);
+        if (entry.isEmpty()) {
+            return Optional.empty();
+        }
+        final Path object = objectPath(entry.get().hash);
+        if (entry.get().fingerprintMatches(object)) {
+            return Optional.of(object);
+        }
+        return withLock(() -> findObject(groupId, artifactId, extension, classifier, version));
+    }
+
+    /**
+     * checks if the {@code file} is an object stored in this store
+     */
+    public boolean contains(Path file) {
+        return file.toAbsolutePath().normalize().startsWith(root.resolve(OBJECTS_DIR));
+    }
+
+    /*
+     * has to be called holding the store lock
+     */
+    private Optional<Path> findObject(String groupId, String artifactId, String extension, String classifier, String version) throws IOException {
+        final Path index = indexPath(groupId, artifactId, extension, classifier, version);
+        final Optional<IndexEntry> entry = readIndex(index);
+        if (entry.isEmpty()) {
+            return Optional.empty();
+        }
+        final String hash = entry.get().hash;
+        final Path object = objectPath(hash);
+        if (!Files.exists(object)) {
+            Files.delete(index);
+            return Optional.empty();
+        }
+        if (entry.get().fingerprintMatches(object)) {
+            return Optional.of(object);
+        }
+        if (!hash.equals(FileHashes.hashFile(object))) {
+            LOG.debugf("Removing corrupted object %s from the shared artifact store", object);
+            Files.delete(object);
+            Files.delete(index);
+            return Optional.empty();
+        }
+        // the object content is correct, record the fingerprint so that it doesn't have to be hashed again
+        writeIndex(index, new IndexEntry(hash, ArtifactCache.FileFingerprint.of(object)));
+        return Optional.of(object);
+    }
+
+    private static boolean isVerified(Path object, Path index, String hash) throws IOException {
+        final Optional<IndexEntry> entry = readIndex(index);
+        if (entry.isPresent() && entry.get().hash.equals(hash) && entry.get().fingerprintMatches(object)) {
+            return true;
+        }
+        return hash.equals(FileHashes.hashFile(object));
+    }
+
+    /**
+     * removes objects that are not referenced by any installation and index entries pointing to removed objects.
+     * Objects are only removed if the file system is able to report the number of links to a file.
+     *
+     * @return number of removed objects
+     * @throws IOException
+     */
+    public int gc() throws IOException {
+        return withLock(() -> {
+            final Path objectsDir = root.resolve(OBJECTS_DIR);
+            if (!Files.exists(objectsDir)) {
+                return 0;
+            }
+            int removed = 0;
+            for (Path object : listFiles(objectsDir)) {
+                final Optional<Integer> links = linkCount(object);
+                if (links.isEmpty()) {
+                    LOG.debug("Unable to count links in the shared artifact store, skipping garbage collection");
+                    return 0;
+                }
+                if (links.get() <= 1) {
+                    Files.delete(object);
+                    removed++;
+                }
+            }
+            final Path indexDir = root.resolve(INDEX_DIR);
+            if (Files.exists(indexDir)) {
+                for (Path index : listFiles(indexDir)) {
+                    final Optional<IndexEntry> entry = readIndex(index);
+                    if (entry.isEmpty() || !Files.exists(objectPath(entry.get().hash))) {
+                        Files.delete(index);
+                    }
+                }
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Removed %d unreferenced objects from the shared artifact store %s", removed, root);
+            }
+            return removed;
+        });
+    }
+
+    Path objectPath(String hash) {
+        return root.resolve(OBJECTS_DIR).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path indexPath(String groupId, String artifactId, String extension, String classifier, String version) {
+        final StringBuilder fileName = new StringBuilder(artifactId).append('-').append(version);
+        if (classifier != null && !classifier.isEmpty()) {
+            fileName.append('-').append(classifier);
+        }
+        fileName.append('.').append(extension).append(HASH_SUFFIX);
+        return root.resolve(INDEX_DIR).resolve(groupId.replace('.', '/')).resolve(artifactId).resolve(version)
+                .resolve(fileName.toString());
+    }
+
+    private static Optional<IndexEntry> readIndex(Path index) throws IOException {
+        try {
+            return Optional.of(IndexEntry.parse(Files.readString(index).trim()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void writeIndex(Path index, IndexEntry entry) throws IOException {
+        final String content = entry.asString();
+        if (Files.exists(index) && Files.readString(index).trim().equals(content)) {
+            return;
+        }
+        Files.createDirectories(index.getParent());
+        final Path temp = Files.createTempFile(index.getParent(), index.getFileName().toString(), ".tmp");
+        Files.writeString(temp, content);
+        moveAtomically(temp, index);
+    }
+
+    private static Optional<Integer> linkCount(Path file) throws IOException {
+        try {
+            return Optional.of((Integer) Files.getAttribute(file, LINK_COUNT_ATTRIBUTE));
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private <T> T withLock(StoreOperation<T> operation) throws IOException {
+        synchronized (monitor) {
+            Files.createDirectories(root);
+            try (FileChannel channel = FileChannel.open(root.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                final FileLock lock = channel.lock();
+                try {
+                    return operation.execute();
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    private interface StoreOperation<T> {
+        T execute() throws IOException;
+    }
+
+    /*
+     * content of an index file - hash of the stored object and, if known, the fingerprint of the object
+     */
+    private static final class IndexEntry {
+        private final String hash;
+        private final ArtifactCache.FileFingerprint fingerprint;
+
+        IndexEntry(String hash, ArtifactCache.FileFingerprint fingerprint) {
+            this.hash = hash;
+            this.fingerprint = fingerprint;
+        }
+
+        static IndexEntry parse(String content) throws IOException {
+            final String[] segments = content.split(ArtifactCache.CACHE_LINE_SEPARATOR);
+            // index files written by earlier versions contain only the hash
+            final ArtifactCache.FileFingerprint fingerprint = segments.length > 1
+                    ? ArtifactCache.FileFingerprint.parse(segments, 1) : null;
+            return new IndexEntry(segments[0], fingerprint);
+        }
+
+        boolean fingerprintMatches(Path object) throws IOException {
+            try {
+                return fingerprint != null && fingerprint.equals(ArtifactCache.FileFingerprint.of(object));
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        }
+
+        String asString() {
+            return fingerprint == null ? hash : hash + ArtifactCache.CACHE_LINE_SEPARATOR + fingerprint.asString();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of artifact versions available in remote repositories.
+ *
+ * The versions are cached per repository URL and GA. Each repository has a journal file in the cache directory. New
+ * lookups are appended to the journal and the last entry of each artifact wins. Entries older than the TTL are ignored.
+ *
+ * The cache is configured using {@code LOCATION_PROPERTY} and {@code TTL_PROPERTY} system properties. Setting the TTL
+ * to 0 disables the cache.
+ */
+public class VersionCache {
+    private static final Logger LOG = Logger.getLogger(VersionCache.class);
+
+    /**
+     * system property specifying the directory of the version cache.
+     */
+    public static final String LOCATION_PROPERTY = "org.wildfly.prospero.versions.cache";
+    /**
+     * system property specifying for how many seconds the cached versions are used before checking the repository again.
+     */
+    public static final String TTL_PROPERTY = "org.wildfly.prospero.versions.ttl";
+    static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+    static final Path DEFAULT_LOCATION = Paths.get(System.getProperty("user.home"), ".cache", "prospero", "versions");
+    private static final String JOURNAL_SUFFIX = ".versions";
+    private static final String SEPARATOR = " ";
+    private static final String VERSION_SEPARATOR = ",";
+    // journals are rewritten if they have more superseded lines than this
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    private final Path cacheDir;
+    private final Duration ttl;
+    private final boolean refresh;
+    private final Clock clock;
+    private final Map<String, RepositoryVersions> repositories = new ConcurrentHashMap<>();
+
+    /**
+     * creates a cache configured by the system properties
+     *
+     * @param refresh - if {@code true}, the cached versions are not used, but the cache is updated with new lookups
+     * @return empty {@code Optional} if the cache is disabled
+     */
+    public static Optional<VersionCache> configured(boolean refresh) {
+        final Duration ttl = Duration.ofSeconds(Long.getLong(TTL_PROPERTY, DEFAULT_TTL.getSeconds()));
+        if (ttl.isZero() || ttl.isNegative()) {
+            return Optional.empty();
+        }
+        return Optional.of(new VersionCache(location(), ttl, refresh));
+    }
+
+    /**
+     * @return directory of the version cache configured by {@code LOCATION_PROPERTY}
+     */
+    static Path location() {
+        final String location = System.getProperty(LOCATION_PROPERTY);
+        return location == null || location.isBlank() ? DEFAULT_LOCATION : Path.of(location);
+    }
+
+    public VersionCache(Path cacheDir, Duration ttl, boolean refresh) {
+        this(cacheDir, ttl, refresh, Clock.systemUTC());
+    }
+
+    VersionCache(Path cacheDir, Duration ttl, boolean refresh, Clock clock) {
+        this.cacheDir = cacheDir;
+        this.ttl = ttl;
+        this.refresh = refresh;
+        this.clock = clock;
+    }
+
+    /**
+     * finds versions of the artifact available in the repository, if they were recorded within the TTL.
+     *
+     * @return cached versions or empty {@code Optional} if the versions have to be looked up in the repository
+     */
+    public Optional<Set<String>> get(String repositoryUrl, String groupId, String artifactId, String extension, String classifier) {
+        if (refresh) {
+            return Optional.empty();
+        }
+        final Entry entry = repository(repositoryUrl).entries.get(key(groupId, artifactId, extension, classifier));
+        if (entry == null || clock.millis() - entry.timestamp > ttl.toMillis() || entry.timestamp > clock.millis()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.versions);
+    }
+
+    /**
+     * records versions of the artifact available in the repository
+     */
+    public void put(String repositoryUrl, String groupId, String artifactId, String extension, String classifier,
+                    Set<String> versions) {
+        final String key = key(groupId, artifactId, extension, classifier);
+        final Entry entry = new Entry(clock.millis(), Collections.unmodifiableSet(new TreeSet<>(versions)));
+        repository(repositoryUrl).append(key, entry);
+    }
+
+    private RepositoryVersions repository(String repositoryUrl) {
+        return repositories.computeIfAbsent(repositoryUrl, url -> new RepositoryVersions(journalPath(url)));
+    }
+
+    private Path journalPath(String repositoryUrl) {
+        final String name = UUID.nameUUIDFromBytes(repositoryUrl.getBytes(StandardCharsets.UTF_8)).toString();
+        return cacheDir.resolve(name + JOURNAL_SUFFIX);
+    }
+
+    private static String key(String groupId, String artifactId, String extension, String classifier) {
+        return String.join(":", groupId, artifactId, extension == null ? "" : extension, classifier == null ? "" : classifier);
+    }
+
+    private static final class Entry {
+        private final long timestamp;
+        private final Set<String> versions;
+
+        private Entry(long timestamp, Set<String> versions) {
+            this.timestamp = timestamp;
+            this.versions = versions;
+        }
+
+        private String toLine(String key) {
+            return timestamp + SEPARATOR + key + SEPARATOR + String.join(VERSION_SEPARATOR, versions);
+        }
+    }
+
+    /*
+     * versions of a single repository, backed by an append-only journal
+     */
+    private static final class RepositoryVersions {
+        private final Path journal;
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        private boolean writable = true;
+
+        private RepositoryVersions(Path journal) {
+            this.journal = journal;
+            load();
+        }
+
+        private void load() {
+            if (!Files.exists(journal)) {
+                return;
+            }
+            final List<String> lines;
+            try {
+                lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                LOG.debug("Unable to read version cache " + journal, e);
+                return;
+            }
+            for (String line : lines) {
+                final String[] parts = line.split(SEPARATOR, -1);
+                if (parts.length != 3) {
+                    // ignore partially written lines
+                    continue;
+                }
+                try {
+                    final Set<String> versions = parts[2].isEmpty() ? Collections.emptySet()
+                            : Collections.unmodifiableSet(new TreeSet<>(Arrays.asList(parts[2].split(VERSION_SEPARATOR))));
+                    entries.put(parts[1], new Entry(Long.parseLong(parts[0]), versions));
+                } catch (NumberFormatException e) {
+                    LOG.debugf("Ignoring malformed version cache entry %s", line);
+                }
+            }
+            if (lines.size() - entries.size() > COMPACTION_THRESHOLD) {
+                compact();
+            }
+        }
+
+        private synchronized void append(String key, Entry entry) {
+            entries.put(key, entry);
+            if (!writable) {
+                return;
+            }
+            try {
+                Files.createDirectories(journal.getParent());
+                Files.writeString(journal, entry.toLine(key) + System.lineSeparator(), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                LOG.debug("Unable to write version cache " + journal + ", the versions will not be persisted", e);
+                writable = false;
+            }
+        }
+
+        private synchronized void compact() {
+            final List<String> lines = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> lines.add(entry.toLine(key)));
+            try {
+                final Path temp = Files.createTempFile(journal.getParent(), journal.getFileName().toString(), ".tmp");
+                Files.write(temp, lines, StandardCharsets.UTF_8);
+                Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                LOG.debug("Unable to compact version cache " + journal, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.wildfly.channel.ArtifactCoordinate;
+import org.wildfly.channel.ArtifactTransferException;
+import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up versions of artifacts in {@code VersionCache} before querying the remote repositories.
+ *
+ * The versions are cached for each remote repository separately, so that only repositories without cached versions
+ * are queried. The repositories without cached versions are queried together, in a single request, and the versions
+ * found are recorded for that set of repositories. File system repositories are always queried. Empty results are not
+ * cached, as a failure to download the metadata is reported the same way. Versions found in offline mode are not
+ * cached, as they only reflect the content of the local repository.
+ */
+class VersionCachingResolver implements MavenVersionsResolver {
+
+    private static final String FILE_PROTOCOL = "file:";
+
+    private final MavenVersionsResolver.Factory factory;
+    private final MavenVersionsResolver delegate;
+    private final List<Repository> cachedRepositories = new ArrayList<>();
+    private final List<Repository> uncachedRepositories = new ArrayList<>();
+    private final VersionCache versionCache;
+    private final boolean offline;
+    private final Map<List<Repository>, MavenVersionsResolver> batchResolvers = new ConcurrentHashMap<>();
+    private volatile MavenVersionsResolver uncachedResolver;
+
+    VersionCachingResolver(MavenVersionsResolver.Factory factory, Collection<Repository> repositories,
+                           VersionCache versionCache, boolean offline) {
+        this.factory = factory;
+        this.delegate = factory.create(repositories);
+        this.versionCache = versionCache;
+        this.offline = offline;
+        for (Repository repository : repositories) {
+            if (repository.getUrl() == null || repository.getUrl().startsWith(FILE_PROTOCOL)) {
+                uncachedRepositories.add(repository);
+            } else {
+                cachedRepositories.add(repository);
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getAllVersions(String groupId, String artifactId, String extension, String classifier) {
+        if (cachedRepositories.isEmpty()) {
+            return delegate.getAllVersions(groupId, artifactId, extension, classifier);
+        }
+
+        final Set<String> versions = new HashSet<>();
+        final List<Repository> missed = new ArrayList<>();
+        for (Repository repository : cachedRepositories) {
+            final Optional<Set<String>> cached = versionCache.get(repository.getUrl(), groupId, artifactId, extension, classifier);
+            if (cached.isPresent()) {
+                versions.addAll(cached.get());
+            } else {
+                missed.add(repository);
+            }
+        }
+        if (!missed.isEmpty()) {
+            final String cacheKey = cacheKey(missed);
+            final Optional<Set<String>> cached = missed.size() > 1
+                    ? versionCache.get(cacheKey, groupId, artifactId, extension, classifier) : Optional.empty();
+            if (cached.isPresent()) {
+                versions.addAll(cached.get());
+            } else {
+                final MavenVersionsResolver resolver = missed.size() == cachedRepositories.size() && uncachedRepositories.isEmpty()
+                        ? delegate : batchResolvers.computeIfAbsent(missed, factory::create);
+                final Set<String> found = resolver.getAllVersions(groupId, artifactId, extension, classifier);
+                // an empty result can't be told apart from a failure to read the metadata, so it's always re-checked
+                if (!offline && !found.isEmpty()) {
+                    versionCache.put(cacheKey, groupId, artifactId, extension, classifier, found);
+                }
+                versions.addAll(found);
+            }
+        }
+        if (!uncachedRepositories.isEmpty()) {
+            versions.addAll(getUncachedResolver().getAllVersions(groupId, artifactId, extension, classifier));
+        }
+        return versions;
+    }
+
+    @Override
+    public File resolveArtifact(String groupId, String artifactId, String extension, String classifier, String version) throws ArtifactTransferException {
+        return delegate.resolveArtifact(groupId, artifactId, extension, classifier, version);
+    }
+
+    @Override
+    public List<File> resolveArtifacts(List<ArtifactCoordinate> coordinates) throws ArtifactTransferException {
+        return delegate.resolveArtifacts(coordinates);
+    }
+
+    @Override
+    public List<URL> resolveChannelMetadata(List<? extends ChannelMetadataCoordinate> coordinates) throws ArtifactTransferException {
+        return delegate.resolveChannelMetadata(coordinates);
+    }
+
+    @Override
+    public String getMetadataReleaseVersion(String groupId, String artifactId) {
+        return delegate.getMetadataReleaseVersion(groupId, artifactId);
+    }
+
+    @Override
+    public String getMetadataLatestVersion(String groupId, String artifactId) {
+        return delegate.getMetadataLatestVersion(groupId, artifactId);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+        batchResolvers.values().forEach(MavenVersionsResolver::close);
+        if (uncachedResolver != null) {
+            uncachedResolver.close();
+        }
+    }
+
+    /*
+     * versions found in several repositories at once are recorded under a key combining all of them
+     */
+    private static String cacheKey(List<Repository> repositories) {
+        return repositories.stream().map(Repository::getUrl).collect(Collectors.joining(" "));
+    }
+
+    private MavenVersionsResolver getUncachedResolver() {
+        if (uncachedResolver == null) {
+            synchronized (this) {
+                if (uncachedResolver == null) {
+                    uncachedResolver = factory.create(uncachedRepositories);
+                }
+            }
+        }
+        return uncachedResolver;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.model;
+
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.logging.Logger;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.ManifestRequirement;
+import org.wildfly.channel.MavenCoordinate;
+import org.wildfly.channel.Stream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Process-wide cache of parsed channel manifests.
+ *
+ * The manifests are keyed by the SHA-1 hash of the manifest file content, so the same manifest read from different
+ * locations (installation metadata, history, local maven repository) is parsed only once, and a modified file is never
+ * served from the cache. The cache keeps up to {@code SIZE_PROPERTY} manifests, evicting the least recently used ones.
+ *
+ * If {@code BINARY_CACHE_PROPERTY} is set, parsed manifests are also stored in a compact binary form in that directory
+ * and loaded from there by later processes instead of parsing the YAML again.
+ *
+ * Each call returns a new copy of the cached manifest, so callers are free to modify it.
+ */
+public class ManifestCache {
+    private static final Logger LOG = Logger.getLogger(ManifestCache.class);
+
+    /**
+     * system property specifying how many parsed manifests are kept in memory. Setting it to 0 disables the cache.
+     */
+    public static final String SIZE_PROPERTY = "org.wildfly.prospero.manifest-cache.size";
+    /**
+     * system property specifying a directory to store the binary form of parsed manifests in.
+     */
+    public static final String BINARY_CACHE_PROPERTY = "org.wildfly.prospero.manifest-cache.binary";
+    static final int DEFAULT_SIZE = 16;
+    static final String BINARY_SUFFIX = ".manifest";
+    private static final int BINARY_MAGIC = 0x50524d46;
+    private static final int BINARY_FORMAT_VERSION = 1;
+
+    private static final ManifestCache INSTANCE = new ManifestCache(Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE),
+            System.getProperty(BINARY_CACHE_PROPERTY) == null ? null : Path.of(System.getProperty(BINARY_CACHE_PROPERTY)));
+
+    private final int size;
+    private final Path binaryCacheDir;
+    private final Map<String, ChannelManifest> manifests;
+
+    public static ManifestCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param binaryCacheDir - directory to store the binary form of the manifests in, or {@code null}
+     */
+    ManifestCache(int size, Path binaryCacheDir) {
+        this.size = size;
+        this.binaryCacheDir = binaryCacheDir;
+        this.manifests = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ChannelManifest> eldest) {
+                return size() > ManifestCache.this.size;
+            }
+        };
+    }
+
+    /**
+     * parses the manifest file, or returns a copy of the manifest if a file with the same content has been parsed before.
+     *
+     * @param manifestFile - YAML manifest file
+     * @return parsed manifest
+     * @throws IOException - if the file cannot be read
+     * @throws org.wildfly.channel.InvalidChannelMetadataException - if the file is not a valid manifest
+     */
+    public ChannelManifest parse(Path manifestFile) throws IOException {
+        if (size <= 0) {
+            return ChannelManifestMapper.from(manifestFile.toUri().toURL());
+        }
+
+        final byte[] content = Files.readAllBytes(manifestFile);
+        final String hash = sha1(content);
+        ChannelManifest manifest;
+        synchronized (manifests) {
+            manifest = manifests.get(hash);
+        }
+        if (manifest == null) {
+            manifest = readBinary(hash);
+            if (manifest == null) {
+                manifest = ChannelManifestMapper.fromString(new String(content, StandardCharsets.UTF_8));
+                writeBinary(hash, manifest);
+            }
+            synchronized (manifests) {
+                manifests.put(hash, manifest);
+            }
+        } else if (LOG.isTraceEnabled()) {
+            LOG.tracef("Using cached manifest for %s", manifestFile);
+        }
+        return copy(manifest);
+    }
+
+    /**
+     * removes all the manifests kept in memory
+     */
+    public void clear() {
+        synchronized (manifests) {
+            manifests.clear();
+        }
+    }
+
+    private static ChannelManifest copy(ChannelManifest manifest) {
+        return new ChannelManifest(manifest.getSchemaVersion(), manifest.getName(), manifest.getId(), manifest.getDescription(),
+                manifest.getManifestRequirements(), manifest.getStreams());
+    }
+
+    private ChannelManifest readBinary(String hash) {
+        if (binaryCacheDir == null) {
+            return null;
+        }
+        final Path file = binaryCacheDir.resolve(hash + BINARY_SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != BINARY_MAGIC || in.readInt() != BINARY_FORMAT_VERSION) {
+                return null;
+            }
+            final String schemaVersion = readString(in);
+            final String name = readString(in);
+            final String id = readString(in);
+            final String description = readString(in);
+            final int requirementCount = in.readInt();
+            final List<ManifestRequirement> requirements = new ArrayList<>(requirementCount);
+            for (int i = 0; i < requirementCount; i++) {
+                final String requirementId = readString(in);
+                final String groupId = readString(in);
+                final MavenCoordinate coordinate = groupId == null ? null
+                        : new MavenCoordinate(groupId, readString(in), readString(in));
+                requirements.add(new ManifestRequirement(requirementId, coordinate));
+            }
+            final int streamCount = in.readInt();
+            final List<Stream> streams = new ArrayList<>(streamCount);
+            for (int i = 0; i < streamCount; i++) {
+                final String groupId = readString(in);
+                final String artifactId = readString(in);
+                final String version = readString(in);
+                final String versionPattern = readString(in);
+                if (versionPattern == null) {
+                    streams.add(new Stream(groupId, artifactId, version));
+                } else {
+                    streams.add(new Stream(groupId, artifactId, Pattern.compile(versionPattern)));
+                }
+            }
+            return new ChannelManifest(schemaVersion, name, id, description, requirements, streams);
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Unable to read cached manifest " + file + ", parsing the manifest again", e);
+            return null;
+        }
+    }
+
+    private void writeBinary(String hash, ChannelManifest manifest) {
+        if (binaryCacheDir == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(binaryCacheDir);
+            final Path temp = Files.createTempFile(binaryCacheDir, hash, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(BINARY_MAGIC);
+                out.writeInt(BINARY_FORMAT_VERSION);
+                writeString(out, manifest.getSchemaVersion());
+                writeString(out, manifest.getName());
+                writeString(out, manifest.getId());
+                writeString(out, manifest.getDescription());
+                out.writeInt(manifest.getManifestRequirements().size());
+                for (ManifestRequirement requirement : manifest.getManifestRequirements()) {
+                    writeString(out, requirement.getId());
+                    final MavenCoordinate coordinate = requirement.getMavenCoordinate();
+                    writeString(out, coordinate == null ? null : coordinate.getGroupId());
+                    if (coordinate != null) {
+                        writeString(out, coordinate.getArtifactId());
+                        writeString(out, coordinate.getVersion());
+                    }
+                }
+                out.writeInt(manifest.getStreams().size());
+                for (Stream stream : manifest.getStreams()) {
+                    writeString(out, stream.getGroupId());
+                    writeString(out, stream.getArtifactId());
+                    writeString(out, stream.getVersion());
+                    writeString(out, stream.getVersionPattern() == null ? null : stream.getVersionPattern().pattern());
+                }
+            }
+            Files.move(temp, binaryCacheDir.resolve(hash + BINARY_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.debug("Unable to store parsed manifest in " + binaryCacheDir, e);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String sha1(byte[] content) {
+        try {
+            return HashUtils.bytesToHexString(MessageDigest.getInstance("SHA-1").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -18,7 +18,6 @@
 package org.wildfly.prospero.model;
 
 import org.wildfly.channel.ChannelManifest;
-import org.wildfly.channel.ChannelManifestMapper;
 import org.wildfly.channel.InvalidChannelMetadataException;
 import org.wildfly.prospero.ProsperoLogger;
 import org.wildfly.prospero.api.exceptions.MetadataException;
@@ -30,7 +29,7 @@ public class ManifestYamlSupport {
 
     public static ChannelManifest parse(File manifestFile) throws IOException, MetadataException {
         try {
-            return ChannelManifestMapper.from(manifestFile.toURI().toURL());
+            return ManifestCache.getInstance().parse(manifestFile.toPath());
         } catch (InvalidChannelMetadataException e) {
             throw ProsperoLogger.ROOT_LOGGER.unableToParseConfiguration(manifestFile.toPath(), e.getCause());
         }
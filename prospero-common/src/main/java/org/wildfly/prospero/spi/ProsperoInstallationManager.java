@@ -42,6 +42,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -127,6 +128,23 @@ public class ProsperoInstallationManager implements InstallationManager {
         }
     }
 
+    /**
+     * Finds updates like {@link #findUpdates(List)}, passing each update to the {@code listener} as soon as it is found.
+     *
+     * @param repositories - repositories to override the channel repositories, can be empty
+     * @param listener - called with each update found, returns {@code false} to stop the search
+     * @return updates found before the search completed or was stopped
+     */
+    public List<ArtifactChange> findUpdates(List<Repository> repositories, Predicate<ArtifactChange> listener) throws Exception {
+        Objects.requireNonNull(listener);
+        try (UpdateAction updateAction = actionFactory.getUpdateAction(map(repositories, ProsperoInstallationManager::mapRepository))) {
+            final UpdateSet updates = updateAction.findUpdates(change -> listener.test(mapArtifactChange(change)));
+            return updates.getArtifactUpdates().stream()
+                    .map(ProsperoInstallationManager::mapArtifactChange)
+                    .collect(Collectors.toList());
+        }
+    }
+
     @Override
     public Collection<Channel> listChannels() throws OperationException {
         try (MetadataAction metadataAction = actionFactory.getMetadataAction()) {
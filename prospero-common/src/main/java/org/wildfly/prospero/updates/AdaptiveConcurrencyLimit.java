@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.updates;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of concurrent repository lookups, adapting the limit to the observed latency and errors.
+ *
+ * The limit grows by one after each lookup that completes within {@code LATENCY_TOLERANCE} times the fastest lookup
+ * seen so far. Slower lookups shrink the limit by 10%, and failed lookups halve it, so that a struggling repository
+ * is not flooded with requests.
+ *
+ * The waiting is implemented with {@code java.util.concurrent} locks rather than object monitors, so that virtual threads
+ * waiting for a lookup slot don't pin their carrier threads.
+ */
+class AdaptiveConcurrencyLimit {
+
+    static final double LATENCY_TOLERANCE = 2.0;
+    private static final double SLOW_DECREASE = 0.9;
+    private static final double FAILURE_DECREASE = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private int limit;
+    private int inFlight;
+    private long minLatencyNanos = Long.MAX_VALUE;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits " + minLimit + " - " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * waits until a lookup can be started
+     */
+    void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= limit) {
+                available.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * records the result of a lookup started after {@link #acquire()}
+     *
+     * @param latencyNanos - duration of the lookup
+     * @param failed - {@code true} if the lookup failed to reach the repository
+     */
+    void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (failed) {
+                limit = Math.max(minLimit, (int) (limit * FAILURE_DECREASE));
+            } else {
+                minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+                if (latencyNanos <= minLatencyNanos * LATENCY_TOLERANCE) {
+                    limit = Math.min(maxLimit, limit + 1);
+                } else {
+                    limit = Math.max(minLimit, (int) (limit * SLOW_DECREASE));
+                }
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.updates;
+
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.Stream;
+import org.wildfly.channel.VersionResult;
+import org.wildfly.channel.version.VersionMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Versions of artifacts that are pinned by the channel manifests and don't need to be looked up in the repositories.
+ *
+ * An artifact is pinned if every channel either defines a stream with a fixed version for it, or ignores artifacts
+ * without a stream. Streams using a version pattern and channels falling back onto the repository versions
+ * have to be resolved by the {@code ChannelSession}.
+ */
+public class PinnedVersions {
+
+    private final List<Channel> channels;
+    private final List<ChannelManifest> manifests;
+
+    /**
+     * @param channels - channels used to resolve the artifacts
+     * @param manifests - manifests of the {@code channels}, in the same order
+     */
+    public PinnedVersions(List<Channel> channels, List<ChannelManifest> manifests) {
+        if (channels.size() != manifests.size()) {
+            throw new IllegalArgumentException("Expected a manifest for each of " + channels.size() + " channels, got " + manifests.size());
+        }
+        this.channels = new ArrayList<>(channels);
+        this.manifests = new ArrayList<>(manifests);
+    }
+
+    /**
+     * finds the version of {@code groupId:artifactId} defined by the manifests.
+     *
+     * @return the latest pinned version and the channel defining it, or empty if the version has to be resolved
+     */
+    public Optional<VersionResult> find(String groupId, String artifactId) {
+        String latestVersion = null;
+        String channelName = null;
+        for (int i = 0; i < channels.size(); i++) {
+            final Channel channel = channels.get(i);
+            final Optional<Stream> stream = manifests.get(i).findStreamFor(groupId, artifactId);
+            if (stream.isEmpty()) {
+                if (channel.getNoStreamStrategy() != Channel.NoStreamStrategy.NONE) {
+                    return Optional.empty();
+                }
+            } else if (stream.get().getVersion() == null) {
+                return Optional.empty();
+            } else {
+                final String version = stream.get().getVersion();
+                if (latestVersion == null || VersionMatcher.COMPARATOR.compare(version, latestVersion) > 0) {
+                    latestVersion = version;
+                    channelName = channel.getName();
+                }
+            }
+        }
+
+        if (latestVersion == null) {
+            // not defined in any channel - let the channel session report it
+            return Optional.empty();
+        }
+        return Optional.of(new VersionResult(latestVersion, channelName));
+    }
+}
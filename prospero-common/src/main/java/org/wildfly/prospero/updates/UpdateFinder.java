@@ -19,80 +19,200 @@ package org.wildfly.prospero.updates;
 
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
+import org.jboss.logging.Logger;
+import org.wildfly.channel.ArtifactTransferException;
 import org.wildfly.channel.ChannelSession;
 import org.wildfly.channel.UnresolvedMavenArtifactException;
 import org.wildfly.channel.VersionResult;
 import org.wildfly.prospero.api.ArtifactChange;
 import org.wildfly.prospero.api.exceptions.ArtifactResolutionException;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Finds the latest versions of artifacts available in the channels.
+ *
+ * The lookups are mostly blocking network calls, so they are executed on virtual threads if the JVM supports them.
+ * The number of concurrent lookups starts at {@code UPDATES_SEARCH_PARALLELISM} and adapts to the latency and errors
+ * of the repositories, up to {@code MAX_PARALLELISM_PROPERTY}.
+ */
 public class UpdateFinder implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(UpdateFinder.class);
 
     public static final int UPDATES_SEARCH_PARALLELISM = 10;
+    /**
+     * system property specifying the maximum number of concurrent lookups.
+     */
+    public static final String MAX_PARALLELISM_PROPERTY = "org.wildfly.prospero.updates.max-parallelism";
+    static final int DEFAULT_MAX_PARALLELISM = 64;
+    private static final int MIN_PARALLELISM = 2;
 
     private final ChannelSession channelSession;
     private final ExecutorService executorService;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
 
     public UpdateFinder(ChannelSession channelSession) {
         this.channelSession = channelSession;
-        this.executorService = Executors.newWorkStealingPool(UPDATES_SEARCH_PARALLELISM);
+        final int maxParallelism = Math.max(MIN_PARALLELISM, Integer.getInteger(MAX_PARALLELISM_PROPERTY, DEFAULT_MAX_PARALLELISM));
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(UPDATES_SEARCH_PARALLELISM, MIN_PARALLELISM, maxParallelism);
+        this.executorService = newExecutor(maxParallelism);
     }
 
     public UpdateSet findUpdates(List<Artifact> artifacts) throws ArtifactResolutionException {
-        // use parallel executor to speed up the artifact resolution
-        List<CompletableFuture<Optional<ArtifactChange>>> allPackages = new ArrayList<>();
+        return findUpdates(artifacts, null, UpdateListener.NONE);
+    }
+
+    /**
+     * finds updates of {@code artifacts}, using {@code pinnedVersions} instead of querying the channels where possible.
+     * Only artifacts with open-ended streams are looked up in the repositories.
+     *
+     * @param artifacts - installed artifacts
+     * @param pinnedVersions - versions defined by the new channel manifests, or {@code null} to look up all artifacts
+     */
+    public UpdateSet findUpdates(List<Artifact> artifacts, PinnedVersions pinnedVersions) throws ArtifactResolutionException {
+        return findUpdates(artifacts, pinnedVersions, UpdateListener.NONE);
+    }
+
+    /**
+     * finds updates of {@code artifacts}, notifying the {@code listener} about each update as soon as it is found.
+     * The updates are reported in the order they are found, the returned {@code UpdateSet} follows the order of
+     * {@code artifacts}. If the {@code listener} stops the search, the remaining lookups are cancelled and only
+     * the updates found so far are returned.
+     *
+     * @param artifacts - installed artifacts
+     * @param pinnedVersions - versions defined by the new channel manifests, or {@code null} to look up all artifacts
+     * @param listener - notified about each update found
+     */
+    public UpdateSet findUpdates(List<Artifact> artifacts, PinnedVersions pinnedVersions, UpdateListener listener) throws ArtifactResolutionException {
+        final long start = System.nanoTime();
+        final CompletionService<Optional<ArtifactChange>> lookups = new ExecutorCompletionService<>(executorService);
+        final List<Future<Optional<ArtifactChange>>> allPackages = new ArrayList<>(artifacts.size());
+        final List<ArtifactChange> pinnedChanges = new ArrayList<>();
+        int submitted = 0;
         for (Artifact artifact : artifacts) {
-            final CompletableFuture<Optional<ArtifactChange>> cf = new CompletableFuture<>();
-            executorService.submit(() -> {
-                try {
-                    final Optional<ArtifactChange> found = findUpdates(artifact);
-                    cf.complete(found);
-                } catch (Exception e) {
-                    cf.completeExceptionally(e);
-                }
-            });
-            allPackages.add(cf);
+            final Optional<VersionResult> pinnedVersion = pinnedVersions == null ? Optional.empty()
+                    : pinnedVersions.find(artifact.getGroupId(), artifact.getArtifactId());
+            if (pinnedVersion.isPresent()) {
+                final Optional<ArtifactChange> change = compare(artifact, pinnedVersion.get());
+                change.ifPresent(pinnedChanges::add);
+                allPackages.add(CompletableFuture.completedFuture(change));
+            } else {
+                allPackages.add(lookups.submit(() -> findUpdatesWithLimit(artifact)));
+                submitted++;
+            }
         }
 
+        final List<ArtifactChange> reported = new ArrayList<>();
+        boolean stopped = false;
         try {
-            CompletableFuture.allOf(allPackages.toArray(new CompletableFuture[]{})).join();
-        } catch (CompletionException e) {
+            final Iterator<ArtifactChange> pinned = pinnedChanges.iterator();
+            while (!stopped && pinned.hasNext()) {
+                stopped = !report(pinned.next(), listener, reported, start);
+            }
+            for (int i = 0; i < submitted && !stopped; i++) {
+                final Optional<ArtifactChange> change = lookups.take().get();
+                if (change.isPresent()) {
+                    stopped = !report(change.get(), listener, reported, start);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            allPackages.forEach(f -> f.cancel(true));
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            allPackages.forEach(f -> f.cancel(true));
             if (e.getCause() instanceof ArtifactResolutionException) {
                 throw (ArtifactResolutionException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             } else {
-                throw e;
+                throw new CompletionException(e.getCause());
             }
+        } catch (RuntimeException e) {
+            allPackages.forEach(f -> f.cancel(true));
+            throw e;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Checked %d artifacts for updates (%d pinned by manifests) in %d ms, final concurrency limit %d",
+                    artifacts.size(), artifacts.size() - submitted, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    concurrencyLimit.getLimit());
         }
 
-        final List<ArtifactChange> updates = allPackages.stream()
-                .map(cf ->cf.getNow(Optional.empty()))
-                .flatMap(Optional::stream)
-                .collect(Collectors.toList());
+        if (stopped) {
+            LOG.debug("Search for updates stopped by the listener");
+            allPackages.forEach(f -> f.cancel(true));
+            return new UpdateSet(reported);
+        }
 
+        // all lookups are completed at this point
+        final List<ArtifactChange> updates = new ArrayList<>(reported.size());
+        for (Future<Optional<ArtifactChange>> future : allPackages) {
+            getNow(future).ifPresent(updates::add);
+        }
         return new UpdateSet(updates);
     }
 
-    private Optional<ArtifactChange> findUpdates(Artifact artifact) throws ArtifactResolutionException {
+    private static boolean report(ArtifactChange change, UpdateListener listener, List<ArtifactChange> reported, long start) {
+        if (reported.isEmpty() && LOG.isDebugEnabled()) {
+            LOG.debugf("First update found after %d ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        reported.add(change);
+        return listener.updateFound(change);
+    }
 
-        final String latestVersion;
-        final Optional<String> channelName;
+    private static Optional<ArtifactChange> getNow(Future<Optional<ArtifactChange>> future) {
         try {
-            final VersionResult versionResult = channelSession.findLatestMavenArtifactVersion(artifact.getGroupId(),
-                    artifact.getArtifactId(), artifact.getExtension(), artifact.getClassifier(), null);
-            latestVersion = versionResult.getVersion();
-            channelName = versionResult.getChannelName();
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            // the future has already completed successfully
+            throw new IllegalStateException(e);
+        }
+    }
 
+    private Optional<ArtifactChange> findUpdatesWithLimit(Artifact artifact) throws ArtifactResolutionException, InterruptedException {
+        concurrencyLimit.acquire();
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final Optional<ArtifactChange> change = findUpdates(artifact);
+            failed = false;
+            return change;
+        } catch (ArtifactTransferException e) {
+            // a failure to reach the repository, counted as a failed lookup
+            return Optional.of(ArtifactChange.removed(artifact));
         } catch (UnresolvedMavenArtifactException e) {
+            failed = false;
             return Optional.of(ArtifactChange.removed(artifact));
+        } finally {
+            concurrencyLimit.release(System.nanoTime() - start, failed);
         }
+    }
+
+    private Optional<ArtifactChange> findUpdates(Artifact artifact) throws ArtifactResolutionException {
+
+        final VersionResult versionResult = channelSession.findLatestMavenArtifactVersion(artifact.getGroupId(),
+                artifact.getArtifactId(), artifact.getExtension(), artifact.getClassifier(), null);
+        return compare(artifact, versionResult);
+    }
+
+    private static Optional<ArtifactChange> compare(Artifact artifact, VersionResult versionResult) {
+        final String latestVersion = versionResult.getVersion();
+        final Optional<String> channelName = versionResult.getChannelName();
         final Artifact latest = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(), latestVersion);
 
         if (latestVersion == null || latest.getVersion().equals(artifact.getVersion())) {
@@ -107,4 +227,20 @@ public class UpdateFinder implements AutoCloseable {
         this.executorService.shutdown();
     }
 
+    /*
+     * uses virtual threads if they are available (Java 21+), otherwise a pool of platform threads
+     */
+    static ExecutorService newExecutor(int maxParallelism) {
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            // virtual threads are not available, or are a preview feature that's not enabled
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Virtual threads not available, using platform threads", e);
+            }
+            return Executors.newWorkStealingPool(maxParallelism);
+        }
+    }
+
 }
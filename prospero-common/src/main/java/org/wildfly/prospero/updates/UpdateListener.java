@@ -0,0 +1,40 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.updates;
+
+import org.wildfly.prospero.api.ArtifactChange;
+
+/**
+ * Receives updates as soon as they are found, before the search for updates completes.
+ *
+ * The listener is always called from the thread searching for updates, one update at a time.
+ */
+@FunctionalInterface
+public interface UpdateListener {
+
+    UpdateListener NONE = change -> true;
+
+    /**
+     * called when an update is found.
+     *
+     * @param change - the update
+     * @return {@code true} to continue searching, {@code false} to stop the search
+     */
+    boolean updateFound(ArtifactChange change);
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.wfchannel;
+
+/**
+ * Usage of the installation cache during a maven session.
+ */
+public class ArtifactCacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final long installed;
+    private final long installTimeMillis;
+
+    public ArtifactCacheStatistics(long hits, long misses, long installed, long installTimeMillis) {
+        this.hits = hits;
+        this.misses = misses;
+        this.installed = installed;
+        this.installTimeMillis = installTimeMillis;
+    }
+
+    /**
+     * @return number of artifacts resolved from the installation cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of artifacts not found in the installation cache
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of artifacts installed in the local repository
+     */
+    public long getInstalled() {
+        return installed;
+    }
+
+    /**
+     * @return total time spent installing artifacts in the local repository
+     */
+    public long getInstallTimeMillis() {
+        return installTimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ArtifactCacheStatistics{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", installed=" + installed +
+                ", installTimeMillis=" + installTimeMillis +
+                '}';
+    }
+}
@@ -17,20 +17,29 @@
 
 package org.wildfly.prospero.wfchannel;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.commons.io.FileUtils;
 import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.eclipse.aether.util.repository.ChainedLocalRepositoryManager;
 import org.jboss.logging.Logger;
 import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
 import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.ConfigurationProperties;
 import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.DefaultSessionData;
 import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.SessionData;
 import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory;
 import org.eclipse.aether.impl.DefaultServiceLocator;
 import org.eclipse.aether.installation.InstallRequest;
@@ -42,6 +51,7 @@ import org.eclipse.aether.transport.http.HttpTransporterFactory;
 import org.jboss.galleon.ProvisioningException;
 import org.wildfly.prospero.ProsperoLogger;
 import org.wildfly.prospero.api.MavenOptions;
+import org.wildfly.prospero.galleon.ChannelResolutionScope;
 
 public class MavenSessionManager {
 
@@ -50,15 +60,39 @@ public class MavenSessionManager {
     public static final Path LOCAL_MAVEN_REPO = Paths.get(System.getProperty("user.home"), ".m2", "repository");
     private static final String AETHER_OFFLINE_PROTOCOLS_PROPERTY = "aether.offline.protocols";
     public static final String AETHER_OFFLINE_PROTOCOLS_VALUE = "file";
+    /**
+     * system property listing read-only local repositories, separated by the platform path separator. Artifacts found
+     * in those repositories are used directly and only artifacts missing from them are written to the provisioning repository.
+     */
+    public static final String READ_ONLY_REPOSITORIES_PROPERTY = "org.wildfly.prospero.local-repository.read-only";
+    // number of concurrent transfers of a single repository connector
+    static final String AETHER_CONNECTOR_THREADS_PROPERTY = "aether.connector.basic.threads";
+    // default number of concurrent transfers of the basic repository connector
+    static final int DEFAULT_DOWNLOAD_THREADS = 5;
+    static final String AETHER_MAX_CONNECTIONS_PER_ROUTE_PROPERTY = ConfigurationProperties.HTTP_MAX_CONNECTIONS_PER_ROUTE;
     private final Path provisioningRepo;
+    private final boolean temporaryProvisioningRepo;
+    private final boolean refresh;
+    private final Integer downloadThreads;
+    private final Integer maxConnectionsPerRepository;
     private final ProsperoMavenRepositoryListener repositoryListener = new ProsperoMavenRepositoryListener();
+    // shared by all the sessions, keeps the HTTP connection pools and update checks between the sessions
+    private final SessionData sessionData;
+    private volatile RepositorySystem repositorySystem;
+    private final ChannelResolutionScope resolutionScope;
     private boolean offline;
 
     public MavenSessionManager(MavenOptions mavenOptions) throws ProvisioningException {
         Objects.requireNonNull(mavenOptions);
 
         this.offline = mavenOptions.isOffline();
+        this.refresh = mavenOptions.isRefresh();
+        this.sessionData = new DefaultSessionData();
+        this.resolutionScope = new ChannelResolutionScope();
+        this.downloadThreads = mavenOptions.getDownloadThreads();
+        this.maxConnectionsPerRepository = mavenOptions.getMaxConnectionsPerRepository();
 
+        this.temporaryProvisioningRepo = mavenOptions.isNoLocalCache();
         if (mavenOptions.isNoLocalCache()) {
             // generate temp folder
             try {
@@ -83,13 +117,37 @@ public class MavenSessionManager {
     public MavenSessionManager(MavenSessionManager base) {
         this.offline = base.isOffline();
         this.provisioningRepo = base.provisioningRepo;
+        this.temporaryProvisioningRepo = base.temporaryProvisioningRepo;
+        this.refresh = base.refresh;
+        this.sessionData = base.sessionData;
+        this.resolutionScope = new ChannelResolutionScope();
+        this.repositorySystem = base.repositorySystem;
+        this.downloadThreads = base.downloadThreads;
+        this.maxConnectionsPerRepository = base.maxConnectionsPerRepository;
     }
 
     public MavenSessionManager() throws ProvisioningException {
         this(MavenOptions.DEFAULT_OPTIONS);
     }
 
+    /**
+     * returns the {@code RepositorySystem} of this session manager. The system, together with its connectors and transporters,
+     * is created on first use and shared by all the sessions created by this manager.
+     *
+     * @return
+     */
     public RepositorySystem newRepositorySystem() {
+        if (repositorySystem == null) {
+            synchronized (this) {
+                if (repositorySystem == null) {
+                    repositorySystem = createRepositorySystem();
+                }
+            }
+        }
+        return repositorySystem;
+    }
+
+    private static RepositorySystem createRepositorySystem() {
         final DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
         locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
         locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
@@ -111,6 +169,7 @@ public class MavenSessionManager {
     public DefaultRepositorySystemSession newRepositorySystemSession(RepositorySystem system,
                                                                      boolean resolveLocalCache) {
         DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
+        session.setData(sessionData);
 
         Path location;
         if (resolveLocalCache) {
@@ -124,11 +183,32 @@ public class MavenSessionManager {
         } else {
             session.setRepositoryListener(repositoryListener);
         }
-        session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, localRepo));
+        final LocalRepositoryManager localRepositoryManager = system.newLocalRepositoryManager(session, localRepo);
+        final List<Path> readOnlyRepositories = resolveLocalCache ? Collections.emptyList() : getReadOnlyRepositories();
+        if (readOnlyRepositories.isEmpty()) {
+            session.setLocalRepositoryManager(localRepositoryManager);
+        } else {
+            final List<LocalRepositoryManager> tail = new ArrayList<>();
+            for (Path readOnlyRepository : readOnlyRepositories) {
+                tail.add(system.newLocalRepositoryManager(session, new LocalRepository(readOnlyRepository.toFile())));
+            }
+            // artifacts in read-only repositories are used regardless of which remote repository they were downloaded from
+            session.setLocalRepositoryManager(new ChainedLocalRepositoryManager(localRepositoryManager, tail, true));
+        }
         session.setOffline(offline);
+        configureTransfers(session);
         return session;
     }
 
+    private void configureTransfers(DefaultRepositorySystemSession session) {
+        if (downloadThreads != null) {
+            session.setConfigProperty(AETHER_CONNECTOR_THREADS_PROPERTY, downloadThreads);
+        }
+        if (maxConnectionsPerRepository != null) {
+            session.setConfigProperty(AETHER_MAX_CONNECTIONS_PER_ROUTE_PROPERTY, maxConnectionsPerRepository);
+        }
+    }
+
     private void copyResolvedArtifactsToProvisiongRepository(DefaultRepositorySystemSession session) {
         // hack to work around Galleon provisioning again to generate examples
         // whenever an artifact is resolved by a repository using LOCAL_MAVE_REPO,
@@ -160,6 +240,46 @@ public class MavenSessionManager {
         return provisioningRepo;
     }
 
+    /**
+     * lists the read-only local repositories configured by {@code READ_ONLY_REPOSITORIES_PROPERTY}. Artifacts are resolved
+     * from those repositories before being downloaded into the provisioning repository.
+     *
+     * @return existing read-only repositories, excluding the provisioning repository
+     */
+    public List<Path> getReadOnlyRepositories() {
+        return readOnlyRepositories(provisioningRepo);
+    }
+
+    /**
+     * @see #getReadOnlyRepositories()
+     */
+    public static List<Path> readOnlyRepositories(Path provisioningRepo) {
+        final String value = System.getProperty(READ_ONLY_REPOSITORIES_PROPERTY);
+        if (value == null || value.isBlank()) {
+            return Collections.emptyList();
+        }
+        final List<Path> repositories = new ArrayList<>();
+        for (String path : value.split(File.pathSeparator)) {
+            if (path.isBlank()) {
+                continue;
+            }
+            final Path repository = Path.of(path.trim()).toAbsolutePath().normalize();
+            if (!Files.isDirectory(repository)) {
+                logger.debugf("Ignoring read-only local repository %s, it is not a directory", repository);
+            } else if (!repository.equals(provisioningRepo.toAbsolutePath().normalize()) && !repositories.contains(repository)) {
+                repositories.add(repository);
+            }
+        }
+        return repositories;
+    }
+
+    /**
+     * @return {@code true} if the provisioning repository is a temporary folder removed when the JVM exits
+     */
+    public boolean isTemporaryProvisioningRepo() {
+        return temporaryProvisioningRepo;
+    }
+
     public void setOffline(boolean offline) {
         this.offline = offline;
     }
@@ -168,6 +288,13 @@ public class MavenSessionManager {
         return offline;
     }
 
+    /**
+     * @return {@code true} if cached artifact versions should be looked up in the repositories again
+     */
+    public boolean isRefresh() {
+        return refresh;
+    }
+
     /**
      * returns a {@code ResolvedArtifactsStore} containing artifacts resolved during that maven session.
      *
@@ -176,4 +303,33 @@ public class MavenSessionManager {
     public ResolvedArtifactsStore getResolvedArtifactVersions() {
         return repositoryListener;
     }
+
+    /**
+     * returns the channel metadata and versions resolved by the channel sessions using this manager, so that the phases
+     * of an operation don't resolve the channels again. Each manager, including its copies, has its own scope, that is
+     * cleared by the action owning the manager when the operation finishes.
+     *
+     * @return
+     */
+    public ChannelResolutionScope getResolutionScope() {
+        return resolutionScope;
+    }
+
+    /**
+     * returns the number of artifacts downloaded concurrently from a repository.
+     *
+     * @return
+     */
+    public int getDownloadThreads() {
+        return downloadThreads == null ? DEFAULT_DOWNLOAD_THREADS : downloadThreads;
+    }
+
+    /**
+     * returns the usage of the installation cache during that maven session.
+     *
+     * @return
+     */
+    public ArtifactCacheStatistics getCacheStatistics() {
+        return repositoryListener.getCacheStatistics();
+    }
 }
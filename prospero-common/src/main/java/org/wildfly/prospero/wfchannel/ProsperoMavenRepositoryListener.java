@@ -20,18 +20,30 @@ package org.wildfly.prospero.wfchannel;
 import org.eclipse.aether.AbstractRepositoryListener;
 import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.LocalRepository;
 import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.MavenArtifact;
+import org.wildfly.prospero.galleon.CachedVersionResolver;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * listener called every time an artifact is resolved by Maven. Keeps track of artifacts resolved by Maven
+ * and of the usage of the installation cache.
  */
 class ProsperoMavenRepositoryListener extends AbstractRepositoryListener implements ResolvedArtifactsStore {
 
     private final Map<String, MavenArtifact> manifestVersions = new HashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder installed = new LongAdder();
+    private final LongAdder installTime = new LongAdder();
+    private final Map<String, Long> installing = new ConcurrentHashMap<>();
 
     @Override
     public MavenArtifact getManifestVersion(String groupId, String artifactId) {
@@ -42,6 +54,14 @@ class ProsperoMavenRepositoryListener extends AbstractRepositoryListener impleme
     public void artifactResolved(RepositoryEvent event) {
         final Artifact a = event.getArtifact();
 
+        if (isInstallationCache(event.getRepository())) {
+            if (a != null && a.getFile() != null) {
+                cacheHits.increment();
+            } else {
+                cacheMisses.increment();
+            }
+        }
+
         if (a == null || a.getFile() == null) {
             return;
         }
@@ -52,6 +72,35 @@ class ProsperoMavenRepositoryListener extends AbstractRepositoryListener impleme
         }
     }
 
+    @Override
+    public void artifactInstalling(RepositoryEvent event) {
+        if (event.getArtifact() != null) {
+            installing.put(event.getArtifact().toString(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void artifactInstalled(RepositoryEvent event) {
+        if (event.getArtifact() == null) {
+            return;
+        }
+        final Long start = installing.remove(event.getArtifact().toString());
+        installed.increment();
+        if (start != null) {
+            installTime.add(System.nanoTime() - start);
+        }
+    }
+
+    ArtifactCacheStatistics getCacheStatistics() {
+        return new ArtifactCacheStatistics(cacheHits.sum(), cacheMisses.sum(), installed.sum(),
+                TimeUnit.NANOSECONDS.toMillis(installTime.sum()));
+    }
+
+    private static boolean isInstallationCache(ArtifactRepository repository) {
+        return repository instanceof LocalRepository
+                && CachedVersionResolver.CACHE_REPOSITORY_TYPE.equals(((LocalRepository) repository).getContentType());
+    }
+
     private static String getKey(Artifact a) {
         return getKey(a.getGroupId(), a.getArtifactId(), a.getClassifier(), a.getExtension());
     }
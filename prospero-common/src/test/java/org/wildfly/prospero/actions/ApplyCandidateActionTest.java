@@ -25,6 +25,9 @@ import org.jboss.galleon.creator.FeaturePackCreator;
 import org.jboss.galleon.repo.RepositoryArtifactResolver;
 import org.jboss.galleon.universe.FeaturePackLocation;
 import org.jboss.galleon.universe.maven.repo.SimplisticMavenRepoManager;
+import org.jboss.galleon.util.HashUtils;
+import org.jboss.galleon.util.IoUtils;
+import org.jboss.galleon.util.LayoutUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -35,6 +38,7 @@ import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelManifestCoordinate;
 import org.wildfly.channel.ChannelManifestMapper;
 import org.wildfly.channel.ChannelMapper;
+import org.wildfly.channel.MavenArtifact;
 import org.wildfly.channel.Repository;
 import org.wildfly.channel.Stream;
 import org.wildfly.prospero.api.ArtifactChange;
@@ -42,6 +46,9 @@ import org.wildfly.prospero.api.FileConflict;
 import org.wildfly.prospero.api.SavedState;
 import org.wildfly.prospero.api.exceptions.InvalidUpdateCandidateException;
 import org.wildfly.prospero.galleon.ArtifactCache;
+import org.wildfly.prospero.galleon.FileLinks;
+import org.wildfly.prospero.galleon.FileTransfer;
+import org.wildfly.prospero.galleon.GalleonFeaturePackAnalyzer;
 import org.wildfly.prospero.installation.git.GitStorage;
 import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
 import org.wildfly.prospero.metadata.ManifestVersionRecord;
@@ -54,6 +61,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -173,6 +181,207 @@ public class ApplyCandidateActionTest {
     }
 
 
+    @Test
+    public void testUpdateCandidateWithoutRecordedHashes() throws Exception {
+        final DirState expectedState = dirBuilder
+                .addFile("prod1/p1.txt", "p1 1.0.1")
+                .build();
+
+        // build test packages
+        createSimpleFeaturePacks();
+
+        // install base and update, remove the hashes recorded in the update
+        install(installationPath, FPL_100);
+        prepareUpdate(updatePath, installationPath, FPL_101);
+        IoUtils.recursiveDelete(LayoutUtils.getHashesDir(updatePath));
+        final List<FileConflict> conflicts = new ApplyCandidateAction(installationPath, updatePath).applyUpdate(ApplyCandidateAction.Type.UPDATE);
+
+        // verify the files are compared by content
+        expectedState.assertState(installationPath);
+        assertThat(conflicts).isEmpty();
+    }
+
+    @Test
+    public void testDirectoryRemovedInUpdateIsDeleted() throws Exception {
+        final DirState expectedState = dirBuilder
+                .addFile("prod1/p1.txt", "prod1/p1 1.0.1")
+                .build();
+
+        // build test packages
+        creator.newFeaturePack(FeaturePackLocation.fromString(FPL_100).getFPID())
+                .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod1/p1 1.0.0")
+                .writeContent("prod2/nested/p1.txt", "prod2/nested/p1 1.0.0") // removed by update
+                .getFeaturePack();
+        creator.newFeaturePack(FeaturePackLocation.fromString(FPL_101).getFPID())
+                .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod1/p1 1.0.1")
+                .getFeaturePack();
+        creator.install();
+
+        install(installationPath, FPL_100);
+        prepareUpdate(updatePath, installationPath, FPL_101);
+        final List<FileConflict> conflicts = new ApplyCandidateAction(installationPath, updatePath).applyUpdate(ApplyCandidateAction.Type.UPDATE);
+
+        // verify
+        expectedState.assertState(installationPath);
+        assertThat(installationPath.resolve("prod2")).doesNotExist();
+        assertThat(conflicts).isEmpty();
+    }
+
+    @Test
+    public void testReopenedArtifactCacheIsNotReportedAsConflict() throws Exception {
+        createSimpleFeaturePacks();
+        install(installationPath, FPL_100);
+
+        // populate the cache and record it in the Galleon hashes, as done when the installation is provisioned
+        final Path cacheDir = installationPath.resolve(ArtifactCache.CACHE_FOLDER);
+        Files.delete(cacheDir.resolve(ArtifactCache.CACHE_FILENAME));
+        final Path artifactFile = temp.newFile("test-1.0.0.jar").toPath();
+        Files.writeString(artifactFile, "test artifact");
+        ArtifactCache.cleanInstancesCache();
+        ArtifactCache.getInstance(installationPath)
+                .cache(new MavenArtifact("org.test", "test", "jar", null, "1.0.0", artifactFile.toFile()));
+        ArtifactCache.getInstance(installationPath).updateIndex();
+        ArtifactCache.cleanInstancesCache();
+        ArtifactCache.getInstance(installationPath);
+        // record not covered by the binary index
+        Files.writeString(cacheDir.resolve(ArtifactCache.CACHE_FILENAME),
+                String.format("org.test:other:jar:1.0.0::%s::%s%n", HashUtils.hashFile(artifactFile),
+                        ArtifactCache.CACHE_FOLDER.resolve("test-1.0.0.jar").toString().replace(File.separatorChar, '/')),
+                StandardOpenOption.APPEND);
+        Files.createDirectories(LayoutUtils.getHashesDir(installationPath).resolve(ArtifactCache.CACHE_FOLDER));
+        GalleonFeaturePackAnalyzer.updateHashes(installationPath, ArtifactCache.getInstance(installationPath));
+
+        // opening the cache, e.g. by a read-only command, must not change the recorded files
+        ArtifactCache.cleanInstancesCache();
+        assertTrue(ArtifactCache.getInstance(installationPath).getArtifact("org.test", "other", "jar", null, "1.0.0").isPresent());
+
+        prepareUpdate(updatePath, installationPath, FPL_101);
+        final List<FileConflict> conflicts = new ApplyCandidateAction(installationPath, updatePath).applyUpdate(ApplyCandidateAction.Type.UPDATE);
+
+        assertThat(conflicts).isEmpty();
+        try (java.util.stream.Stream<Path> files = Files.list(installationPath.resolve(METADATA_DIR))) {
+            assertThat(files).noneMatch(f -> f.getFileName().toString().endsWith(Constants.DOT_GLNEW)
+                    || f.getFileName().toString().endsWith(Constants.DOT_GLOLD));
+        }
+    }
+
+    @Test
+    public void testCandidateFilesAreLinkedOnSameFileSystem() throws Exception {
+        createSimpleFeaturePacks();
+
+        install(installationPath, FPL_100);
+        prepareUpdate(updatePath, installationPath, FPL_101);
+        final ApplyCandidateAction action = new ApplyCandidateAction(installationPath, updatePath);
+        action.applyUpdate(ApplyCandidateAction.Type.UPDATE);
+
+        assertThat(installationPath.resolve("prod1/p1.txt")).hasContent("p1 1.0.1");
+        assertTrue(Files.isSameFile(updatePath.resolve("prod1/p1.txt"), installationPath.resolve("prod1/p1.txt")));
+        assertThat(action.getTransferredFiles(FileLinks.Method.HARDLINK)).isGreaterThan(0);
+        assertThat(action.getTransferredFiles(FileLinks.Method.COPY)).isEqualTo(0);
+    }
+
+    @Test
+    public void testCandidateFilesAreCopiedIfConfigured() throws Exception {
+        createSimpleFeaturePacks();
+
+        install(installationPath, FPL_100);
+        prepareUpdate(updatePath, installationPath, FPL_101);
+        final ApplyCandidateAction action = new ApplyCandidateAction(installationPath, updatePath);
+        System.setProperty(FileTransfer.TRANSFER_PROPERTY, "copy");
+        try {
+            action.applyUpdate(ApplyCandidateAction.Type.UPDATE);
+        } finally {
+            System.clearProperty(FileTransfer.TRANSFER_PROPERTY);
+        }
+
+        assertThat(installationPath.resolve("prod1/p1.txt")).hasContent("p1 1.0.1");
+        assertFalse(Files.isSameFile(updatePath.resolve("prod1/p1.txt"), installationPath.resolve("prod1/p1.txt")));
+        assertThat(action.getTransferredFiles(FileLinks.Method.HARDLINK)).isEqualTo(0);
+        assertThat(action.getTransferredFiles(FileLinks.Method.COPY)).isGreaterThan(0);
+    }
+
+    @Test
+    public void testStagedUpdateKeepsPreviousInstallation() throws Exception {
+        final DirState expectedState = dirBuilder
+                .addFile("prod1/p1.txt", "user prod1/p1")
+                .addFile("prod1/p1.txt.glnew", "prod1/p1 1.0.1")
+                .addFile("prod1/p2.txt", "prod1/p2 1.0.0")
+                .build();
+
+        // build test packages
+        creator.newFeaturePack(FeaturePackLocation.fromString(FPL_100).getFPID())
+                .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod1/p1 1.0.0")
+                .writeContent("prod1/p2.txt", "prod1/p2 1.0.0") // unchanged by update
+                .writeContent("prod2/p1.txt", "prod2/p1 1.0.0") // removed by update
+                .getFeaturePack();
+        creator.newFeaturePack(FeaturePackLocation.fromString(FPL_101).getFPID())
+                .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod1/p1 1.0.1")
+                .writeContent("prod1/p2.txt", "prod1/p2 1.0.0")
+                .getFeaturePack();
+        creator.install();
+
+        install(installationPath, FPL_100);
+        writeContent("prod1/p1.txt", "user prod1/p1");
+        prepareUpdate(updatePath, installationPath, FPL_101);
+        final List<FileConflict> conflicts = new ApplyCandidateAction(installationPath, updatePath)
+                .applyUpdateStaged(ApplyCandidateAction.Type.UPDATE);
+
+        // verify
+        expectedState.assertState(installationPath);
+        assertThat(conflicts).containsExactly(
+                FileConflict.userModified("prod1/p1.txt").updateModified().userPreserved());
+        final Path previousPath = StagedInstallation.previousDir(installationPath);
+        assertThat(previousPath.resolve("prod2/p1.txt")).hasContent("prod2/p1 1.0.0");
+        assertThat(new StagedInstallation(installationPath).getStagingDir()).doesNotExist();
+        try (GitStorage gitStorage = new GitStorage(installationPath)) {
+            assertEquals(SavedState.Type.UPDATE, gitStorage.getRevisions().get(0).getType());
+        }
+
+        // restore the installation from before the update
+        assertTrue(ApplyCandidateAction.restorePreviousInstallation(installationPath));
+        assertThat(installationPath.resolve("prod2/p1.txt")).hasContent("prod2/p1 1.0.0");
+        assertThat(installationPath.resolve("prod1/p1.txt.glnew")).doesNotExist();
+        assertThat(previousPath.resolve("prod1/p1.txt.glnew")).exists();
+    }
+
+    @Test
+    public void testFailedStagedUpdateLeavesInstallationUnchanged() throws Exception {
+        createSimpleFeaturePacks();
+
+        install(installationPath, FPL_100);
+        prepareUpdate(updatePath, installationPath, FPL_101);
+        // corrupt the candidate after it was verified
+        IoUtils.recursiveDelete(updatePath.resolve(Constants.PROVISIONED_STATE_DIR));
+
+        assertThrows(Exception.class, () -> new ApplyCandidateAction(installationPath, updatePath)
+                .applyUpdateStaged(ApplyCandidateAction.Type.UPDATE));
+
+        assertThat(installationPath.resolve("prod1/p1.txt")).hasContent("p1 1.0.0");
+        assertThat(new StagedInstallation(installationPath).getStagingDir()).doesNotExist();
+        assertThat(StagedInstallation.previousDir(installationPath)).doesNotExist();
+    }
+
+    @Test
+    public void testStagingFailureIsReportedSeparately() throws Exception {
+        createSimpleFeaturePacks();
+
+        // the name of the staging directory is too long to be created
+        final Path installation = temp.newFolder("i".repeat(250)).toPath();
+        install(installation, FPL_100);
+        prepareUpdate(updatePath, installation, FPL_101);
+
+        final ProvisioningException ex = assertThrows(ProvisioningException.class, () -> new ApplyCandidateAction(installation, updatePath)
+                .applyUpdateStaged(ApplyCandidateAction.Type.UPDATE));
+
+        assertThat(ex.getMessage()).startsWith("PRSP000268");
+        assertThat(installation.resolve("prod1/p1.txt")).hasContent("p1 1.0.0");
+        assertThat(installation.getParent()).isDirectoryNotContaining("glob:**" + StagedInstallation.STAGING_SUFFIX);
+    }
+
     @Test
     public void testUserChangesInSystemPaths() throws Exception {
         final DirState expectedState = dirBuilder
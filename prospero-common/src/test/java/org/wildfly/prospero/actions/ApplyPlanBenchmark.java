@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.actions;
+
+import org.jboss.galleon.util.IoUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares applying a synthetic candidate of {@code DEFAULT_FILES} files to an empty installation sequentially and
+ * using the parallel {@code ApplyPlan}. The best time of {@code ROUNDS} runs is reported.
+ *
+ * Not executed as part of the test suite. Run the {@code main} method with the module's test classpath, optionally
+ * passing the number of files and the number of threads as arguments.
+ */
+public class ApplyPlanBenchmark {
+
+    private static final int DEFAULT_FILES = 20_000;
+    private static final int FILES_PER_DIRECTORY = 50;
+    private static final int FILE_SIZE = 4 * 1024;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        final int files = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FILES;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : ApplyPlan.maxThreads();
+
+        final Path candidate = Files.createTempDirectory("benchmark-candidate");
+        try {
+            createCandidate(candidate, files);
+
+            // warm up
+            apply(candidate, 1);
+            apply(candidate, threads);
+
+            // alternate the runs and keep the best time of each, the filesystem timings are noisy
+            long sequential = Long.MAX_VALUE;
+            long parallel = Long.MAX_VALUE;
+            for (int i = 0; i < ROUNDS; i++) {
+                sequential = Math.min(sequential, apply(candidate, 1));
+                parallel = Math.min(parallel, apply(candidate, threads));
+            }
+
+            System.out.printf("%d files, sequential:    %d ms%n", files, TimeUnit.NANOSECONDS.toMillis(sequential));
+            System.out.printf("%d files, %2d threads:   %d ms%n", files, threads, TimeUnit.NANOSECONDS.toMillis(parallel));
+        } finally {
+            IoUtils.recursiveDelete(candidate);
+        }
+    }
+
+    private static void createCandidate(Path candidate, int files) throws Exception {
+        final byte[] content = new byte[FILE_SIZE];
+        for (int i = 0; i < files; i++) {
+            final Path dir = candidate.resolve("modules/system/layers/base/dir" + (i / FILES_PER_DIRECTORY) + "/main");
+            Files.createDirectories(dir);
+            content[0] = (byte) i;
+            Files.write(dir.resolve("file" + i + ".jar"), content);
+        }
+    }
+
+    /*
+     * copies the whole candidate into an empty installation and deletes it again
+     */
+    private static long apply(Path candidate, int threads) throws Exception {
+        final Path installation = Files.createTempDirectory("benchmark-installation");
+        try {
+            final ApplyPlan copyPlan = new ApplyPlan();
+            final ApplyPlan deletePlan = new ApplyPlan();
+            try (Stream<Path> paths = Files.walk(candidate)) {
+                paths.filter(Files::isRegularFile).forEach(file -> {
+                    final Path target = installation.resolve(candidate.relativize(file));
+                    copyPlan.copy(file, target);
+                    deletePlan.deleteFile(target);
+                });
+            }
+
+            final long start = System.nanoTime();
+            copyPlan.execute(threads);
+            deletePlan.execute(threads);
+            return System.nanoTime() - start;
+        } finally {
+            IoUtils.recursiveDelete(installation);
+        }
+    }
+}
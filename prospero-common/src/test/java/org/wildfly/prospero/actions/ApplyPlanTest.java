@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.actions;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ApplyPlanTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private Path source;
+    private Path target;
+
+    @Before
+    public void setUp() throws Exception {
+        source = temp.newFolder("source").toPath();
+        target = temp.newFolder("target").toPath();
+    }
+
+    @Test
+    public void copyFilesInParallel() throws Exception {
+        final ApplyPlan plan = new ApplyPlan();
+        for (int i = 0; i < 500; i++) {
+            final Path file = source.resolve("dir" + (i % 7)).resolve("nested").resolve("file" + i + ".txt");
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "content " + i);
+            plan.copy(file, target.resolve(source.relativize(file)));
+        }
+        // existing files are replaced
+        Files.createDirectories(target.resolve("dir0/nested"));
+        Files.writeString(target.resolve("dir0/nested/file0.txt"), "old content");
+
+        plan.execute(4);
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(target.resolve("dir" + (i % 7)).resolve("nested").resolve("file" + i + ".txt"))
+                    .hasContent("content " + i);
+        }
+    }
+
+    @Test
+    public void deleteFilesAndEmptyDirectories() throws Exception {
+        final Path removed = Files.createDirectories(target.resolve("removed/nested"));
+        Files.writeString(removed.resolve("one.txt"), "one");
+        Files.writeString(removed.resolve("two.txt"), "two");
+        final Path kept = Files.createDirectories(target.resolve("kept"));
+        Files.writeString(kept.resolve("one.txt"), "one");
+        Files.writeString(kept.resolve("user.txt"), "user");
+
+        final ApplyPlan plan = new ApplyPlan();
+        plan.deleteFile(removed.resolve("one.txt"));
+        plan.deleteFile(removed.resolve("two.txt"));
+        plan.deleteFile(kept.resolve("one.txt"));
+        plan.deleteDirectoryIfEmpty(removed);
+        plan.deleteDirectoryIfEmpty(removed.getParent());
+        plan.deleteDirectoryIfEmpty(kept);
+        plan.execute(4);
+
+        assertThat(target.resolve("removed")).doesNotExist();
+        assertThat(kept.resolve("one.txt")).doesNotExist();
+        assertThat(kept.resolve("user.txt")).hasContent("user");
+    }
+
+    @Test
+    public void copyFailureIsReported() throws Exception {
+        final ApplyPlan plan = new ApplyPlan();
+        for (int i = 0; i < 100; i++) {
+            final Path file = source.resolve("file" + i + ".txt");
+            Files.writeString(file, "content " + i);
+            plan.copy(file, target.resolve(file.getFileName()));
+        }
+        plan.copy(source.resolve("missing.txt"), target.resolve("missing.txt"));
+
+        assertThatThrownBy(() -> plan.execute(4))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.actions;
+
+import org.jboss.galleon.Constants;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.prospero.galleon.ArtifactCache;
+import org.wildfly.prospero.metadata.ProsperoMetadataUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StagedInstallationTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private Path installation;
+    private StagedInstallation staged;
+
+    @Before
+    public void setUp() throws Exception {
+        installation = temp.newFolder("server").toPath();
+        staged = new StagedInstallation(installation);
+    }
+
+    @Test
+    public void metadataIsCopiedAndOtherFilesAreLinked() throws Exception {
+        write("modules/a.jar", "a");
+        write(ProsperoMetadataUtils.METADATA_DIR + "/manifest.yaml", "manifest");
+        write(Constants.PROVISIONED_STATE_DIR + "/provisioning.xml", "provisioning");
+        write(ArtifactCache.CACHE_FOLDER + "/b.jar", "b");
+        write(ArtifactCache.CACHE_FOLDER + "/" + ArtifactCache.CACHE_FILENAME, "b.jar");
+
+        staged.stage();
+
+        assertLinked("modules/a.jar", true);
+        assertLinked(ArtifactCache.CACHE_FOLDER + "/b.jar", true);
+        assertLinked(ProsperoMetadataUtils.METADATA_DIR + "/manifest.yaml", false);
+        assertLinked(Constants.PROVISIONED_STATE_DIR + "/provisioning.xml", false);
+        assertLinked(ArtifactCache.CACHE_FOLDER + "/" + ArtifactCache.CACHE_FILENAME, false);
+    }
+
+    @Test
+    public void runtimeFilesAreCopied() throws Exception {
+        write("standalone/configuration/standalone.xml", "config");
+        write("standalone/data/content/a.bin", "data");
+        write("domain/log/server.log", "log");
+        write("bin/standalone.conf", "conf");
+        write("bin/standalone.sh", "script");
+
+        staged.stage();
+
+        assertLinked("standalone/configuration/standalone.xml", false);
+        assertLinked("standalone/data/content/a.bin", false);
+        assertLinked("domain/log/server.log", false);
+        assertLinked("bin/standalone.conf", false);
+        assertLinked("bin/standalone.sh", true);
+    }
+
+    @Test
+    public void symbolicLinksAreRecreated() throws Exception {
+        write("a.txt", "a");
+        Files.createSymbolicLink(installation.resolve("link.txt"), Path.of("a.txt"));
+        Files.createSymbolicLink(installation.resolve("broken.link"), Path.of("missing.txt"));
+
+        staged.stage();
+
+        assertThat(Files.readSymbolicLink(staged.getStagingDir().resolve("link.txt"))).isEqualTo(Path.of("a.txt"));
+        assertThat(Files.readSymbolicLink(staged.getStagingDir().resolve("broken.link"))).isEqualTo(Path.of("missing.txt"));
+    }
+
+    @Test
+    public void swapKeepsPreviousInstallation() throws Exception {
+        write("a.txt", "old");
+        staged.stage();
+        Files.delete(staged.getStagingDir().resolve("a.txt"));
+        Files.writeString(staged.getStagingDir().resolve("a.txt"), "new");
+
+        staged.swap();
+
+        assertThat(installation.resolve("a.txt")).hasContent("new");
+        assertThat(staged.getPreviousDir().resolve("a.txt")).hasContent("old");
+        assertThat(staged.getStagingDir()).doesNotExist();
+
+        assertThat(StagedInstallation.restorePrevious(installation)).isTrue();
+        assertThat(installation.resolve("a.txt")).hasContent("old");
+        assertThat(staged.getPreviousDir().resolve("a.txt")).hasContent("new");
+    }
+
+    @Test
+    public void restoreWithoutPreviousInstallationDoesNothing() throws Exception {
+        write("a.txt", "old");
+
+        assertThat(StagedInstallation.restorePrevious(installation)).isFalse();
+        assertThat(installation.resolve("a.txt")).hasContent("old");
+    }
+
+    @Test
+    public void discardRemovesStagingDirectory() throws Exception {
+        write("a.txt", "old");
+        staged.stage();
+
+        staged.discard();
+
+        assertThat(staged.getStagingDir()).doesNotExist();
+        assertThat(installation.resolve("a.txt")).hasContent("old");
+    }
+
+    private void write(String path, String content) throws IOException {
+        final Path file = installation.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private void assertLinked(String path, boolean linked) throws IOException {
+        final Path stagedFile = staged.getStagingDir().resolve(path);
+        assertThat(stagedFile).hasSameTextualContentAs(installation.resolve(path));
+        assertThat(Files.isSameFile(stagedFile, installation.resolve(path))).isEqualTo(linked);
+    }
+}
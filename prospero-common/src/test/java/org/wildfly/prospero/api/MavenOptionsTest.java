@@ -156,4 +156,53 @@ public class MavenOptionsTest {
         assertEquals(base, MavenOptions.read(target));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void refreshOptionIsNotPersisted() throws Exception {
+        MavenOptions base = MavenOptions.builder()
+                .setOffline(true)
+                .setRefresh(true)
+                .build();
+        Path target = temp.newFile().toPath();
+        base.write(target);
+
+        final MavenOptions read = MavenOptions.read(target);
+        assertTrue(read.isOffline());
+        assertFalse(read.isRefresh());
+    }
+
+    @Test
+    public void readWriteTransferOptions() throws Exception {
+        MavenOptions base = MavenOptions.builder()
+                .setOffline(false)
+                .setNoLocalCache(true)
+                .setDownloadThreads(8)
+                .setMaxConnectionsPerRepository(2)
+                .build();
+        Path target = temp.newFile().toPath();
+        base.write(target);
+
+        assertEquals(base, MavenOptions.read(target));
+    }
+
+    @Test
+    public void mergeTransferOptions() throws Exception {
+        MavenOptions base = MavenOptions.builder()
+                .setDownloadThreads(8)
+                .setMaxConnectionsPerRepository(2)
+                .build();
+
+        MavenOptions override = MavenOptions.builder()
+                .setDownloadThreads(3)
+                .build();
+
+        final MavenOptions merged = base.merge(override);
+        assertEquals(Integer.valueOf(3), merged.getDownloadThreads());
+        assertEquals(Integer.valueOf(2), merged.getMaxConnectionsPerRepository());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void downloadThreadsHaveToBePositive() throws Exception {
+        MavenOptions.builder().setDownloadThreads(0);
+    }
+
+}
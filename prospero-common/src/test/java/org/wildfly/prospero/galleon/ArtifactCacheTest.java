@@ -17,6 +17,7 @@
 
 package org.wildfly.prospero.galleon;
 
+import org.jboss.galleon.util.HashUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,12 +32,23 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -104,6 +116,7 @@ public class ArtifactCacheTest {
         cache.record(anArtifact, installationDir.resolve("target.jar"));
         cache.record(otherArtifact, installationDir.resolve("target2.jar"));
         cache.record(anArtifact, installationDir.resolve("target3.jar"));
+        cache.compact();
 
         final List<String> lines = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
         assertEquals(2, lines.size());
@@ -113,6 +126,216 @@ public class ArtifactCacheTest {
                 .doesNotHaveDuplicates();
     }
 
+    @Test
+    public void recordAppendsSupersedingRecord() throws Exception {
+        Files.writeString(installationDir.resolve("target.jar"), "");
+        Files.writeString(installationDir.resolve("target3.jar"), "");
+        cache.record(anArtifact, installationDir.resolve("target.jar"));
+        cache.record(otherArtifact, installationDir.resolve("target2.jar"));
+        cache.record(anArtifact, installationDir.resolve("target3.jar"));
+
+        final List<String> lines = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
+        assertEquals(3, lines.size());
+        assertThat(cache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .contains(installationDir.resolve("target3.jar").toFile());
+
+        // the latest record is used when the descriptor is read again
+        ArtifactCache.cleanInstancesCache();
+        assertThat(ArtifactCache.getInstance(installationDir).getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .contains(installationDir.resolve("target3.jar").toFile());
+    }
+
+    @Test
+    public void recordAllAddsAllArtifacts() throws Exception {
+        Files.copy(anArtifact.getFile().toPath(), installationDir.resolve("target.jar"));
+        Files.copy(otherArtifact.getFile().toPath(), installationDir.resolve("target2.jar"));
+        final Map<MavenArtifact, Path> artifacts = new LinkedHashMap<>();
+        artifacts.put(anArtifact, installationDir.resolve("target.jar"));
+        artifacts.put(otherArtifact, installationDir.resolve("target2.jar"));
+
+        cache.recordAll(artifacts);
+
+        final List<String> lines = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
+        assertEquals(2, lines.size());
+        assertThat(cache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .contains(installationDir.resolve("target.jar").toFile());
+        assertThat(cache.getArtifact(GROUP_ID + "Two", ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .contains(installationDir.resolve("target2.jar").toFile());
+    }
+
+    @Test
+    public void descriptorIsCompactedAfterThreshold() throws Exception {
+        final Path cacheList = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME);
+        cache.record(otherArtifact, installationDir.resolve("target2.jar"));
+        for (int i = 0; i < ArtifactCache.COMPACTION_THRESHOLD; i++) {
+            cache.record(anArtifact, installationDir.resolve("target.jar"));
+        }
+        assertEquals(ArtifactCache.COMPACTION_THRESHOLD + 1, Files.readAllLines(cacheList).size());
+
+        cache.record(anArtifact, installationDir.resolve("target.jar"));
+
+        assertEquals(2, Files.readAllLines(cacheList).size());
+    }
+
+    @Test
+    public void recordAppendsToDescriptorWithoutTrailingNewLine() throws Exception {
+        final Path cacheList = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME);
+        Files.writeString(cacheList, GROUP_ID + "Two:" + ARTIFACT_ID + ":" + EXTENSION + ":" + CLASSIFIER + ":" + VERSION + "::abcd::target2.jar");
+        ArtifactCache.cleanInstancesCache();
+        cache = ArtifactCache.getInstance(installationDir);
+
+        cache.record(anArtifact, installationDir.resolve("target.jar"));
+
+        assertThat(Files.readAllLines(cacheList))
+                .hasSize(2)
+                .allMatch(l -> l.split(ArtifactCache.CACHE_LINE_SEPARATOR).length == 3);
+    }
+
+    @Test
+    public void getArtifactIsNotBlockedByConcurrentRecords() throws Exception {
+        cache.cache(anArtifact);
+        final Path target = installationDir.resolve("target.jar");
+        Files.writeString(target, "test");
+
+        final int readers = 4;
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicInteger misses = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(readers);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                futures.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        if (cache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION).isEmpty()) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            final int recorded = ArtifactCache.COMPACTION_THRESHOLD * 2;
+            for (int i = 0; i < recorded; i++) {
+                cache.record(new MavenArtifact(GROUP_ID, ARTIFACT_ID + i, EXTENSION, CLASSIFIER, VERSION, target.toFile()), target);
+            }
+            done.set(true);
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+
+            assertEquals(0, misses.get());
+            for (int i = 0; i < recorded; i++) {
+                assertTrue(cache.getArtifact(GROUP_ID, ARTIFACT_ID + i, EXTENSION, CLASSIFIER, VERSION).isPresent());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void recordingArtifactsDoesNotWriteBinaryIndex() throws Exception {
+        Files.copy(anArtifact.getFile().toPath(), installationDir.resolve("target.jar"));
+        cache.record(anArtifact, installationDir.resolve("target.jar"));
+
+        assertFalse(Files.exists(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCacheIndex.INDEX_FILENAME)));
+    }
+
+    @Test
+    public void binaryIndexIsWrittenWhenIndexIsUpdated() throws Exception {
+        Files.copy(anArtifact.getFile().toPath(), installationDir.resolve("target.jar"));
+        cache.record(anArtifact, installationDir.resolve("target.jar"));
+        cache.updateIndex();
+
+        ArtifactCache.cleanInstancesCache();
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+
+        assertTrue(Files.exists(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCacheIndex.INDEX_FILENAME)));
+        assertTrue(reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION).isPresent());
+    }
+
+    @Test
+    public void openingCacheDoesNotWriteBinaryIndex() throws Exception {
+        Files.copy(anArtifact.getFile().toPath(), installationDir.resolve("target.jar"));
+        cache.record(anArtifact, installationDir.resolve("target.jar"));
+        final Path indexFile = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCacheIndex.INDEX_FILENAME);
+
+        ArtifactCache.cleanInstancesCache();
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+
+        assertTrue(reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION).isPresent());
+        assertFalse(Files.exists(indexFile));
+    }
+
+    @Test
+    public void recordsAppendedAfterBinaryIndexSupersedeIndexedRecords() throws Exception {
+        Files.copy(anArtifact.getFile().toPath(), installationDir.resolve("target.jar"));
+        Files.writeString(installationDir.resolve("target2.jar"), "test");
+        cache.record(anArtifact, installationDir.resolve("target.jar"));
+        cache.updateIndex();
+        ArtifactCache.cleanInstancesCache();
+        ArtifactCache.getInstance(installationDir)
+                .record(new MavenArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION, installationDir.resolve("target2.jar").toFile()),
+                        installationDir.resolve("target2.jar"));
+        ArtifactCache.getInstance(installationDir).record(otherArtifact, installationDir.resolve("target.jar"));
+
+        ArtifactCache.cleanInstancesCache();
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+
+        assertEquals(Optional.of(installationDir.resolve("target2.jar").toFile()),
+                reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION));
+        assertTrue(reopened.getArtifact(GROUP_ID + "Two", ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION).isPresent());
+    }
+
+    @Test
+    public void staleBinaryIndexIsNotUsed() throws Exception {
+        Files.copy(anArtifact.getFile().toPath(), installationDir.resolve("target.jar"));
+        cache.record(anArtifact, installationDir.resolve("target.jar"));
+        cache.updateIndex();
+        ArtifactCache.cleanInstancesCache();
+        ArtifactCache.getInstance(installationDir);
+        // the descriptor is rewritten, e.g. by the Galleon plugin
+        final Path cacheList = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME);
+        Files.writeString(cacheList, String.format("%s:%s:%s:%s:%s::%s::%s\n", GROUP_ID + "Two", ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION,
+                HashUtils.hashFile(otherArtifact.getFile().toPath()), "target.jar"));
+
+        ArtifactCache.cleanInstancesCache();
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+
+        assertEquals(Optional.empty(), reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION));
+        assertTrue(reopened.getArtifact(GROUP_ID + "Two", ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION).isPresent());
+    }
+
+    @Test
+    public void corruptedBinaryIndexIsIgnored() throws Exception {
+        Files.copy(anArtifact.getFile().toPath(), installationDir.resolve("target.jar"));
+        cache.record(anArtifact, installationDir.resolve("target.jar"));
+        cache.updateIndex();
+        Files.writeString(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCacheIndex.INDEX_FILENAME), "corrupted");
+
+        ArtifactCache.cleanInstancesCache();
+        final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+
+        assertTrue(reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION).isPresent());
+    }
+
+    @Test
+    public void binaryIndexIsNotUsedIfDisabled() throws Exception {
+        Files.copy(anArtifact.getFile().toPath(), installationDir.resolve("target.jar"));
+        System.setProperty(ArtifactCache.BINARY_INDEX_PROPERTY, "false");
+        try {
+            ArtifactCache.cleanInstancesCache();
+            ArtifactCache.getInstance(installationDir).record(anArtifact, installationDir.resolve("target.jar"));
+            ArtifactCache.getInstance(installationDir).updateIndex();
+            ArtifactCache.cleanInstancesCache();
+            final ArtifactCache reopened = ArtifactCache.getInstance(installationDir);
+
+            assertTrue(reopened.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION).isPresent());
+            assertFalse(Files.exists(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCacheIndex.INDEX_FILENAME)));
+        } finally {
+            System.clearProperty(ArtifactCache.BINARY_INDEX_PROPERTY);
+        }
+    }
+
     @Test
     public void cacheAddsArtifactToCacheFolderAndRecordsIt() throws Exception {
         cache.cache(anArtifact);
@@ -158,6 +381,149 @@ public class ArtifactCacheTest {
         assertEquals(Optional.empty(), cachedArtifact);
     }
 
+    @Test
+    public void cacheRecordsFileFingerprint() throws Exception {
+        cache.cache(anArtifact);
+
+        final List<String> lines = Files.readAllLines(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME));
+        final Path cachedFile = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(anArtifact.getFile().getName());
+        assertThat(lines.get(0))
+                .endsWith(ArtifactCache.CACHE_LINE_SEPARATOR + ArtifactCache.FileFingerprint.of(cachedFile).asString());
+    }
+
+    @Test
+    public void getArtifactTrustsMatchingFingerprint() throws Exception {
+        Files.writeString(anArtifact.getFile().toPath(), "content");
+        cache.cache(anArtifact);
+        final Path cachedFile = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(anArtifact.getFile().getName());
+        // change the content without changing the size or modification time
+        final FileTime lastModified = Files.getLastModifiedTime(cachedFile);
+        Files.writeString(cachedFile, "CONTENT");
+        Files.setLastModifiedTime(cachedFile, lastModified);
+
+        assertThat(cache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+    }
+
+    @Test
+    public void getArtifactInStrictModeAlwaysVerifiesHash() throws Exception {
+        Files.writeString(anArtifact.getFile().toPath(), "content");
+        cache.cache(anArtifact);
+        final Path cachedFile = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(anArtifact.getFile().getName());
+        final FileTime lastModified = Files.getLastModifiedTime(cachedFile);
+        Files.writeString(cachedFile, "CONTENT");
+        Files.setLastModifiedTime(cachedFile, lastModified);
+
+        System.setProperty(ArtifactCache.STRICT_VALIDATION_PROPERTY, "true");
+        try {
+            ArtifactCache.cleanInstancesCache();
+            final ArtifactCache strictCache = ArtifactCache.getInstance(installationDir);
+
+            assertEquals(Optional.empty(), strictCache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION));
+        } finally {
+            System.clearProperty(ArtifactCache.STRICT_VALIDATION_PROPERTY);
+        }
+    }
+
+    @Test
+    public void cacheLinksArtifactsFromSharedStore() throws Exception {
+        Files.writeString(anArtifact.getFile().toPath(), "content");
+        System.setProperty(SharedArtifactStore.STORE_PATH_PROPERTY, temp.newFolder("store").getAbsolutePath());
+        try {
+            ArtifactCache.cleanInstancesCache();
+            final Path otherInstallation = temp.newFolder().toPath();
+            ArtifactCache.getInstance(installationDir).cache(anArtifact);
+            ArtifactCache.getInstance(otherInstallation).cache(anArtifact);
+
+            final Path cachedFile = ArtifactCache.CACHE_FOLDER.resolve(anArtifact.getFile().getName());
+            assertTrue(Files.isSameFile(installationDir.resolve(cachedFile), otherInstallation.resolve(cachedFile)));
+        } finally {
+            System.clearProperty(SharedArtifactStore.STORE_PATH_PROPERTY);
+        }
+    }
+
+    @Test
+    public void findInSharedStoreDoesNotChangeInstallationCache() throws Exception {
+        Files.writeString(anArtifact.getFile().toPath(), "content");
+        System.setProperty(SharedArtifactStore.STORE_PATH_PROPERTY, temp.newFolder("store").getAbsolutePath());
+        try {
+            ArtifactCache.cleanInstancesCache();
+            ArtifactCache.getInstance(temp.newFolder().toPath()).cache(anArtifact);
+            final ArtifactCache otherCache = ArtifactCache.getInstance(installationDir);
+            final Path cacheDir = installationDir.resolve(ArtifactCache.CACHE_FOLDER);
+            final long cachedFiles = Files.list(cacheDir).count();
+
+            final Optional<File> found = otherCache.findInSharedStore(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION);
+
+            assertTrue(found.isPresent());
+            assertThat(found.get()).hasSameBinaryContentAs(anArtifact.getFile());
+            assertEquals(Optional.empty(), otherCache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION));
+            assertEquals(cachedFiles, Files.list(cacheDir).count());
+        } finally {
+            System.clearProperty(SharedArtifactStore.STORE_PATH_PROPERTY);
+        }
+    }
+
+    @Test
+    public void cacheAddsArtifactFoundInSharedStore() throws Exception {
+        Files.writeString(anArtifact.getFile().toPath(), "content");
+        System.setProperty(SharedArtifactStore.STORE_PATH_PROPERTY, temp.newFolder("store").getAbsolutePath());
+        try {
+            ArtifactCache.cleanInstancesCache();
+            ArtifactCache.getInstance(temp.newFolder().toPath()).cache(anArtifact);
+            final ArtifactCache sourceCache = ArtifactCache.getInstance(installationDir);
+            final File stored = sourceCache.findInSharedStore(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION).get();
+
+            final Path candidate = temp.newFolder().toPath();
+            final ArtifactCache candidateCache = ArtifactCache.getInstance(candidate);
+            candidateCache.cache(new MavenArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION, stored));
+
+            final Path cachedFile = candidate.resolve(ArtifactCache.CACHE_FOLDER)
+                    .resolve(ARTIFACT_ID + "-" + VERSION + "-" + CLASSIFIER + "." + EXTENSION);
+            assertEquals(Optional.of(cachedFile.toFile()), candidateCache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION));
+            assertTrue(Files.isSameFile(stored.toPath(), cachedFile));
+        } finally {
+            System.clearProperty(SharedArtifactStore.STORE_PATH_PROPERTY);
+        }
+    }
+
+    @Test
+    public void findInSharedStoreReturnsEmptyIfStoreIsNotConfigured() throws Exception {
+        assertEquals(Optional.empty(), cache.findInSharedStore(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION));
+    }
+
+    @Test
+    public void getArtifactVerifiesHashIfNoFingerprintRecorded() throws Exception {
+        Files.writeString(installationDir.resolve("target.jar"), "content");
+        Files.writeString(installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(ArtifactCache.CACHE_FILENAME),
+                GROUP_ID + ":" + ARTIFACT_ID + ":" + EXTENSION + ":" + CLASSIFIER + ":" + VERSION + ArtifactCache.CACHE_LINE_SEPARATOR
+                        + HashUtils.hashFile(installationDir.resolve("target.jar")) + ArtifactCache.CACHE_LINE_SEPARATOR + "target.jar");
+        ArtifactCache.cleanInstancesCache();
+        cache = ArtifactCache.getInstance(installationDir);
+
+        assertThat(cache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION))
+                .isPresent();
+
+        Files.writeString(installationDir.resolve("target.jar"), "CONTENT");
+        assertEquals(Optional.empty(), cache.getArtifact(GROUP_ID, ARTIFACT_ID, EXTENSION, CLASSIFIER, VERSION));
+    }
+
+    @Test
+    public void getKnownHashesReturnsHashesOfUnchangedFiles() throws Exception {
+        Files.writeString(anArtifact.getFile().toPath(), "content");
+        Files.writeString(otherArtifact.getFile().toPath(), "other content");
+        cache.cacheAll(List.of(anArtifact, otherArtifact));
+        final Path cachedFile = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(anArtifact.getFile().getName());
+        final Path changedFile = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve(otherArtifact.getFile().getName());
+        Files.writeString(changedFile, "changed content");
+        final Path unknownFile = installationDir.resolve(ArtifactCache.CACHE_FOLDER).resolve("unknown.jar");
+        Files.writeString(unknownFile, "content");
+
+        final Map<Path, String> hashes = cache.getKnownHashes(List.of(cachedFile, changedFile, unknownFile));
+
+        assertEquals(Map.of(cachedFile, HashUtils.hashFile(anArtifact.getFile().toPath())), hashes);
+    }
+
     @Test
     public void cacheMavenManifests_ResolvedInList() throws Exception {
         final ManifestVersionRecord record = new ManifestVersionRecord();
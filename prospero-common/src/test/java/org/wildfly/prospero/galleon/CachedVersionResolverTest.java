@@ -17,12 +17,17 @@
 
 package org.wildfly.prospero.galleon;
 
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.RepositoryListener;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.installation.InstallRequest;
 import org.eclipse.aether.installation.InstallationException;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalArtifactResult;
 import org.jboss.galleon.universe.maven.MavenArtifact;
 import org.jboss.galleon.universe.maven.MavenUniverseException;
 import org.junit.Before;
@@ -40,8 +45,12 @@ import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelManifestCoordinate;
 import org.wildfly.channel.ChannelMetadataCoordinate;
 import org.wildfly.channel.spi.MavenVersionsResolver;
+import org.wildfly.prospero.api.MavenOptions;
+import org.wildfly.prospero.wfchannel.MavenSessionManager;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -51,6 +60,8 @@ import java.util.function.Function;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
@@ -199,6 +210,86 @@ public class CachedVersionResolverTest {
         assertEquals("artifactTwo", listCaptor.getValue().get(1).getArtifactId());
     }
 
+    @Test
+    public void testBulkResolveInstallsCachedArtifactsInSingleRequest() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        final File testJar2 = temp.newFile("test2.jar");
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar));
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), "artifactTwo", ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar2));
+
+        final List<File> resolved = resolver.resolveArtifacts(List.of(
+                new ArtifactCoordinate(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()),
+                new ArtifactCoordinate(ARTIFACT.getGroupId(), "artifactTwo", ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion())));
+
+        assertThat(resolved)
+                .containsExactly(testJar, testJar2);
+        verify(system, times(1)).install(eq(session), requestCaptor.capture());
+        assertThat(requestCaptor.getValue().getArtifacts())
+                .map(Artifact::getArtifactId)
+                .containsExactlyInAnyOrder(ARTIFACT.getArtifactId(), "artifactTwo");
+        verify(mockResolver, never()).resolveArtifacts(any());
+    }
+
+    @Test
+    public void testBulkInstallFailureRetriesArtifactsIndividually() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        final File testJar2 = temp.newFile("test2.jar");
+        final File testJar3 = temp.newFile("test3.jar");
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar));
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), "artifactTwo", ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar2));
+        when(system.install(any(), any())).thenAnswer(inv -> {
+            final InstallRequest request = inv.getArgument(1);
+            if (request.getArtifacts().stream().anyMatch(a -> a.getArtifactId().equals("artifactTwo"))) {
+                throw new InstallationException("test");
+            }
+            return null;
+        });
+        when(mockResolver.resolveArtifacts(listCaptor.capture()))
+                .thenReturn(List.of(testJar3));
+
+        final List<File> resolved = resolver.resolveArtifacts(List.of(
+                new ArtifactCoordinate(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()),
+                new ArtifactCoordinate(ARTIFACT.getGroupId(), "artifactTwo", ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion())));
+
+        assertThat(resolved)
+                .containsExactly(testJar, testJar3);
+        // one bulk request and two individual retries
+        verify(system, times(3)).install(eq(session), any());
+        assertThat(listCaptor.getValue())
+                .map(ArtifactCoordinate::getArtifactId)
+                .containsExactly("artifactTwo");
+    }
+
+    @Test
+    public void testCacheHitsAndMissesAreReportedToRepositoryListener() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        final File testJar2 = temp.newFile("test2.jar");
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar));
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), "artifactTwo", ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.empty());
+        when(mockResolver.resolveArtifacts(any()))
+                .thenReturn(List.of(testJar2));
+
+        resolver.resolveArtifacts(List.of(
+                new ArtifactCoordinate(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()),
+                new ArtifactCoordinate(ARTIFACT.getGroupId(), "artifactTwo", ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion())));
+
+        final ArgumentCaptor<RepositoryEvent> eventCaptor = ArgumentCaptor.forClass(RepositoryEvent.class);
+        verify(repositoryListener, times(2)).artifactResolved(eventCaptor.capture());
+        final RepositoryEvent hit = eventCaptor.getAllValues().get(0);
+        assertEquals(CachedVersionResolver.CACHE_REPOSITORY, hit.getRepository());
+        assertEquals(testJar, hit.getArtifact().getFile());
+        final RepositoryEvent miss = eventCaptor.getAllValues().get(1);
+        assertEquals(CachedVersionResolver.CACHE_REPOSITORY, miss.getRepository());
+        assertEquals("artifactTwo", miss.getArtifact().getArtifactId());
+        assertThat(miss.getException()).isNotNull();
+    }
+
     @Test
     public void testResolveChannelMetadata_FallbackFailsIfNoCurrentVersionFound() throws Exception {
         final ArtifactTransferException resolutionException = new ArtifactTransferException("",
@@ -291,4 +382,72 @@ public class CachedVersionResolverTest {
         // only called on the cached artifact
         verify(repositoryListener).artifactResolved(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void cachedArtifactIsLinkedIntoTemporaryLocalRepository() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        Files.writeString(testJar.toPath(), "test");
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar));
+        final Path localRepo = temp.newFolder("local-repo").toPath();
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder().setLocalCachePath(localRepo).build());
+        final RepositorySystem realSystem = msm.newRepositorySystem();
+        final DefaultRepositorySystemSession realSession = msm.newRepositorySystemSession(realSystem);
+        resolver = new CachedVersionResolver(mockResolver, artifactCache, realSystem, realSession, manifestVersionProvider, true);
+
+        final File resolved = resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
+
+        assertEquals(testJar, resolved);
+        final Path installed = localRepo.resolve(realSession.getLocalRepositoryManager()
+                .getPathForLocalArtifact(new DefaultArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getClassifier(), ARTIFACT.getExtension(), ARTIFACT.getVersion())));
+        assertTrue(Files.isSameFile(testJar.toPath(), installed));
+        assertThat(installed.resolveSibling("_remote.repositories"))
+                .content().contains(installed.getFileName().toString() + ">=");
+        final LocalArtifactResult result = realSession.getLocalRepositoryManager().find(realSession,
+                new LocalArtifactRequest(new DefaultArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getClassifier(), ARTIFACT.getExtension(), ARTIFACT.getVersion()), null, null));
+        assertTrue(result.isAvailable());
+    }
+
+    @Test
+    public void cachedArtifactIsCopiedIntoLocalRepositoryInCopyMode() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar));
+        final Path localRepo = temp.newFolder("local-repo").toPath();
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder().setLocalCachePath(localRepo).build());
+        final RepositorySystem realSystem = msm.newRepositorySystem();
+        final DefaultRepositorySystemSession realSession = msm.newRepositorySystemSession(realSystem);
+        System.setProperty(CachedVersionResolver.LOCAL_INSTALL_MODE_PROPERTY, "copy");
+        try {
+            resolver = new CachedVersionResolver(mockResolver, artifactCache, realSystem, realSession, manifestVersionProvider, true);
+
+            resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
+        } finally {
+            System.clearProperty(CachedVersionResolver.LOCAL_INSTALL_MODE_PROPERTY);
+        }
+
+        final Path installed = localRepo.resolve(realSession.getLocalRepositoryManager()
+                .getPathForLocalArtifact(new DefaultArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getClassifier(), ARTIFACT.getExtension(), ARTIFACT.getVersion())));
+        assertTrue(Files.exists(installed));
+        assertFalse(Files.isSameFile(testJar.toPath(), installed));
+    }
+
+    @Test
+    public void cachedArtifactIsCopiedIntoPersistentLocalRepository() throws Exception {
+        final File testJar = temp.newFile("test.jar");
+        when(artifactCache.getArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion()))
+                .thenReturn(Optional.of(testJar));
+        final Path localRepo = temp.newFolder("local-repo").toPath();
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder().setLocalCachePath(localRepo).build());
+        final RepositorySystem realSystem = msm.newRepositorySystem();
+        final DefaultRepositorySystemSession realSession = msm.newRepositorySystemSession(realSystem);
+        resolver = new CachedVersionResolver(mockResolver, artifactCache, realSystem, realSession, manifestVersionProvider, false);
+
+        resolver.resolveArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getExtension(), ARTIFACT.getClassifier(), ARTIFACT.getVersion());
+
+        final Path installed = localRepo.resolve(realSession.getLocalRepositoryManager()
+                .getPathForLocalArtifact(new DefaultArtifact(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getClassifier(), ARTIFACT.getExtension(), ARTIFACT.getVersion())));
+        assertTrue(Files.exists(installed));
+        assertFalse(Files.isSameFile(testJar.toPath(), installed));
+    }
+}
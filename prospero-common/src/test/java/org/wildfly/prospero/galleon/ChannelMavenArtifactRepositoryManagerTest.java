@@ -20,19 +20,44 @@ package org.wildfly.prospero.galleon;
 import org.jboss.galleon.universe.maven.MavenArtifact;
 import org.jboss.galleon.universe.maven.MavenUniverseException;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.wildfly.channel.ArtifactCoordinate;
 import org.wildfly.channel.ArtifactTransferException;
 import org.wildfly.channel.ChannelSession;
+import org.wildfly.channel.NoStreamFoundException;
+import org.wildfly.channel.VersionResult;
+import org.mockito.ArgumentCaptor;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ChannelMavenArtifactRepositoryManagerTest {
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     @Mock
     private ChannelSession session;
 
@@ -57,4 +82,140 @@ public class ChannelMavenArtifactRepositoryManagerTest {
         artifact.setExtension("zip");
         assertThrows(MavenUniverseException.class, ()->repositoryManager.resolve(artifact));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void featurePackIsInspectedOnlyOnce() throws Exception {
+        final File zip = temp.newFile("bar-1.0.0.zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("test.txt"));
+            out.closeEntry();
+        }
+        when(session.resolveDirectMavenArtifact("foo", "bar", "zip", "", "1.0.0"))
+                .thenReturn(new org.wildfly.channel.MavenArtifact("foo", "bar", "zip", "", "1.0.0", zip));
+        when(session.resolveMavenArtifacts(any())).thenAnswer(inv -> {
+            final List<ArtifactCoordinate> coordinates = inv.getArgument(0);
+            return coordinates.stream()
+                    .map(c -> new org.wildfly.channel.MavenArtifact(c.getGroupId(), c.getArtifactId(), c.getExtension(),
+                            c.getClassifier(), c.getVersion(), zip))
+                    .collect(Collectors.toList());
+        });
+
+        final MavenArtifact artifact = featurePack();
+        repositoryManager.resolveAll(List.of(artifact));
+        repositoryManager.resolveAll(List.of(featurePack()));
+
+        assertEquals(zip.toPath(), artifact.getPath());
+        verify(session, times(1)).resolveDirectMavenArtifact("foo", "bar", "zip", "", "1.0.0");
+    }
+
+    @Test
+    public void missingStreamsAreResolvedDirectlyInSingleBatch() throws Exception {
+        final File jar = temp.newFile("test.jar");
+        when(session.resolveMavenArtifacts(any())).thenAnswer(inv -> {
+            final List<ArtifactCoordinate> coordinates = inv.getArgument(0);
+            if (coordinates.stream().anyMatch(c -> c.getArtifactId().startsWith("missing"))) {
+                throw new NoStreamFoundException("test", Set.of(coordinates.get(0)), Set.of());
+            }
+            return coordinates.stream()
+                    .map(c -> new org.wildfly.channel.MavenArtifact(c.getGroupId(), c.getArtifactId(), c.getExtension(),
+                            c.getClassifier(), "2.0.0", jar))
+                    .collect(Collectors.toList());
+        });
+        when(session.findLatestMavenArtifactVersion(eq("foo"), any(), any(), any(), any())).thenAnswer(inv -> {
+            if (inv.<String>getArgument(1).startsWith("missing")) {
+                throw new NoStreamFoundException("test", Set.of(), Set.of());
+            }
+            return new VersionResult("2.0.0", null);
+        });
+        when(session.resolveDirectMavenArtifacts(any())).thenAnswer(inv -> {
+            final List<ArtifactCoordinate> coordinates = inv.getArgument(0);
+            return coordinates.stream()
+                    .map(c -> new org.wildfly.channel.MavenArtifact(c.getGroupId(), c.getArtifactId(), c.getExtension(),
+                            c.getClassifier(), c.getVersion(), jar))
+                    .collect(Collectors.toList());
+        });
+
+        final MavenArtifact inChannel = jarArtifact("in-channel");
+        final MavenArtifact missingOne = jarArtifact("missing-one");
+        final MavenArtifact missingTwo = jarArtifact("missing-two");
+        repositoryManager.resolveAll(List.of(inChannel, missingOne, missingTwo));
+
+        assertEquals("2.0.0", inChannel.getVersion());
+        assertEquals(jar.toPath(), inChannel.getPath());
+        assertEquals("1.0.0", missingOne.getVersion());
+        assertEquals(jar.toPath(), missingOne.getPath());
+        assertEquals(jar.toPath(), missingTwo.getPath());
+        // artifacts requiring channels, all artifacts not requiring channels and the artifacts with streams
+        verify(session, times(3)).resolveMavenArtifacts(any());
+        final ArgumentCaptor<List<ArtifactCoordinate>> directCaptor = ArgumentCaptor.forClass(List.class);
+        verify(session, times(1)).resolveDirectMavenArtifacts(directCaptor.capture());
+        assertThat(directCaptor.getValue())
+                .map(ArtifactCoordinate::getArtifactId)
+                .containsExactly("missing-one", "missing-two");
+    }
+
+    @Test
+    public void streamLookupsAreLimitedToConfiguredThreads() throws Exception {
+        final File jar = temp.newFile("test.jar");
+        final Set<Thread> lookupThreads = ConcurrentHashMap.newKeySet();
+        when(session.resolveMavenArtifacts(any())).thenAnswer(inv -> {
+            final List<ArtifactCoordinate> coordinates = inv.getArgument(0);
+            if (coordinates.stream().anyMatch(c -> c.getArtifactId().startsWith("missing"))) {
+                throw new NoStreamFoundException("test", Set.of(coordinates.get(0)), Set.of());
+            }
+            return coordinates.stream()
+                    .map(c -> new org.wildfly.channel.MavenArtifact(c.getGroupId(), c.getArtifactId(), c.getExtension(),
+                            c.getClassifier(), "2.0.0", jar))
+                    .collect(Collectors.toList());
+        });
+        when(session.findLatestMavenArtifactVersion(eq("foo"), any(), any(), any(), any())).thenAnswer(inv -> {
+            lookupThreads.add(Thread.currentThread());
+            if (inv.<String>getArgument(1).startsWith("missing")) {
+                throw new NoStreamFoundException("test", Set.of(), Set.of());
+            }
+            return new VersionResult("2.0.0", null);
+        });
+        when(session.resolveDirectMavenArtifacts(any())).thenAnswer(inv -> {
+            final List<ArtifactCoordinate> coordinates = inv.getArgument(0);
+            return coordinates.stream()
+                    .map(c -> new org.wildfly.channel.MavenArtifact(c.getGroupId(), c.getArtifactId(), c.getExtension(),
+                            c.getClassifier(), c.getVersion(), jar))
+                    .collect(Collectors.toList());
+        });
+
+        try (ChannelMavenArtifactRepositoryManager manager = new ChannelMavenArtifactRepositoryManager(session, null, 2)) {
+            for (int i = 0; i < 3; i++) {
+                final List<MavenArtifact> artifacts = IntStream.range(0, 10)
+                        .mapToObj(a -> jarArtifact("artifact-" + a))
+                        .collect(Collectors.toList());
+                artifacts.add(jarArtifact("missing"));
+                manager.resolveAll(artifacts);
+            }
+        }
+
+        // the lookups of all the calls share the same two threads
+        assertThat(lookupThreads)
+                .hasSizeBetween(1, 2)
+                .doesNotContain(Thread.currentThread());
+    }
+
+    private static MavenArtifact jarArtifact(String artifactId) {
+        final MavenArtifact artifact = new MavenArtifact();
+        artifact.setGroupId("foo");
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion("1.0.0");
+        artifact.setExtension("jar");
+        artifact.setClassifier("");
+        return artifact;
+    }
+
+    private static MavenArtifact featurePack() {
+        final MavenArtifact artifact = new MavenArtifact();
+        artifact.setGroupId("foo");
+        artifact.setArtifactId("bar");
+        artifact.setVersion("1.0.0");
+        artifact.setExtension("zip");
+        artifact.setClassifier("");
+        return artifact;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ChannelResolutionScopeTest {
+
+    private static final List<Repository> REMOTE_REPOSITORIES = List.of(new Repository("test", "https://test.repo/maven"));
+
+    @Mock
+    private MavenVersionsResolver.Factory factory;
+
+    @Mock
+    private MavenVersionsResolver resolver;
+
+    private final ChannelResolutionScope scope = new ChannelResolutionScope();
+
+    @Test
+    public void versionsAreResolvedOncePerScope() {
+        when(factory.create(any())).thenReturn(resolver);
+        when(resolver.getAllVersions("org.test", "foo", "jar", "")).thenReturn(Set.of("1.0.0", "1.0.1"));
+        final MavenVersionsResolver.Factory scopedFactory = scope.wrap(factory);
+
+        assertThat(scopedFactory.create(REMOTE_REPOSITORIES).getAllVersions("org.test", "foo", "jar", ""))
+                .containsExactlyInAnyOrder("1.0.0", "1.0.1");
+        assertThat(scopedFactory.create(REMOTE_REPOSITORIES).getAllVersions("org.test", "foo", "jar", ""))
+                .containsExactlyInAnyOrder("1.0.0", "1.0.1");
+
+        verify(resolver, times(1)).getAllVersions("org.test", "foo", "jar", "");
+    }
+
+    @Test
+    public void versionsAreResolvedAgainAfterScopeIsCleared() {
+        when(factory.create(any())).thenReturn(resolver);
+        when(resolver.getAllVersions("org.test", "foo", "jar", ""))
+                .thenReturn(Set.of("1.0.0"))
+                .thenReturn(Set.of("1.0.0", "1.0.1"));
+        final MavenVersionsResolver.Factory scopedFactory = scope.wrap(factory);
+
+        assertThat(scopedFactory.create(REMOTE_REPOSITORIES).getAllVersions("org.test", "foo", "jar", ""))
+                .containsExactly("1.0.0");
+        scope.clear();
+        assertThat(scopedFactory.create(REMOTE_REPOSITORIES).getAllVersions("org.test", "foo", "jar", ""))
+                .containsExactlyInAnyOrder("1.0.0", "1.0.1");
+
+        verify(resolver, times(2)).getAllVersions("org.test", "foo", "jar", "");
+    }
+
+    @Test
+    public void channelMetadataIsResolvedOncePerScope() throws Exception {
+        final URL manifestUrl = new URL("file:/tmp/manifest.yaml");
+        final List<ChannelMetadataCoordinate> coordinates = List.of(new ChannelMetadataCoordinate("org.test", "manifest", "manifest", "yaml"));
+        when(factory.create(any())).thenReturn(resolver);
+        when(resolver.resolveChannelMetadata(coordinates)).thenReturn(List.of(manifestUrl));
+        final MavenVersionsResolver.Factory scopedFactory = scope.wrap(factory);
+
+        assertThat(scopedFactory.create(REMOTE_REPOSITORIES).resolveChannelMetadata(coordinates)).containsExactly(manifestUrl);
+        assertThat(scopedFactory.create(REMOTE_REPOSITORIES).resolveChannelMetadata(coordinates)).containsExactly(manifestUrl);
+
+        verify(resolver, times(1)).resolveChannelMetadata(any());
+    }
+
+    @Test
+    public void lookupInProgressDoesNotBlockOtherThreads() throws Exception {
+        final CountDownLatch firstLookupStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstLookup = new CountDownLatch(1);
+        final AtomicInteger lookups = new AtomicInteger();
+        when(factory.create(any())).thenReturn(resolver);
+        when(resolver.getMetadataReleaseVersion("org.test", "foo")).thenAnswer(inv -> {
+            if (lookups.getAndIncrement() == 0) {
+                firstLookupStarted.countDown();
+                releaseFirstLookup.await(30, TimeUnit.SECONDS);
+            }
+            return "1.0.0";
+        });
+        final MavenVersionsResolver scopedResolver = scope.wrap(factory).create(REMOTE_REPOSITORIES);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> first = executor.submit(() -> scopedResolver.getMetadataReleaseVersion("org.test", "foo"));
+            assertThat(firstLookupStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // the lookup of the same key is not blocked waiting for the first lookup
+            final Future<String> second = executor.submit(() -> scopedResolver.getMetadataReleaseVersion("org.test", "foo"));
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("1.0.0");
+
+            releaseFirstLookup.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("1.0.0");
+        } finally {
+            releaseFirstLookup.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void lookupsInDifferentRepositoriesAreNotShared() {
+        when(factory.create(any())).thenReturn(resolver);
+        when(resolver.getAllVersions("org.test", "foo", "jar", "")).thenReturn(Set.of("1.0.0"));
+        final MavenVersionsResolver.Factory scopedFactory = scope.wrap(factory);
+
+        scopedFactory.create(REMOTE_REPOSITORIES).getAllVersions("org.test", "foo", "jar", "");
+        scopedFactory.create(List.of(new Repository("other", "https://other.repo/maven"))).getAllVersions("org.test", "foo", "jar", "");
+
+        verify(resolver, times(2)).getAllVersions("org.test", "foo", "jar", "");
+    }
+
+    @Test
+    public void fileRepositoriesAreNotShared() {
+        when(factory.create(any())).thenReturn(resolver);
+        final List<Repository> repositories = List.of(new Repository("local", "file:/tmp/repo"));
+
+        assertThat(scope.wrap(factory).create(repositories)).isSameAs(resolver);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.galleon.util.HashUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+
+public class FileHashesTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void hashMatchesGalleonHash() throws Exception {
+        final Path file = temp.newFile().toPath();
+        Files.writeString(file, "test content");
+
+        assertEquals(HashUtils.hashFile(file), FileHashes.hashFile(file));
+    }
+
+    @Test
+    public void hashAllHashesFilesInOrder() throws Exception {
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final Path file = temp.newFile("file" + i).toPath();
+            Files.writeString(file, "content " + i);
+            files.add(file);
+        }
+
+        final Map<Path, String> hashes = FileHashes.hashAll(files);
+
+        assertThat(hashes.keySet()).containsExactlyElementsOf(files);
+        for (Path file : files) {
+            assertEquals(HashUtils.hashFile(file), hashes.get(file));
+        }
+    }
+
+    @Test
+    public void hashAllReusesKnownHashes() throws Exception {
+        final Path known = temp.newFile("known").toPath();
+        final Path unknown = temp.newFile("unknown").toPath();
+        Files.writeString(unknown, "content");
+
+        final Map<Path, String> hashes = FileHashes.hashAll(List.of(known, unknown), Map.of(known, "abcd"));
+
+        assertEquals("abcd", hashes.get(known));
+        assertEquals(HashUtils.hashFile(unknown), hashes.get(unknown));
+    }
+
+    @Test
+    public void hashAllFailsIfFileCannotBeRead() throws Exception {
+        final Path existing = temp.newFile("existing").toPath();
+        final Path missing = temp.getRoot().toPath().resolve("missing");
+
+        assertThatThrownBy(() -> FileHashes.hashAll(List.of(existing, missing, temp.newFile("other").toPath())))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.galleon;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileTransferTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private Path source;
+    private Path target;
+
+    @Before
+    public void setUp() throws Exception {
+        source = temp.newFolder("source").toPath();
+        target = temp.newFolder("target").toPath();
+        Files.writeString(source.resolve("a.txt"), "content");
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(FileTransfer.TRANSFER_PROPERTY);
+    }
+
+    @Test
+    public void filesOnSameFileStoreAreLinked() throws Exception {
+        final FileTransfer transfer = FileTransfer.between(source, target.resolve("new/dir"));
+
+        assertThat(transfer.transfer(source.resolve("a.txt"), target.resolve("new/dir/a.txt")))
+                .isEqualTo(FileLinks.Method.HARDLINK);
+        assertThat(Files.isSameFile(source.resolve("a.txt"), target.resolve("new/dir/a.txt"))).isTrue();
+    }
+
+    @Test
+    public void copyIsForcedByProperty() throws Exception {
+        System.setProperty(FileTransfer.TRANSFER_PROPERTY, "copy");
+
+        final FileTransfer transfer = FileTransfer.between(source, target);
+
+        assertThat(transfer.transfer(source.resolve("a.txt"), target.resolve("a.txt")))
+                .isEqualTo(FileLinks.Method.COPY);
+        assertThat(target.resolve("a.txt")).hasContent("content");
+        assertThat(Files.isSameFile(source.resolve("a.txt"), target.resolve("a.txt"))).isFalse();
+    }
+
+    @Test
+    public void transferReplacesExistingFile() throws Exception {
+        Files.writeString(target.resolve("a.txt"), "old");
+
+        FileTransfer.hardlink().transfer(source.resolve("a.txt"), target.resolve("a.txt"));
+        FileTransfer.COPY.transfer(source.resolve("a.txt"), target.resolve("b.txt"));
+
+        assertThat(target.resolve("a.txt")).hasContent("content");
+        assertThat(target.resolve("b.txt")).hasContent("content");
+    }
+}
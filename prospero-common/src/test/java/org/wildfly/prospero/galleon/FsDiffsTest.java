@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.galleon.ProvisioningManager;
+import org.jboss.galleon.creator.FeaturePackCreator;
+import org.jboss.galleon.diff.FsDiff;
+import org.jboss.galleon.repo.RepositoryArtifactResolver;
+import org.jboss.galleon.universe.FeaturePackLocation;
+import org.jboss.galleon.universe.maven.repo.SimplisticMavenRepoManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FsDiffsTest {
+
+    private static final String FPL = "org.test:pack-one:1.0.0:zip";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    private RepositoryArtifactResolver repo;
+    private Path installationPath;
+
+    @Before
+    public void setUp() throws Exception {
+        repo = SimplisticMavenRepoManager.getInstance(temp.newFolder().toPath());
+        installationPath = temp.newFolder().toPath();
+        FeaturePackCreator.getInstance().addArtifactResolver(repo)
+                .newFeaturePack(FeaturePackLocation.fromString(FPL).getFPID())
+                .newPackage("p1", true)
+                .writeContent("prod1/p1.txt", "prod1/p1")
+                .writeContent("prod1/p2.txt", "prod1/p2")
+                .writeContent("prod1/nested/p3.txt", "prod1/nested/p3")
+                .writeContent("prod2/p1.txt", "prod2/p1")
+                .writeContent("prod3/p1.txt", "prod3/p1")
+                .getFeaturePack()
+                .getCreator()
+                .install();
+        getPm().install(FeaturePackLocation.fromString(FPL));
+    }
+
+    @Test
+    public void noChangesInProvisionedServer() throws Exception {
+        final Optional<FsDiff> diff = FsDiffs.fromRecordedHashes(installationPath);
+
+        assertThat(diff).isPresent();
+        assertThat(diff.get().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void changesMatchGalleonDiff() throws Exception {
+        Files.writeString(installationPath.resolve("prod1/p1.txt"), "user prod1/p1");
+        Files.delete(installationPath.resolve("prod1/p2.txt"));
+        Files.writeString(installationPath.resolve("prod1/nested/p3.txt"), "user prod1/nested/p3");
+        Files.writeString(installationPath.resolve("prod1/p4.txt"), "user prod1/p4");
+        Files.writeString(installationPath.resolve("prod1/p1.txt.glnew"), "ignored");
+        Files.createDirectories(installationPath.resolve("user/dir"));
+        Files.writeString(installationPath.resolve("user/dir/file.txt"), "user file");
+        Files.delete(installationPath.resolve("prod2/p1.txt"));
+        Files.delete(installationPath.resolve("prod2"));
+
+        final FsDiff diff = FsDiffs.fromRecordedHashes(installationPath).get();
+        final FsDiff expected = getPm().getFsDiff();
+
+        assertThat(diff.getModifiedPaths())
+                .containsExactlyInAnyOrderElementsOf(expected.getModifiedPaths())
+                .containsExactlyInAnyOrder("prod1/p1.txt", "prod1/nested/p3.txt");
+        assertThat(diff.getRemovedPaths()).containsExactlyInAnyOrderElementsOf(expected.getRemovedPaths());
+        assertThat(diff.getAddedPaths()).containsExactlyInAnyOrderElementsOf(expected.getAddedPaths());
+        assertThat(diff.getAddedEntry("prod1/p4.txt").getPath())
+                .isEqualTo(installationPath.resolve("prod1/p4.txt"));
+        assertThat(diff.getModifiedEntry("prod1/p1.txt")[1].getPath())
+                .isEqualTo(installationPath.resolve("prod1/p1.txt"));
+    }
+
+    @Test
+    public void serverWithoutRecordedHashes() throws Exception {
+        final Path server = temp.newFolder().toPath();
+        Files.writeString(server.resolve("a.txt"), "a");
+
+        assertThat(FsDiffs.fromRecordedHashes(server)).isEmpty();
+    }
+
+    private ProvisioningManager getPm() throws Exception {
+        return ProvisioningManager.builder()
+                .addArtifactResolver(repo)
+                .setInstallationHome(installationPath)
+                .setRecordState(true)
+                .build();
+    }
+}
@@ -23,6 +23,7 @@ import org.eclipse.aether.internal.impl.DefaultRepositorySystem;
 import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
 import org.eclipse.aether.resolution.ArtifactResult;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -37,6 +38,7 @@ import org.wildfly.channel.ChannelManifestCoordinate;
 import org.wildfly.channel.ChannelManifestMapper;
 import org.wildfly.prospero.api.exceptions.ChannelDefinitionException;
 import org.wildfly.prospero.metadata.ManifestVersionRecord;
+import org.wildfly.prospero.wfchannel.ArtifactCacheStatistics;
 import org.wildfly.prospero.wfchannel.MavenSessionManager;
 
 import java.io.File;
@@ -51,6 +53,7 @@ import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -70,6 +73,12 @@ public class GalleonEnvironmentTest {
     @Mock
     private DefaultRepositorySystem system;
 
+    @Before
+    public void setUp() {
+        lenient().when(msm.getResolutionScope()).thenReturn(new ChannelResolutionScope());
+        lenient().when(msm.getCacheStatistics()).thenReturn(new ArtifactCacheStatistics(0, 0, 0, 0));
+    }
+
     @Test
     public void createEnvWithInvalidManifestThrowsException() throws Exception {
         final File manifest = temp.newFile();
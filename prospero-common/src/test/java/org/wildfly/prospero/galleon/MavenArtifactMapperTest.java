@@ -61,6 +61,21 @@ public class MavenArtifactMapperTest {
         assertEquals("test2", gavs.get(1).getArtifactId());
     }
 
+    @Test
+    public void testFeaturePackArchivesAreListedFirst() throws Exception {
+        final List<org.jboss.galleon.universe.maven.MavenArtifact> galleonArtifacts = Arrays.asList(
+                galleonArtifact("foo.bar", "test1", "jar"),
+                galleonArtifact("foo.bar", "fp1", "zip"),
+                galleonArtifact("foo.bar", "test2", "jar"),
+                galleonArtifact("foo.bar", "fp2", "zip"));
+
+        final MavenArtifactMapper mavenArtifactMapper = new MavenArtifactMapper(galleonArtifacts);
+        List<ArtifactCoordinate> gavs = mavenArtifactMapper.toChannelArtifacts();
+
+        assertThat(gavs).map(ArtifactCoordinate::getArtifactId)
+                .containsExactly("fp1", "fp2", "test1", "test2");
+    }
+
     @Test
     public void testMapListOfMavenArtifactsBackToGalleonArtifacts() throws Exception {
         final List<org.jboss.galleon.universe.maven.MavenArtifact> galleonArtifacts = Arrays.asList(
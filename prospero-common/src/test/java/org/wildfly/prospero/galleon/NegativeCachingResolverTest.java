@@ -0,0 +1,171 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.wildfly.channel.ArtifactCoordinate;
+import org.wildfly.channel.ArtifactTransferException;
+import org.wildfly.channel.ChannelMetadataCoordinate;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NegativeCachingResolverTest {
+
+    private static final Repository REPO_ONE = new Repository("one", "https://one.example.org/maven");
+    private static final Repository DEAD_REPO = new Repository("dead", "https://dead.example.org/maven");
+    private static final ArtifactCoordinate COORDINATE = new ArtifactCoordinate("org.test", "test", "jar", null, "1.0.0");
+
+    @Mock
+    private MavenVersionsResolver delegate;
+
+    private NegativeResolutionCache cache;
+    private NegativeCachingResolver resolver;
+
+    @Before
+    public void setUp() {
+        cache = new NegativeResolutionCache(Duration.ofMinutes(5), false, null);
+        resolver = new NegativeCachingResolver(delegate, List.of(REPO_ONE, DEAD_REPO), cache, false);
+    }
+
+    @Test
+    public void repeatedFailureDoesNotQueryRepositories() throws Exception {
+        when(delegate.resolveArtifact("org.test", "test", "jar", null, "1.0.0"))
+                .thenThrow(notFound(COORDINATE));
+
+        assertThatThrownBy(() -> resolver.resolveArtifact("org.test", "test", "jar", null, "1.0.0"))
+                .isInstanceOf(ArtifactTransferException.class);
+        assertThatThrownBy(() -> resolver.resolveArtifact("org.test", "test", "jar", null, "1.0.0"))
+                .isInstanceOf(ArtifactTransferException.class)
+                .satisfies(e -> assertThat(((ArtifactTransferException) e).getUnresolvedArtifacts()).containsExactly(COORDINATE));
+
+        verify(delegate, times(1)).resolveArtifact("org.test", "test", "jar", null, "1.0.0");
+    }
+
+    @Test
+    public void bulkResolutionFailsIfAnyArtifactRecentlyFailed() throws Exception {
+        cache.recordUnresolvable(REPO_ONE.getUrl(), "org.test", "test", "jar", null, "1.0.0");
+        cache.recordUnresolvable(DEAD_REPO.getUrl(), "org.test", "test", "jar", null, "1.0.0");
+
+        assertThatThrownBy(() -> resolver.resolveArtifacts(List.of(
+                new ArtifactCoordinate("org.test", "other", "jar", null, "1.0.0"), COORDINATE)))
+                .isInstanceOf(ArtifactTransferException.class);
+
+        verify(delegate, never()).resolveArtifacts(any());
+    }
+
+    @Test
+    public void artifactIsResolvedIfNotAllRepositoriesFailed() throws Exception {
+        final File file = new File("test.jar");
+        cache.recordUnresolvable(DEAD_REPO.getUrl(), "org.test", "test", "jar", null, "1.0.0");
+        when(delegate.resolveArtifact("org.test", "test", "jar", null, "1.0.0")).thenReturn(file);
+
+        assertThat(resolver.resolveArtifact("org.test", "test", "jar", null, "1.0.0")).isEqualTo(file);
+    }
+
+    @Test
+    public void repeatedManifestFailureDoesNotQueryRepositories() throws Exception {
+        final ChannelMetadataCoordinate manifest = new ChannelMetadataCoordinate("org.test", "manifest", "1.0.0", "manifest", "yaml");
+        when(delegate.resolveChannelMetadata(List.of(manifest)))
+                .thenThrow(notFound(new ArtifactCoordinate("org.test", "manifest", "yaml", "manifest", "1.0.0")));
+
+        assertThatThrownBy(() -> resolver.resolveChannelMetadata(List.of(manifest)))
+                .isInstanceOf(ArtifactTransferException.class);
+        assertThatThrownBy(() -> resolver.resolveChannelMetadata(List.of(manifest)))
+                .isInstanceOf(ArtifactTransferException.class);
+
+        verify(delegate, times(1)).resolveChannelMetadata(any());
+    }
+
+    @Test
+    public void failureToReachRepositoriesIsNotRecorded() throws Exception {
+        final org.eclipse.aether.artifact.Artifact artifact = new DefaultArtifact("org.test:test:jar:1.0.0");
+        final ArtifactResult result = new ArtifactResult(new ArtifactRequest(artifact, null, null));
+        result.addException(new ArtifactNotFoundException(artifact, remote(REPO_ONE)));
+        result.addException(new org.eclipse.aether.transfer.ArtifactTransferException(artifact, remote(DEAD_REPO), "Connection refused"));
+        when(delegate.resolveArtifact("org.test", "test", "jar", null, "1.0.0"))
+                .thenThrow(new ArtifactTransferException("test", new ArtifactResolutionException(List.of(result)),
+                        Set.of(COORDINATE), Set.of(REPO_ONE, DEAD_REPO)));
+
+        assertThatThrownBy(() -> resolver.resolveArtifact("org.test", "test", "jar", null, "1.0.0"))
+                .isInstanceOf(ArtifactTransferException.class);
+        assertThatThrownBy(() -> resolver.resolveArtifact("org.test", "test", "jar", null, "1.0.0"))
+                .isInstanceOf(ArtifactTransferException.class);
+
+        verify(delegate, times(2)).resolveArtifact("org.test", "test", "jar", null, "1.0.0");
+    }
+
+    @Test
+    public void failureWithoutCauseIsNotRecorded() throws Exception {
+        when(delegate.resolveArtifact("org.test", "test", "jar", null, "1.0.0"))
+                .thenThrow(new ArtifactTransferException("test", Set.of(COORDINATE), Set.of(REPO_ONE, DEAD_REPO)));
+
+        assertThatThrownBy(() -> resolver.resolveArtifact("org.test", "test", "jar", null, "1.0.0"))
+                .isInstanceOf(ArtifactTransferException.class);
+
+        assertThat(cache.isUnresolvable(REPO_ONE.getUrl(), "org.test", "test", "jar", null, "1.0.0")).isFalse();
+    }
+
+    @Test
+    public void failuresAreNotRecordedOffline() throws Exception {
+        resolver = new NegativeCachingResolver(delegate, List.of(REPO_ONE, DEAD_REPO), cache, true);
+        when(delegate.resolveArtifact("org.test", "test", "jar", null, "1.0.0")).thenThrow(notFound(COORDINATE));
+
+        assertThatThrownBy(() -> resolver.resolveArtifact("org.test", "test", "jar", null, "1.0.0"))
+                .isInstanceOf(ArtifactTransferException.class);
+
+        assertThat(cache.isUnresolvable(REPO_ONE.getUrl(), "org.test", "test", "jar", null, "1.0.0")).isFalse();
+    }
+
+    private static ArtifactTransferException notFound(ArtifactCoordinate coordinate) {
+        final org.eclipse.aether.artifact.Artifact artifact = new DefaultArtifact(coordinate.getGroupId(), coordinate.getArtifactId(),
+                coordinate.getClassifier(), coordinate.getExtension(), coordinate.getVersion());
+        final ArtifactResult result = new ArtifactResult(new ArtifactRequest(artifact, null, null));
+        result.addException(new ArtifactNotFoundException(artifact, remote(REPO_ONE)));
+        result.addException(new ArtifactNotFoundException(artifact, remote(DEAD_REPO)));
+        return new ArtifactTransferException("test", new ArtifactResolutionException(List.of(result)),
+                Set.of(coordinate), Set.of(REPO_ONE, DEAD_REPO));
+    }
+
+    private static RemoteRepository remote(Repository repository) {
+        return new RemoteRepository.Builder(repository.getId(), "default", repository.getUrl()).build();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NegativeResolutionCacheTest {
+
+    private static final String REPOSITORY_URL = "https://repo.example.org/maven";
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path journal;
+    private Instant now;
+
+    @Before
+    public void setUp() throws Exception {
+        journal = temp.newFolder().toPath().resolve(NegativeResolutionCache.JOURNAL_FILENAME);
+        now = Instant.parse("2024-01-01T10:00:00Z");
+    }
+
+    @Test
+    public void failuresAreRememberedPerRepository() throws Exception {
+        final NegativeResolutionCache cache = cache(null, false);
+        cache.recordUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.0");
+
+        assertThat(cache.isUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.0")).isTrue();
+        assertThat(cache.isUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.1")).isFalse();
+        assertThat(cache.isUnresolvable("https://other.example.org", "org.test", "test", "jar", null, "1.0.0")).isFalse();
+    }
+
+    @Test
+    public void failuresExpire() throws Exception {
+        cache(journal, false).recordUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.0");
+
+        now = now.plus(TTL).plusSeconds(1);
+
+        assertThat(cache(journal, false).isUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.0")).isFalse();
+    }
+
+    @Test
+    public void inMemoryFailuresAreNotShared() throws Exception {
+        cache(null, false).recordUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.0");
+
+        assertThat(cache(null, false).isUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.0")).isFalse();
+    }
+
+    @Test
+    public void persistedFailuresAreShared() throws Exception {
+        cache(journal, false).recordUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.0");
+
+        assertThat(cache(journal, false).isUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.0")).isTrue();
+        assertThat(cache(journal, true).isUnresolvable(REPOSITORY_URL, "org.test", "test", "jar", null, "1.0.0")).isFalse();
+    }
+
+    @Test
+    public void fileRepositoryFailuresAreNotPersisted() throws Exception {
+        final String fileRepository = temp.getRoot().toURI().toString();
+        cache(journal, false).recordUnresolvable(fileRepository, "org.test", "test", "jar", null, "1.0.0");
+
+        assertThat(cache(journal, false).isUnresolvable(fileRepository, "org.test", "test", "jar", null, "1.0.0")).isFalse();
+    }
+
+    private NegativeResolutionCache cache(Path journal, boolean refresh) {
+        return new NegativeResolutionCache(TTL, refresh, journal, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
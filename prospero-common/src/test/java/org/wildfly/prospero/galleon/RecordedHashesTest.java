@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.galleon.Constants;
+import org.jboss.galleon.util.LayoutUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordedHashesTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void readRecordedHashes() throws Exception {
+        final Path server = temp.newFolder().toPath();
+        final Path hashesDir = LayoutUtils.getHashesDir(server);
+        Files.createDirectories(hashesDir.resolve("modules/foo"));
+        Files.createDirectories(hashesDir.resolve("empty"));
+        Files.writeString(hashesDir.resolve(Constants.HASHES), "README.txt\nabcd\njboss-modules.jar\n1234\n");
+        Files.writeString(hashesDir.resolve("modules/foo").resolve(Constants.HASHES), "foo.jar\nef01\n");
+
+        final RecordedHashes hashes = RecordedHashes.read(server).get();
+
+        assertThat(hashes.getFiles())
+                .containsExactlyInAnyOrder("README.txt", "jboss-modules.jar", "modules/foo/foo.jar");
+        assertThat(hashes.getHash("README.txt")).isEqualTo("abcd");
+        assertThat(hashes.getHash("modules/foo/foo.jar")).isEqualTo("ef01");
+        assertThat(hashes.getHash("modules/foo/bar.jar")).isNull();
+        assertThat(hashes.getDirectories())
+                .containsExactlyInAnyOrder("modules/", "modules/foo/", "empty/");
+        assertThat(hashes.getDirectories().indexOf("modules/"))
+                .isLessThan(hashes.getDirectories().indexOf("modules/foo/"));
+    }
+
+    @Test
+    public void noRecordedHashes() throws Exception {
+        final Path server = temp.newFolder().toPath();
+
+        assertThat(RecordedHashes.read(server)).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void incompleteRecordIsIgnored() throws Exception {
+        final Path server = temp.newFolder().toPath();
+        final Path hashesDir = LayoutUtils.getHashesDir(server);
+        Files.createDirectories(hashesDir);
+        Files.writeString(hashesDir.resolve(Constants.HASHES), "README.txt\n");
+
+        assertThat(RecordedHashes.read(server)).isEqualTo(Optional.empty());
+    }
+}
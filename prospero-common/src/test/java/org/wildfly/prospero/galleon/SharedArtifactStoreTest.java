@@ -0,0 +1,163 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.jboss.galleon.util.HashUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SharedArtifactStoreTest {
+
+    private static final String GROUP_ID = "org.test";
+    private static final String ARTIFACT_ID = "artifact";
+    private static final String EXTENSION = "jar";
+    private static final String VERSION = "1.0.0";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private SharedArtifactStore store;
+    private Path source;
+    private String hash;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new SharedArtifactStore(temp.newFolder("store").toPath());
+        source = temp.newFile("test.jar").toPath();
+        Files.writeString(source, "test content");
+        hash = HashUtils.hashFile(source);
+    }
+
+    @Test
+    public void storeLinksObjectToTarget() throws Exception {
+        final Path target = temp.getRoot().toPath().resolve("install").resolve("test.jar");
+
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source, target);
+
+        assertThat(target).hasSameBinaryContentAs(source);
+        assertTrue(Files.isSameFile(store.objectPath(hash), target));
+    }
+
+    @Test
+    public void storeReusesExistingObject() throws Exception {
+        final Path targetOne = temp.getRoot().toPath().resolve("one").resolve("test.jar");
+        final Path targetTwo = temp.getRoot().toPath().resolve("two").resolve("test.jar");
+
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source, targetOne);
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source, targetTwo);
+
+        assertTrue(Files.isSameFile(targetOne, targetTwo));
+    }
+
+    @Test
+    public void findLinksStoredArtifact() throws Exception {
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source,
+                temp.getRoot().toPath().resolve("one").resolve("test.jar"));
+        final Path target = temp.getRoot().toPath().resolve("two").resolve("test.jar");
+
+        final Optional<String> found = store.find(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, target);
+
+        assertEquals(Optional.of(hash), found);
+        assertThat(target).hasSameBinaryContentAs(source);
+    }
+
+    @Test
+    public void findReturnsEmptyIfArtifactIsNotStored() throws Exception {
+        final Path target = temp.getRoot().toPath().resolve("target").resolve("test.jar");
+
+        assertEquals(Optional.empty(), store.find(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, target));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    public void findRemovesCorruptedObject() throws Exception {
+        final Path target = temp.getRoot().toPath().resolve("one").resolve("test.jar");
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source, target);
+        Files.writeString(target, "corrupted");
+
+        final Optional<String> found = store.find(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION,
+                temp.getRoot().toPath().resolve("two").resolve("test.jar"));
+
+        assertEquals(Optional.empty(), found);
+        assertFalse(Files.exists(store.objectPath(hash)));
+    }
+
+    @Test
+    public void lookupReturnsStoredObjectWithoutLinkingIt() throws Exception {
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source,
+                temp.getRoot().toPath().resolve("one").resolve("test.jar"));
+
+        final Optional<Path> found = store.lookup(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION);
+
+        assertEquals(Optional.of(store.objectPath(hash)), found);
+        assertEquals(2, Files.getAttribute(found.get(), "unix:nlink"));
+    }
+
+    @Test
+    public void lookupRemovesModifiedCorruptedObject() throws Exception {
+        final Path target = temp.getRoot().toPath().resolve("one").resolve("test.jar");
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source, target);
+        Files.writeString(target, "corrupted");
+
+        assertEquals(Optional.empty(), store.lookup(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION));
+        assertFalse(Files.exists(store.objectPath(hash)));
+    }
+
+    @Test
+    public void lookupVerifiesObjectIndexedWithoutFingerprint() throws Exception {
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source,
+                temp.getRoot().toPath().resolve("one").resolve("test.jar"));
+        final Path index;
+        try (Stream<Path> files = Files.walk(store.getRoot().resolve(SharedArtifactStore.INDEX_DIR))) {
+            index = files.filter(Files::isRegularFile).findFirst().get();
+        }
+        Files.writeString(index, hash);
+
+        assertEquals(Optional.of(store.objectPath(hash)), store.lookup(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION));
+        assertThat(Files.readString(index)).startsWith(hash + ArtifactCache.CACHE_LINE_SEPARATOR);
+    }
+
+    @Test
+    public void gcRemovesUnreferencedObjects() throws Exception {
+        final Path targetOne = temp.getRoot().toPath().resolve("one").resolve("test.jar");
+        final Path targetTwo = temp.getRoot().toPath().resolve("two").resolve("test.jar");
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source, targetOne);
+        store.store(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, hash, source, targetTwo);
+
+        Files.delete(targetOne);
+        assertEquals(0, store.gc());
+        assertTrue(Files.exists(store.objectPath(hash)));
+
+        Files.delete(targetTwo);
+        assertEquals(1, store.gc());
+        assertFalse(Files.exists(store.objectPath(hash)));
+        assertEquals(Optional.empty(), store.find(GROUP_ID, ARTIFACT_ID, EXTENSION, null, VERSION, targetOne));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VersionCacheTest {
+
+    private static final String REPOSITORY_URL = "https://repo.example.org/maven";
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private Path cacheDir;
+    private Instant now;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheDir = temp.newFolder().toPath();
+        now = Instant.parse("2024-01-01T10:00:00Z");
+    }
+
+    @Test
+    public void cachedVersionsArePersisted() throws Exception {
+        cache(false).put(REPOSITORY_URL, "org.test", "test", "jar", null, Set.of("1.0.0", "1.0.1"));
+
+        assertThat(cache(false).get(REPOSITORY_URL, "org.test", "test", "jar", null))
+                .contains(Set.of("1.0.0", "1.0.1"));
+        assertThat(cache(false).get(REPOSITORY_URL, "org.test", "other", "jar", null))
+                .isEmpty();
+    }
+
+    @Test
+    public void versionsAreCachedPerRepository() throws Exception {
+        cache(false).put(REPOSITORY_URL, "org.test", "test", "jar", null, Set.of("1.0.0"));
+
+        assertThat(cache(false).get("https://other.example.org/maven", "org.test", "test", "jar", null))
+                .isEmpty();
+    }
+
+    @Test
+    public void emptyVersionsAreCached() throws Exception {
+        cache(false).put(REPOSITORY_URL, "org.test", "test", "jar", null, Set.of());
+
+        assertThat(cache(false).get(REPOSITORY_URL, "org.test", "test", "jar", null))
+                .contains(Set.of());
+    }
+
+    @Test
+    public void expiredVersionsAreIgnored() throws Exception {
+        cache(false).put(REPOSITORY_URL, "org.test", "test", "jar", null, Set.of("1.0.0"));
+
+        now = now.plus(TTL).plusSeconds(1);
+
+        assertThat(cache(false).get(REPOSITORY_URL, "org.test", "test", "jar", null))
+                .isEmpty();
+    }
+
+    @Test
+    public void refreshIgnoresCachedVersionsButUpdatesCache() throws Exception {
+        cache(false).put(REPOSITORY_URL, "org.test", "test", "jar", null, Set.of("1.0.0"));
+
+        final VersionCache refreshing = cache(true);
+        assertThat(refreshing.get(REPOSITORY_URL, "org.test", "test", "jar", null))
+                .isEmpty();
+        refreshing.put(REPOSITORY_URL, "org.test", "test", "jar", null, Set.of("1.0.0", "1.0.1"));
+
+        assertThat(cache(false).get(REPOSITORY_URL, "org.test", "test", "jar", null))
+                .contains(Set.of("1.0.0", "1.0.1"));
+    }
+
+    @Test
+    public void malformedEntriesAreIgnored() throws Exception {
+        cache(false).put(REPOSITORY_URL, "org.test", "test", "jar", null, Set.of("1.0.0"));
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            final Path journal = files.findFirst().get();
+            Files.writeString(journal, Files.readString(journal) + "garbage");
+        }
+
+        assertThat(cache(false).get(REPOSITORY_URL, "org.test", "test", "jar", null))
+                .contains(Set.of("1.0.0"));
+    }
+
+    @Test
+    public void cacheIsDisabledWithZeroTtl() throws Exception {
+        System.setProperty(VersionCache.TTL_PROPERTY, "0");
+        try {
+            assertThat(VersionCache.configured(false)).isEmpty();
+        } finally {
+            System.clearProperty(VersionCache.TTL_PROPERTY);
+        }
+    }
+
+    private VersionCache cache(boolean refresh) {
+        return new VersionCache(cacheDir, TTL, refresh, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.galleon;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.wildfly.channel.Repository;
+import org.wildfly.channel.spi.MavenVersionsResolver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class VersionCachingResolverTest {
+
+    private static final Repository REMOTE_ONE = new Repository("one", "https://one.example.org/maven");
+    private static final Repository REMOTE_TWO = new Repository("two", "https://two.example.org/maven");
+    private static final Repository LOCAL = new Repository("local", "file:///tmp/repo");
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Mock
+    private MavenVersionsResolver.Factory factory;
+    @Mock
+    private MavenVersionsResolver allResolver;
+    @Mock
+    private MavenVersionsResolver oneResolver;
+    @Mock
+    private MavenVersionsResolver twoResolver;
+    @Mock
+    private MavenVersionsResolver localResolver;
+
+    private VersionCache versionCache;
+
+    @Before
+    public void setUp() throws Exception {
+        versionCache = new VersionCache(temp.newFolder().toPath(), Duration.ofMinutes(10), false);
+    }
+
+    @Test
+    public void versionsAreLookedUpOnlyOnceWithinTtl() throws Exception {
+        when(factory.create(List.of(REMOTE_ONE, REMOTE_TWO))).thenReturn(allResolver);
+        when(allResolver.getAllVersions("org.test", "test", "jar", null)).thenReturn(Set.of("1.0.0", "1.0.1"));
+
+        final VersionCachingResolver resolver = new VersionCachingResolver(factory, List.of(REMOTE_ONE, REMOTE_TWO), versionCache, false);
+        assertThat(resolver.getAllVersions("org.test", "test", "jar", null))
+                .containsExactlyInAnyOrder("1.0.0", "1.0.1");
+
+        // new resolver using the same cache, as in a repeated operation
+        final VersionCachingResolver second = new VersionCachingResolver(factory, List.of(REMOTE_ONE, REMOTE_TWO), versionCache, false);
+        assertThat(second.getAllVersions("org.test", "test", "jar", null))
+                .containsExactlyInAnyOrder("1.0.0", "1.0.1");
+
+        verify(allResolver).getAllVersions("org.test", "test", "jar", null);
+    }
+
+    @Test
+    public void onlyRepositoriesWithoutCachedVersionsAreQueried() throws Exception {
+        when(factory.create(List.of(REMOTE_ONE, REMOTE_TWO))).thenReturn(allResolver);
+        when(factory.create(List.of(REMOTE_TWO))).thenReturn(twoResolver);
+        when(twoResolver.getAllVersions("org.test", "test", "jar", null)).thenReturn(Set.of("1.0.1"));
+        versionCache.put(REMOTE_ONE.getUrl(), "org.test", "test", "jar", null, Set.of("1.0.0"));
+
+        final VersionCachingResolver resolver = new VersionCachingResolver(factory, List.of(REMOTE_ONE, REMOTE_TWO), versionCache, false);
+
+        assertThat(resolver.getAllVersions("org.test", "test", "jar", null))
+                .containsExactlyInAnyOrder("1.0.0", "1.0.1");
+        verify(twoResolver).getAllVersions("org.test", "test", "jar", null);
+        verify(allResolver, never()).getAllVersions("org.test", "test", "jar", null);
+        assertThat(versionCache.get(REMOTE_TWO.getUrl(), "org.test", "test", "jar", null)).contains(Set.of("1.0.1"));
+    }
+
+    @Test
+    public void emptyResultsAreNotCached() throws Exception {
+        when(factory.create(List.of(REMOTE_ONE))).thenReturn(oneResolver);
+        when(oneResolver.getAllVersions("org.test", "test", "jar", null)).thenReturn(Set.of());
+
+        final VersionCachingResolver resolver = new VersionCachingResolver(factory, List.of(REMOTE_ONE), versionCache, false);
+        resolver.getAllVersions("org.test", "test", "jar", null);
+        resolver.getAllVersions("org.test", "test", "jar", null);
+
+        assertThat(versionCache.get(REMOTE_ONE.getUrl(), "org.test", "test", "jar", null)).isEmpty();
+        verify(oneResolver, times(2)).getAllVersions("org.test", "test", "jar", null);
+    }
+
+    @Test
+    public void fileRepositoriesAreAlwaysQueried() throws Exception {
+        when(factory.create(List.of(REMOTE_ONE, LOCAL))).thenReturn(allResolver);
+        when(factory.create(List.of(LOCAL))).thenReturn(localResolver);
+        when(localResolver.getAllVersions("org.test", "test", "jar", null)).thenReturn(Set.of("1.0.2"));
+        versionCache.put(REMOTE_ONE.getUrl(), "org.test", "test", "jar", null, Set.of("1.0.0"));
+
+        final VersionCachingResolver resolver = new VersionCachingResolver(factory, List.of(REMOTE_ONE, LOCAL), versionCache, false);
+
+        assertThat(resolver.getAllVersions("org.test", "test", "jar", null))
+                .containsExactlyInAnyOrder("1.0.0", "1.0.2");
+        verify(localResolver).getAllVersions("org.test", "test", "jar", null);
+    }
+
+    @Test
+    public void offlineLookupsAreNotCached() throws Exception {
+        when(factory.create(List.of(REMOTE_ONE))).thenReturn(oneResolver);
+        when(oneResolver.getAllVersions("org.test", "test", "jar", null)).thenReturn(Set.of("1.0.0"));
+
+        final VersionCachingResolver resolver = new VersionCachingResolver(factory, List.of(REMOTE_ONE), versionCache, true);
+        resolver.getAllVersions("org.test", "test", "jar", null);
+
+        assertThat(versionCache.get(REMOTE_ONE.getUrl(), "org.test", "test", "jar", null)).isEmpty();
+    }
+}
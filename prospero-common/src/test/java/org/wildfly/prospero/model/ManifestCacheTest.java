@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.ChannelManifestMapper;
+import org.wildfly.channel.ManifestRequirement;
+import org.wildfly.channel.MavenCoordinate;
+import org.wildfly.channel.Stream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ManifestCacheTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void returnsCopiesOfCachedManifest() throws Exception {
+        final ManifestCache cache = new ManifestCache(ManifestCache.DEFAULT_SIZE, null);
+        final Path manifestFile = writeManifest(temp.newFile().toPath(), "1.0.0");
+
+        final ChannelManifest first = cache.parse(manifestFile);
+        first.getStreams().clear();
+        final ChannelManifest second = cache.parse(manifestFile);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getStreams()).hasSize(2);
+    }
+
+    @Test
+    public void changedFileIsParsedAgain() throws Exception {
+        final ManifestCache cache = new ManifestCache(ManifestCache.DEFAULT_SIZE, null);
+        final Path manifestFile = writeManifest(temp.newFile().toPath(), "1.0.0");
+        cache.parse(manifestFile);
+
+        writeManifest(manifestFile, "1.0.1");
+
+        assertThat(cache.parse(manifestFile).findStreamFor("org.test", "foo"))
+                .map(Stream::getVersion)
+                .contains("1.0.1");
+    }
+
+    @Test
+    public void manifestIsLoadedFromBinaryForm() throws Exception {
+        final Path binaryDir = temp.newFolder("binary").toPath();
+        final Path manifestFile = writeManifest(temp.newFile().toPath(), "1.0.0");
+        final ChannelManifest parsed = new ManifestCache(ManifestCache.DEFAULT_SIZE, binaryDir).parse(manifestFile);
+
+        try (java.util.stream.Stream<Path> files = Files.list(binaryDir)) {
+            assertThat(files).hasSize(1).allMatch(p -> p.getFileName().toString().endsWith(ManifestCache.BINARY_SUFFIX));
+        }
+
+        // new cache instance has to use the binary form
+        final ChannelManifest loaded = new ManifestCache(ManifestCache.DEFAULT_SIZE, binaryDir).parse(manifestFile);
+        assertThat(ChannelManifestMapper.toYaml(loaded)).isEqualTo(ChannelManifestMapper.toYaml(parsed));
+    }
+
+    @Test
+    public void leastRecentlyUsedManifestIsEvicted() throws Exception {
+        final ManifestCache cache = new ManifestCache(1, null);
+        final Path first = writeManifest(temp.newFile().toPath(), "1.0.0");
+        final Path second = writeManifest(temp.newFile().toPath(), "1.0.1");
+
+        assertThat(cache.parse(first).findStreamFor("org.test", "foo")).map(Stream::getVersion).contains("1.0.0");
+        assertThat(cache.parse(second).findStreamFor("org.test", "foo")).map(Stream::getVersion).contains("1.0.1");
+        assertThat(cache.parse(first).findStreamFor("org.test", "foo")).map(Stream::getVersion).contains("1.0.0");
+    }
+
+    private static Path writeManifest(Path file, String version) throws Exception {
+        final ChannelManifest manifest = new ChannelManifest("1.0.0", "test", "test-id", "test manifest",
+                List.of(new ManifestRequirement("required", new MavenCoordinate("org.test", "required", "1.0.0"))),
+                List.of(new Stream("org.test", "foo", version),
+                        new Stream("org.test", "bar", Pattern.compile("1\\..*"))));
+        Files.writeString(file, ChannelManifestMapper.toYaml(manifest));
+        return file;
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.wildfly.prospero.spi;
 
+import org.eclipse.aether.artifact.DefaultArtifact;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -32,9 +33,11 @@ import org.wildfly.prospero.actions.InstallationHistoryAction;
 import org.wildfly.prospero.actions.UpdateAction;
 import org.wildfly.prospero.api.ChannelChange;
 import org.wildfly.prospero.api.SavedState;
+import org.wildfly.prospero.updates.UpdateListener;
 import org.wildfly.prospero.updates.UpdateSet;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -140,6 +143,27 @@ public class ProsperoInstallationManagerTest {
         mgr.findUpdates(List.of(new org.wildfly.installationmanager.Repository("test", "http://test.te")));
     }
 
+    @Test
+    public void findUpdatesPassesMappedUpdatesToListener() throws Exception {
+        final ProsperoInstallationManager mgr = new ProsperoInstallationManager(actionFactory);
+        final org.wildfly.prospero.api.ArtifactChange change = org.wildfly.prospero.api.ArtifactChange.updated(
+                new DefaultArtifact("org.foo", "bar", "jar", "1.0.0"), new DefaultArtifact("org.foo", "bar", "jar", "1.0.1"));
+        when(actionFactory.getUpdateAction(Collections.emptyList())).thenReturn(updateAction);
+        when(updateAction.findUpdates(any(UpdateListener.class))).thenAnswer(inv -> {
+            final boolean proceed = inv.getArgument(0, UpdateListener.class).updateFound(change);
+            assertFalse(proceed);
+            return new UpdateSet(List.of(change));
+        });
+
+        final List<org.wildfly.installationmanager.ArtifactChange> found = new ArrayList<>();
+        final List<org.wildfly.installationmanager.ArtifactChange> updates = mgr.findUpdates(null, c -> !found.add(c));
+
+        assertEquals(1, found.size());
+        assertEquals("org.foo:bar", found.get(0).getArtifactName());
+        assertEquals("1.0.1", found.get(0).getNewVersion());
+        assertEquals(1, updates.size());
+    }
+
     @Test
     public void prepareUpdateWithNullRepositoryListPassesEmptyList() throws Exception {
         final ProsperoInstallationManager mgr = new ProsperoInstallationManager(actionFactory);
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.updates;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void fastLookupsIncreaseLimit() throws Exception {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 64);
+
+        for (int i = 0; i < 5; i++) {
+            limit.acquire();
+            limit.release(FAST, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(15);
+    }
+
+    @Test
+    public void limitDoesNotExceedMaximum() throws Exception {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 12);
+
+        for (int i = 0; i < 5; i++) {
+            limit.acquire();
+            limit.release(FAST, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(12);
+    }
+
+    @Test
+    public void slowLookupsDecreaseLimit() throws Exception {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 64);
+        limit.acquire();
+        limit.release(FAST, false);
+
+        limit.acquire();
+        limit.release(SLOW, false);
+
+        assertThat(limit.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    public void failuresHalveLimitDownToMinimum() throws Exception {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 64);
+
+        limit.acquire();
+        limit.release(FAST, true);
+        assertThat(limit.getLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 5; i++) {
+            limit.acquire();
+            limit.release(FAST, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void acquireBlocksWhenLimitIsReached() throws Exception {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 2, 2);
+        limit.acquire();
+        limit.acquire();
+
+        final Thread waiting = new Thread(() -> {
+            try {
+                limit.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+        waiting.join(200);
+        assertThat(waiting.isAlive()).isTrue();
+
+        limit.release(FAST, false);
+        waiting.join(5000);
+        assertThat(waiting.isAlive()).isFalse();
+    }
+}
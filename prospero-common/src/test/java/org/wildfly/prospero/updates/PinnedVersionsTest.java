@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.wildfly.prospero.updates;
+
+import org.junit.Test;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
+import org.wildfly.channel.Stream;
+import org.wildfly.channel.VersionResult;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PinnedVersionsTest {
+
+    @Test
+    public void fixedVersionIsPinned() {
+        final PinnedVersions pinnedVersions = new PinnedVersions(
+                List.of(channel("channel-1", Channel.NoStreamStrategy.NONE)),
+                List.of(manifest(new Stream("org.foo", "bar", "1.0.1"))));
+
+        assertThat(pinnedVersions.find("org.foo", "bar"))
+                .contains(new VersionResult("1.0.1", "channel-1"));
+    }
+
+    @Test
+    public void versionPatternIsNotPinned() {
+        final PinnedVersions pinnedVersions = new PinnedVersions(
+                List.of(channel("channel-1", Channel.NoStreamStrategy.NONE)),
+                List.of(manifest(new Stream("org.foo", "bar", Pattern.compile("1\\..*")))));
+
+        assertThat(pinnedVersions.find("org.foo", "bar")).isEmpty();
+    }
+
+    @Test
+    public void missingStreamIsNotPinned() {
+        final PinnedVersions pinnedVersions = new PinnedVersions(
+                List.of(channel("channel-1", Channel.NoStreamStrategy.NONE)),
+                List.of(manifest(new Stream("org.foo", "bar", "1.0.1"))));
+
+        assertThat(pinnedVersions.find("org.foo", "other")).isEmpty();
+    }
+
+    @Test
+    public void latestPinnedVersionAcrossChannels() {
+        final PinnedVersions pinnedVersions = new PinnedVersions(
+                List.of(channel("channel-1", Channel.NoStreamStrategy.NONE),
+                        channel("channel-2", Channel.NoStreamStrategy.NONE),
+                        channel("channel-3", Channel.NoStreamStrategy.NONE)),
+                List.of(manifest(new Stream("org.foo", "bar", "1.0.1")),
+                        manifest(new Stream("org.foo", "bar", "1.0.10")),
+                        manifest(new Stream("org.foo", "other", "2.0.0"))));
+
+        assertThat(pinnedVersions.find("org.foo", "bar"))
+                .contains(new VersionResult("1.0.10", "channel-2"));
+    }
+
+    @Test
+    public void channelResolvingMissingStreamsFromRepositoryIsNotPinned() {
+        final PinnedVersions pinnedVersions = new PinnedVersions(
+                List.of(channel("channel-1", Channel.NoStreamStrategy.NONE),
+                        channel("channel-2", Channel.NoStreamStrategy.LATEST)),
+                List.of(manifest(new Stream("org.foo", "bar", "1.0.1")),
+                        manifest(new Stream("org.foo", "other", "2.0.0"))));
+
+        assertThat(pinnedVersions.find("org.foo", "bar")).isEmpty();
+        // channel-1 ignores artifacts without streams
+        assertThat(pinnedVersions.find("org.foo", "other"))
+                .contains(new VersionResult("2.0.0", "channel-2"));
+    }
+
+    @Test
+    public void wildcardStreamIsPinned() {
+        final PinnedVersions pinnedVersions = new PinnedVersions(
+                List.of(channel("channel-1", Channel.NoStreamStrategy.NONE)),
+                List.of(manifest(new Stream("org.foo", "*", "1.0.1"))));
+
+        assertThat(pinnedVersions.find("org.foo", "bar").map(VersionResult::getVersion))
+                .isEqualTo(Optional.of("1.0.1"));
+    }
+
+    @Test
+    public void requiresManifestForEachChannel() {
+        assertThatThrownBy(() -> new PinnedVersions(
+                List.of(channel("channel-1", Channel.NoStreamStrategy.NONE)), List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Channel channel(String name, Channel.NoStreamStrategy strategy) {
+        return new Channel.Builder()
+                .setName(name)
+                .setManifestCoordinate("org.test", name, "1.0.0")
+                .setResolveStrategy(strategy)
+                .build();
+    }
+
+    private static ChannelManifest manifest(Stream... streams) {
+        return new ChannelManifest("test", null, null, List.of(streams));
+    }
+}
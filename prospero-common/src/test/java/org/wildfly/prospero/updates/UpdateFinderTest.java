@@ -25,16 +25,26 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.wildfly.channel.ArtifactTransferException;
+import org.wildfly.channel.Channel;
+import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.ChannelSession;
+import org.wildfly.channel.Stream;
 import org.wildfly.channel.VersionResult;
 import org.wildfly.prospero.api.ArtifactChange;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @SuppressWarnings("OptionalGetWithoutIsPresent")
@@ -113,6 +123,77 @@ public class UpdateFinderTest {
         assertEquals("1.0.0", updates.getArtifactUpdates().get(0).getOldVersion().get());
     }
 
+    @Test
+    public void pinnedVersionsAreNotLookedUp() throws Exception {
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "open", "jar", "", null))
+                .thenReturn(new VersionResult("2.0.1", "test-channel"));
+        final PinnedVersions pinnedVersions = new PinnedVersions(
+                List.of(new Channel.Builder().setName("test-channel").setManifestCoordinate("org.test", "manifest", "1.0.0").build()),
+                List.of(new ChannelManifest("test", null, null, List.of(
+                        new Stream("org.foo", "changed", "1.0.1"),
+                        new Stream("org.foo", "unchanged", "1.0.0"),
+                        new Stream("org.foo", "open", Pattern.compile("2\\..*"))))));
+
+        UpdateFinder finder = new UpdateFinder(channelSession);
+        final List<Artifact> artifacts = Arrays.asList(
+                new DefaultArtifact("org.foo", "changed", "jar", "1.0.0"),
+                new DefaultArtifact("org.foo", "unchanged", "jar", "1.0.0"),
+                new DefaultArtifact("org.foo", "open", "jar", "2.0.0")
+        );
+        final UpdateSet updates = finder.findUpdates(artifacts, pinnedVersions);
+
+        assertEquals(2, updates.getArtifactUpdates().size());
+        assertEquals("org.foo:changed", updates.getArtifactUpdates().get(0).getArtifactName());
+        assertEquals("1.0.1", updates.getArtifactUpdates().get(0).getNewVersion().get());
+        assertEquals("test-channel", updates.getArtifactUpdates().get(0).getChannelName().get());
+        assertEquals("org.foo:open", updates.getArtifactUpdates().get(1).getArtifactName());
+        assertEquals("2.0.1", updates.getArtifactUpdates().get(1).getNewVersion().get());
+        verify(channelSession).findLatestMavenArtifactVersion("org.foo", "open", "jar", "", null);
+        verifyNoMoreInteractions(channelSession);
+    }
+
+    @Test
+    public void listenerIsNotifiedAboutEachUpdate() throws Exception {
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "bar", "jar", "", null))
+                .thenReturn(new VersionResult("1.0.1", null));
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "baz", "jar", "", null))
+                .thenReturn(new VersionResult("1.0.0", null));
+        when(channelSession.findLatestMavenArtifactVersion("org.foo", "qux", "jar", "", null))
+                .thenReturn(new VersionResult("2.0.0", null));
+
+        UpdateFinder finder = new UpdateFinder(channelSession);
+        final List<Artifact> artifacts = Arrays.asList(
+                new DefaultArtifact("org.foo", "bar", "jar", "1.0.0"),
+                new DefaultArtifact("org.foo", "baz", "jar", "1.0.0"),
+                new DefaultArtifact("org.foo", "qux", "jar", "1.0.0")
+        );
+        final List<String> notified = new ArrayList<>();
+        final UpdateSet updates = finder.findUpdates(artifacts, null, change -> notified.add(change.getArtifactName()));
+
+        assertEquals(2, notified.size());
+        assertTrue(notified.containsAll(List.of("org.foo:bar", "org.foo:qux")));
+        // the result follows the order of installed artifacts
+        assertEquals("org.foo:bar", updates.getArtifactUpdates().get(0).getArtifactName());
+        assertEquals("org.foo:qux", updates.getArtifactUpdates().get(1).getArtifactName());
+    }
+
+    @Test
+    public void listenerCanStopSearch() throws Exception {
+        when(channelSession.findLatestMavenArtifactVersion(eq("org.foo"), any(), eq("jar"), eq(""), isNull()))
+                .thenReturn(new VersionResult("1.0.1", null));
+
+        UpdateFinder finder = new UpdateFinder(channelSession);
+        final List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            artifacts.add(new DefaultArtifact("org.foo", "bar" + i, "jar", "1.0.0"));
+        }
+        final List<ArtifactChange> notified = new ArrayList<>();
+        final UpdateSet updates = finder.findUpdates(artifacts, null, change -> notified.add(change) && notified.size() < 3);
+
+        assertEquals(3, notified.size());
+        assertEquals(notified, updates.getArtifactUpdates());
+    }
+
     @Test
     public void findUpdatesIncludesChannelNames() throws Exception {
         when(channelSession.findLatestMavenArtifactVersion("org.foo", "bar", "jar", "", null))
@@ -131,4 +212,24 @@ public class UpdateFinderTest {
         assertEquals("1.0.1", actualUpdate.getOldVersion().get());
         assertEquals("test-channel", actualUpdate.getChannelName().orElse(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testManyArtifactsAreCheckedInOrder() throws Exception {
+        final List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            artifacts.add(new DefaultArtifact("org.foo", "bar" + i, "jar", "1.0.0"));
+            when(channelSession.findLatestMavenArtifactVersion("org.foo", "bar" + i, "jar", "", null))
+                    .thenReturn(new VersionResult("1.0.1", null));
+        }
+
+        final UpdateSet updates;
+        try (UpdateFinder finder = new UpdateFinder(channelSession)) {
+            updates = finder.findUpdates(artifacts);
+        }
+
+        assertEquals(500, updates.getArtifactUpdates().size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("org.foo:bar" + i, updates.getArtifactUpdates().get(i).getArtifactName());
+        }
+    }
+}
@@ -17,16 +17,35 @@
 
 package org.wildfly.prospero.wfchannel;
 
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalArtifactResult;
+import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.wildfly.prospero.api.MavenOptions;
 
+import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
 public class MavenSessionManagerTest {
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(MavenSessionManager.READ_ONLY_REPOSITORIES_PROPERTY);
+    }
+
     @Test
     public void defaultToTempFolderIfNoCacheOptionSet() throws Exception {
         final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
@@ -45,4 +64,82 @@ public class MavenSessionManagerTest {
 
         assertEquals(MavenSessionManager.LOCAL_MAVEN_REPO, msm.getProvisioningRepo());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void configureTransfersFromOptions() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder()
+                .setDownloadThreads(12)
+                .setMaxConnectionsPerRepository(4)
+                .build());
+
+        final RepositorySystem system = msm.newRepositorySystem();
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession(system);
+
+        assertEquals(12, session.getConfigProperties().get(MavenSessionManager.AETHER_CONNECTOR_THREADS_PROPERTY));
+        assertEquals(12, msm.getDownloadThreads());
+        assertEquals(4, session.getConfigProperties().get(MavenSessionManager.AETHER_MAX_CONNECTIONS_PER_ROUTE_PROPERTY));
+    }
+
+    @Test
+    public void useResolverDefaultTransfersIfNotConfigured() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
+
+        final RepositorySystem system = msm.newRepositorySystem();
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession(system);
+
+        assertFalse(session.getConfigProperties().containsKey(MavenSessionManager.AETHER_CONNECTOR_THREADS_PROPERTY));
+        assertEquals(MavenSessionManager.DEFAULT_DOWNLOAD_THREADS, msm.getDownloadThreads());
+        assertFalse(session.getConfigProperties().containsKey(MavenSessionManager.AETHER_MAX_CONNECTIONS_PER_ROUTE_PROPERTY));
+    }
+
+    @Test
+    public void repositorySystemIsReused() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
+
+        final RepositorySystem system = msm.newRepositorySystem();
+
+        assertSame(system, msm.newRepositorySystem());
+        assertSame(system, new MavenSessionManager(msm).newRepositorySystem());
+    }
+
+    @Test
+    public void sessionsShareSessionData() throws Exception {
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.DEFAULT_OPTIONS);
+        final RepositorySystem system = msm.newRepositorySystem();
+
+        assertSame(msm.newRepositorySystemSession(system).getData(), msm.newRepositorySystemSession(system).getData());
+    }
+
+    @Test
+    public void resolveArtifactsFromReadOnlyRepository() throws Exception {
+        final Path readOnlyRepo = temp.newFolder("read-only").toPath();
+        final Path provisioningRepo = temp.newFolder("provisioning").toPath();
+        final Path artifactFile = readOnlyRepo.resolve("org/test/foo/1.0.0/foo-1.0.0.jar");
+        Files.createDirectories(artifactFile.getParent());
+        Files.writeString(artifactFile, "test");
+        System.setProperty(MavenSessionManager.READ_ONLY_REPOSITORIES_PROPERTY,
+                readOnlyRepo + File.pathSeparator + temp.getRoot().toPath().resolve("missing"));
+
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder().setLocalCachePath(provisioningRepo).build());
+        final RepositorySystem system = msm.newRepositorySystem();
+        final DefaultRepositorySystemSession session = msm.newRepositorySystemSession(system);
+
+        final LocalArtifactResult result = session.getLocalRepositoryManager().find(session,
+                new LocalArtifactRequest(new DefaultArtifact("org.test:foo:1.0.0"), Collections.emptyList(), null));
+        assertTrue(result.isAvailable());
+        assertEquals(artifactFile.toFile(), result.getFile());
+        // new artifacts are still written to the provisioning repository
+        assertEquals(provisioningRepo.toFile(), session.getLocalRepository().getBasedir());
+        assertEquals(List.of(readOnlyRepo.toAbsolutePath().normalize()), msm.getReadOnlyRepositories());
+    }
+
+    @Test
+    public void provisioningRepositoryIsNotUsedAsReadOnlyRepository() throws Exception {
+        final Path provisioningRepo = temp.newFolder("provisioning").toPath();
+        System.setProperty(MavenSessionManager.READ_ONLY_REPOSITORIES_PROPERTY, provisioningRepo.toString());
+
+        final MavenSessionManager msm = new MavenSessionManager(MavenOptions.builder().setLocalCachePath(provisioningRepo).build());
+
+        assertTrue(msm.getReadOnlyRepositories().isEmpty());
+    }
+}
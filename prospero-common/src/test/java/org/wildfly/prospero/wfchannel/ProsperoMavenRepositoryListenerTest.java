@@ -20,6 +20,7 @@ package org.wildfly.prospero.wfchannel;
 import org.eclipse.aether.RepositoryEvent;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.LocalRepository;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -27,6 +28,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.wildfly.channel.ChannelManifest;
 import org.wildfly.channel.MavenArtifact;
+import org.wildfly.prospero.galleon.CachedVersionResolver;
 
 import java.io.File;
 
@@ -107,6 +109,37 @@ public class ProsperoMavenRepositoryListenerTest {
                         ChannelManifest.EXTENSION, ChannelManifest.CLASSIFIER, A_VERSION, testFileTwo));
     }
 
+    @Test
+    public void countsInstallationCacheHitsAndMisses() throws Exception {
+        listener.artifactResolved(new RepositoryEvent.Builder(session, RepositoryEvent.EventType.ARTIFACT_RESOLVED)
+                .setArtifact(resolvedArtifact(testFile))
+                .setRepository(new LocalRepository(new File("cache"), CachedVersionResolver.CACHE_REPOSITORY_TYPE))
+                .build());
+        listener.artifactResolved(new RepositoryEvent.Builder(session, RepositoryEvent.EventType.ARTIFACT_RESOLVED)
+                .setArtifact(resolvedArtifact(null))
+                .setRepository(new LocalRepository(new File("cache"), CachedVersionResolver.CACHE_REPOSITORY_TYPE))
+                .build());
+        listener.artifactResolved(new RepositoryEvent.Builder(session, RepositoryEvent.EventType.ARTIFACT_RESOLVED)
+                .setArtifact(resolvedArtifact(testFile))
+                .build());
+
+        final ArtifactCacheStatistics statistics = listener.getCacheStatistics();
+        assertThat(statistics.getHits()).isEqualTo(1);
+        assertThat(statistics.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void countsInstalledArtifacts() throws Exception {
+        listener.artifactInstalling(new RepositoryEvent.Builder(session, RepositoryEvent.EventType.ARTIFACT_INSTALLING)
+                .setArtifact(resolvedArtifact(testFile))
+                .build());
+        listener.artifactInstalled(new RepositoryEvent.Builder(session, RepositoryEvent.EventType.ARTIFACT_INSTALLED)
+                .setArtifact(resolvedArtifact(testFile))
+                .build());
+
+        assertThat(listener.getCacheStatistics().getInstalled()).isEqualTo(1);
+    }
+
     private DefaultArtifact resolvedArtifact(File testFile) {
         if (testFile == null) {
             return new DefaultArtifact(A_GROUP, AN_ARTIFACT,
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.prospero.wfchannel;
+
+import org.eclipse.aether.RepositorySystem;
+import org.wildfly.prospero.api.MavenOptions;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of obtaining a {@code RepositorySystem} and a session from a new {@code MavenSessionManager}
+ * (equivalent to building the system on each call) with obtaining them from a single manager.
+ *
+ * Not executed as part of the test suite. Run the {@code main} method with the module's test classpath, optionally
+ * passing the number of iterations as the argument.
+ */
+public class RepositorySystemBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int DEFAULT_ITERATIONS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+
+        run(WARMUP_ITERATIONS, false);
+        run(WARMUP_ITERATIONS, true);
+
+        final long rebuilt = run(iterations, false);
+        final long reused = run(iterations, true);
+
+        System.out.printf("rebuilt system: %d us/op%n", TimeUnit.NANOSECONDS.toMicros(rebuilt / iterations));
+        System.out.printf("reused system:  %d us/op%n", TimeUnit.NANOSECONDS.toMicros(reused / iterations));
+    }
+
+    private static long run(int iterations, boolean reuse) throws Exception {
+        final MavenOptions options = MavenOptions.builder()
+                .setOffline(true)
+                .setLocalCachePath(Files.createTempDirectory("benchmark-repo"))
+                .build();
+        final MavenSessionManager shared = new MavenSessionManager(options);
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            final MavenSessionManager msm = reuse ? shared : new MavenSessionManager(options);
+            final RepositorySystem system = msm.newRepositorySystem();
+            msm.newRepositorySystemSession(system);
+        }
+        return System.nanoTime() - start;
+    }
+}